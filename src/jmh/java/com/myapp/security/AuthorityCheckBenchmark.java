@@ -0,0 +1,126 @@
+package com.myapp.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorityReactiveAuthorizationManager;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import reactor.core.publisher.Mono;
+
+/**
+ * Compares the authority checks of a request against the list of the granted authorities, as they were done before,
+ * with the checks against the {@link AuthoritySet} of the {@link AuthoritySetSecurityContext}.
+ * <p>
+ * The user has {@code grantedCount} authorities, {@code ROLE_USER} being the last one, and the checks look for
+ * {@code ROLE_ADMIN} or {@code ROLE_USER}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorityCheckBenchmark {
+
+    private static final String[] CHECKED = { AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER };
+
+    @Param({ "2", "20" })
+    private int grantedCount;
+
+    private Authentication authentication;
+    private SecurityContext listSecurityContext;
+    private AuthoritySetSecurityContext setSecurityContext;
+    private AuthoritySet granted;
+    private AuthoritySet checked;
+
+    private ReactiveAuthorizationManager<Object> listAuthorizationManager;
+    private ReactiveAuthorizationManager<Object> setAuthorizationManager;
+
+    @Setup
+    public void setUp() {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (int i = 1; i < grantedCount; i++) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_BENCHMARK_" + i));
+        }
+        authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.USER));
+        authentication = new TestingAuthenticationToken("user", "user", authorities);
+        listSecurityContext = new SecurityContextImpl(authentication);
+        setSecurityContext = AuthoritySetSecurityContext.of(listSecurityContext);
+        granted = AuthoritySet.of(authorities);
+        checked = AuthoritySet.of(CHECKED);
+        listAuthorizationManager = AuthorityReactiveAuthorizationManager.hasAnyAuthority(CHECKED);
+        setAuthorizationManager = AuthoritySetAuthorizationManager.hasAnyAuthority(CHECKED);
+    }
+
+    @Benchmark
+    public boolean listContainsAny() {
+        return anyOf(authentication.getAuthorities(), CHECKED);
+    }
+
+    @Benchmark
+    public boolean setContainsAny() {
+        return granted.containsAny(checked);
+    }
+
+    @Benchmark
+    public Boolean listHasCurrentUserAnyOfAuthorities() {
+        return ReactiveSecurityContextHolder
+            .getContext()
+            .map(SecurityContext::getAuthentication)
+            .map(Authentication::getAuthorities)
+            .map(authorities -> anyOf(authorities, CHECKED))
+            .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(listSecurityContext)))
+            .block();
+    }
+
+    @Benchmark
+    public Boolean setHasCurrentUserAnyOfAuthorities() {
+        return SecurityUtils
+            .hasCurrentUserAnyOfAuthorities(checked)
+            .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(setSecurityContext)))
+            .block();
+    }
+
+    @Benchmark
+    public boolean listAuthorizationManager() {
+        return listAuthorizationManager
+            .check(Mono.just(authentication), null)
+            .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(listSecurityContext)))
+            .block()
+            .isGranted();
+    }
+
+    @Benchmark
+    public boolean setAuthorizationManager() {
+        return setAuthorizationManager
+            .check(Mono.just(authentication), null)
+            .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(setSecurityContext)))
+            .block()
+            .isGranted();
+    }
+
+    // the check of SecurityUtils.hasCurrentUserAnyOfAuthorities before the authority sets
+    private static boolean anyOf(Collection<? extends GrantedAuthority> authorities, String... checked) {
+        return authorities.stream().map(GrantedAuthority::getAuthority).anyMatch(authority -> Arrays.asList(checked).contains(authority));
+    }
+}
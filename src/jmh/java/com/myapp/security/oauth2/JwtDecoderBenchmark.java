@@ -0,0 +1,94 @@
+package com.myapp.security.oauth2;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtIssuerValidator;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+
+/**
+ * Compares the decoding of a signed token sent again and again, by the {@link NimbusReactiveJwtDecoder} which parses
+ * and verifies it every time, with the {@link CachingReactiveJwtDecoder} which only checks its timestamps once it is
+ * kept. Both decoders validate the token as the {@code SecurityConfiguration} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtDecoderBenchmark {
+
+    private static final String ISSUER = "http://localhost:9080/auth/realms/jhipster";
+
+    private static final List<String> AUDIENCE = List.of("account", "api://default");
+
+    private String token;
+
+    private NimbusReactiveJwtDecoder nimbusDecoder;
+    private CachingReactiveJwtDecoder cachingDecoder;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("benchmark").generate();
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .issuer(ISSUER)
+            .audience(AUDIENCE.get(0))
+            .subject("user")
+            .claim("preferred_username", "user")
+            .claim("groups", List.of("ROLE_USER"))
+            .issueTime(Date.from(now))
+            .expirationTime(Date.from(now.plus(Duration.ofHours(1))))
+            .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        token = jwt.serialize();
+
+        OAuth2TokenValidator<Jwt> audienceValidator = new AudienceValidator(AUDIENCE);
+
+        nimbusDecoder = NimbusReactiveJwtDecoder.withPublicKey(key.toRSAPublicKey()).build();
+        OAuth2TokenValidator<Jwt> withIssuer = JwtValidators.createDefaultWithIssuer(ISSUER);
+        nimbusDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(withIssuer, audienceValidator));
+
+        NimbusReactiveJwtDecoder delegate = NimbusReactiveJwtDecoder.withPublicKey(key.toRSAPublicKey()).build();
+        delegate.setJwtValidator(new DelegatingOAuth2TokenValidator<>(new JwtIssuerValidator(ISSUER), audienceValidator));
+        cachingDecoder = new CachingReactiveJwtDecoder(delegate, new JwtTimestampValidator(), 1000, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Jwt nimbusDecode() {
+        return nimbusDecoder.decode(token).block();
+    }
+
+    @Benchmark
+    public Jwt cachingDecode() {
+        return cachingDecoder.decode(token).block();
+    }
+}
@@ -1,5 +1,12 @@
 package com.myapp.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +16,395 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Persistence persistence = new Persistence();
+
+    private final UserSync userSync = new UserSync();
+
+    private final JwtCache jwtCache = new JwtCache();
+
+    public Persistence getPersistence() {
+        return persistence;
+    }
+
+    public UserSync getUserSync() {
+        return userSync;
+    }
+
+    public JwtCache getJwtCache() {
+        return jwtCache;
+    }
+
+    public static class Persistence {
+
+        /**
+         * The number of rows sent to the database in one statement by the bulk inserts.
+         */
+        private int batchSize = 500;
+
+        /**
+         * The number of rows the driver fetches at once when a whole table is streamed.
+         */
+        private int fetchSize = 1000;
+
+        /**
+         * The number of ids reserved by each value of the id sequences, which must be their increment: the application
+         * does not start if a sequence of the entities has another one.
+         */
+        private int idBlockSize = 50;
+
+        private final Count count = new Count();
+
+        private final Coalescing coalescing = new Coalescing();
+
+        private final Replicas replicas = new Replicas();
+
+        private final Pool pool = new Pool();
+
+        private final Cache cache = new Cache();
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public int getIdBlockSize() {
+            return idBlockSize;
+        }
+
+        public void setIdBlockSize(int idBlockSize) {
+            this.idBlockSize = idBlockSize;
+        }
+
+        public Count getCount() {
+            return count;
+        }
+
+        public Coalescing getCoalescing() {
+            return coalescing;
+        }
+
+        public Replicas getReplicas() {
+            return replicas;
+        }
+
+        public Pool getPool() {
+            return pool;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+    }
+
+    public static class Count {
+
+        /**
+         * The strategy counting the entities which have none in {@code entities}: exact, cached, estimated or deadline.
+         */
+        private String strategy = "exact";
+
+        /**
+         * The count strategy by entity name, like {@code a} or {@code user}.
+         */
+        private Map<String, String> entities = new HashMap<>();
+
+        /**
+         * How long the cached strategy keeps a count, unless a write through the services invalidates it.
+         */
+        private Duration cacheTtl = Duration.ofMinutes(1);
+
+        /**
+         * How long the deadline strategy waits for the exact count, before giving up.
+         */
+        private Duration deadline = Duration.ofMillis(200);
+
+        public String getStrategy() {
+            return strategy;
+        }
+
+        public void setStrategy(String strategy) {
+            this.strategy = strategy;
+        }
+
+        public Map<String, String> getEntities() {
+            return entities;
+        }
+
+        public void setEntities(Map<String, String> entities) {
+            this.entities = entities;
+        }
+
+        public Duration getCacheTtl() {
+            return cacheTtl;
+        }
+
+        public void setCacheTtl(Duration cacheTtl) {
+            this.cacheTtl = cacheTtl;
+        }
+
+        public Duration getDeadline() {
+            return deadline;
+        }
+
+        public void setDeadline(Duration deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    public static class Coalescing {
+
+        /**
+         * The entities whose partial updates are coalesced, by entity name, like {@code a}.
+         */
+        private Set<String> entities = new HashSet<>();
+
+        /**
+         * How long the first partial update of a row waits for the following ones, which are written with it.
+         */
+        private Duration window = Duration.ofMillis(20);
+
+        /**
+         * The number of partial updates of a row which are written without waiting for the end of the window.
+         */
+        private int maxBatchSize = 100;
+
+        public Set<String> getEntities() {
+            return entities;
+        }
+
+        public void setEntities(Set<String> entities) {
+            this.entities = entities;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+    }
+
+    public static class Replicas {
+
+        /**
+         * The R2DBC urls of the read replicas, which get the read-only transactions. They use the credentials and the
+         * pool settings of {@code spring.r2dbc}, so they must not use the {@code pool} driver.
+         */
+        private List<String> urls = new ArrayList<>();
+
+        /**
+         * The replication lag above which a replica is not used until it catches up.
+         */
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        /**
+         * How often the lag of the replicas is checked.
+         */
+        private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+        /**
+         * The query returning the replication lag of a replica, in seconds.
+         */
+        private String lagQuery =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public Duration getLagCheckInterval() {
+            return lagCheckInterval;
+        }
+
+        public void setLagCheckInterval(Duration lagCheckInterval) {
+            this.lagCheckInterval = lagCheckInterval;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+    }
+
+    public static class Pool {
+
+        /**
+         * The time a caller may wait for a connection: a longer wait lets the pool open one more connection, up to
+         * {@code spring.r2dbc.pool.max-size}.
+         */
+        private Duration targetAcquireWait = Duration.ofMillis(20);
+
+        /**
+         * The time without a longer wait after which the pool is allowed one connection less, down to
+         * {@code spring.r2dbc.pool.initial-size}.
+         */
+        private Duration resizeInterval = Duration.ofMinutes(1);
+
+        /**
+         * The number of callers waiting for a connection above which a pool is saturated, and the application not ready.
+         */
+        private int saturationPendingAcquires = 50;
+
+        /**
+         * How long the startup waits for the initial connections of the pools.
+         */
+        private Duration warmupTimeout = Duration.ofSeconds(30);
+
+        /**
+         * How long the health check waits for the validation of a connection of each pool.
+         */
+        private Duration validationTimeout = Duration.ofSeconds(5);
+
+        public Duration getTargetAcquireWait() {
+            return targetAcquireWait;
+        }
+
+        public void setTargetAcquireWait(Duration targetAcquireWait) {
+            this.targetAcquireWait = targetAcquireWait;
+        }
+
+        public Duration getResizeInterval() {
+            return resizeInterval;
+        }
+
+        public void setResizeInterval(Duration resizeInterval) {
+            this.resizeInterval = resizeInterval;
+        }
+
+        public int getSaturationPendingAcquires() {
+            return saturationPendingAcquires;
+        }
+
+        public void setSaturationPendingAcquires(int saturationPendingAcquires) {
+            this.saturationPendingAcquires = saturationPendingAcquires;
+        }
+
+        public Duration getWarmupTimeout() {
+            return warmupTimeout;
+        }
+
+        public void setWarmupTimeout(Duration warmupTimeout) {
+            this.warmupTimeout = warmupTimeout;
+        }
+
+        public Duration getValidationTimeout() {
+            return validationTimeout;
+        }
+
+        public void setValidationTimeout(Duration validationTimeout) {
+            this.validationTimeout = validationTimeout;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * The number of entities of each type the services keep by id, 0 to disable the cache.
+         */
+        private int maxSize = 10000;
+
+        /**
+         * How long an entity is kept, unless a write through the services invalidates it.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    public static class UserSync {
+
+        /**
+         * The number of users whose last synchronization with the IdP is remembered, 0 to synchronize on every request.
+         */
+        private int maxSize = 10000;
+
+        /**
+         * How long a user is not synchronized again while the claims of their tokens do not change.
+         */
+        private Duration ttl = Duration.ofHours(1);
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    public static class JwtCache {
+
+        /**
+         * The number of bearer tokens kept once verified, until they expire, 0 to verify every token on every request.
+         */
+        private int maxSize = 0;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+}
@@ -1,6 +1,16 @@
 package com.myapp.config;
 
+import com.myapp.repository.pool.AdaptiveAllocationStrategy;
+import com.myapp.repository.pool.ConnectionPoolHealthIndicator;
+import com.myapp.repository.pool.InstrumentedConnectionPool;
+import com.myapp.repository.routing.ReplicaRoutingConnectionFactory;
+import com.myapp.repository.routing.ReplicaRoutingTransactionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
 import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
@@ -12,8 +22,12 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -31,7 +45,9 @@ import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 import org.springframework.data.relational.core.dialect.RenderContextFactory;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.transaction.ReactiveTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.util.StringUtils;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
 
@@ -76,6 +92,153 @@ public class DatabaseConfiguration {
         return String.valueOf(port);
     }
 
+    /**
+     * The connection pool of {@code spring.r2dbc.url}, sized between {@code spring.r2dbc.pool.initial-size} and
+     * {@code spring.r2dbc.pool.max-size} from the time its callers wait for a connection, and warmed up before the
+     * application is ready. When {@code application.persistence.replicas.urls} lists read replicas, they get pools of
+     * their own, and the read-only transactions are routed to them.
+     *
+     * @param r2dbcProperties the url and the pool settings of the primary, and the credentials of the databases.
+     * @param applicationProperties the sizing of the pools, and the replicas.
+     * @param meterRegistry the registry of the meters of the pools.
+     * @return the connection factory.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionFactory connectionFactory(
+        R2dbcProperties r2dbcProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.Persistence persistence = applicationProperties.getPersistence();
+        InstrumentedConnectionPool primary = createConnectionPool(
+            "primary",
+            r2dbcProperties.getUrl(),
+            r2dbcProperties,
+            persistence,
+            meterRegistry
+        );
+        ApplicationProperties.Replicas replicas = persistence.getReplicas();
+        if (replicas.getUrls().isEmpty()) {
+            warmup(primary, persistence.getPool().getWarmupTimeout());
+            return primary;
+        }
+        List<ConnectionFactory> replicaConnectionPools = new ArrayList<>();
+        for (int i = 0; i < replicas.getUrls().size(); i++) {
+            InstrumentedConnectionPool replica = createConnectionPool(
+                "replica-" + i,
+                replicas.getUrls().get(i),
+                r2dbcProperties,
+                persistence,
+                meterRegistry
+            );
+            warmup(replica, persistence.getPool().getWarmupTimeout());
+            replicaConnectionPools.add(replica);
+        }
+        warmup(primary, persistence.getPool().getWarmupTimeout());
+        ReplicaRoutingConnectionFactory routingConnectionFactory = new ReplicaRoutingConnectionFactory(
+            primary,
+            replicaConnectionPools,
+            ReplicaRoutingConnectionFactory.lagQuery(replicas.getLagQuery()),
+            replicas.getMaxLag()
+        );
+        routingConnectionFactory.start(replicas.getLagCheckInterval());
+        return routingConnectionFactory;
+    }
+
+    private InstrumentedConnectionPool createConnectionPool(
+        String name,
+        String url,
+        R2dbcProperties r2dbcProperties,
+        ApplicationProperties.Persistence persistence,
+        MeterRegistry meterRegistry
+    ) {
+        // the pool is built here, a pool: url would put it inside another one, which the metrics and the limit would miss
+        if ("pool".equals(ConnectionFactoryOptions.parse(url).getValue(ConnectionFactoryOptions.DRIVER))) {
+            throw new IllegalArgumentException(
+                "The url of the " + name + " database must not use the pool driver, its pool is configured with spring.r2dbc.pool: " + url
+            );
+        }
+        R2dbcProperties.Pool pool = r2dbcProperties.getPool();
+        AdaptiveAllocationStrategy allocationStrategy = new AdaptiveAllocationStrategy(
+            pool.getInitialSize(),
+            pool.getMaxSize(),
+            persistence.getPool().getTargetAcquireWait(),
+            persistence.getPool().getResizeInterval()
+        );
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder
+            .withUrl(url)
+            .username(r2dbcProperties.getUsername())
+            .password(r2dbcProperties.getPassword())
+            .configure(options -> r2dbcProperties.getProperties().forEach((key, value) -> options.option(Option.valueOf(key), value)))
+            .build();
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration
+            .builder(connectionFactory)
+            .name(name)
+            .initialSize(pool.getInitialSize())
+            .maxSize(pool.getMaxSize())
+            .maxIdleTime(pool.getMaxIdleTime())
+            .validationDepth(pool.getValidationDepth())
+            .customizer(poolBuilder -> poolBuilder.allocationStrategy(allocationStrategy));
+        if (pool.getMaxLifeTime() != null) {
+            configuration.maxLifeTime(pool.getMaxLifeTime());
+        }
+        if (pool.getMaxAcquireTime() != null) {
+            configuration.maxAcquireTime(pool.getMaxAcquireTime());
+        }
+        if (pool.getMaxCreateConnectionTime() != null) {
+            configuration.maxCreateConnectionTime(pool.getMaxCreateConnectionTime());
+        }
+        if (StringUtils.hasText(pool.getValidationQuery())) {
+            configuration.validationQuery(pool.getValidationQuery());
+        }
+        return new InstrumentedConnectionPool(name, new ConnectionPool(configuration.build()), allocationStrategy, meterRegistry);
+    }
+
+    // the application starts even when the database is not reachable yet, as it would without the warmup
+    private void warmup(InstrumentedConnectionPool connectionPool, Duration timeout) {
+        try {
+            Integer opened = connectionPool.warmup().block(timeout);
+            log.debug("Opened {} connections of the pool {}", opened, connectionPool.getName());
+        } catch (RuntimeException e) {
+            log.warn("Could not warm up the connection pool {}: {}", connectionPool.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * The connectivity and the health of the connection pools, which is part of the readiness group.
+     *
+     * @param connectionFactory the connection factory.
+     * @param applicationProperties the saturation threshold and the validation timeout of the pools.
+     * @return the health indicator of the {@code db} group.
+     */
+    @Bean
+    public ReactiveHealthIndicator dbHealthIndicator(ConnectionFactory connectionFactory, ApplicationProperties applicationProperties) {
+        List<ConnectionFactory> connectionFactories = connectionFactory instanceof ReplicaRoutingConnectionFactory
+            ? ((ReplicaRoutingConnectionFactory) connectionFactory).getConnectionFactories()
+            : List.of(connectionFactory);
+        List<InstrumentedConnectionPool> connectionPools = connectionFactories
+            .stream()
+            .filter(InstrumentedConnectionPool.class::isInstance)
+            .map(InstrumentedConnectionPool.class::cast)
+            .collect(Collectors.toList());
+        return new ConnectionPoolHealthIndicator(
+            connectionPools,
+            applicationProperties.getPersistence().getPool().getSaturationPendingAcquires(),
+            applicationProperties.getPersistence().getPool().getValidationTimeout()
+        );
+    }
+
+    /**
+     * The transaction manager, which tells the connection factory whether a transaction is read-only when it begins.
+     *
+     * @param connectionFactory the connection factory, routing to the replicas or not.
+     * @return the transaction manager.
+     */
+    @Bean
+    public ReactiveTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+        return new ReplicaRoutingTransactionManager(connectionFactory);
+    }
+
     // LocalDateTime seems to be the only type that is supported across all drivers atm
     // See https://github.com/r2dbc/r2dbc-h2/pull/139 https://github.com/mirromutth/r2dbc-mysql/issues/105
     @Bean
@@ -1,11 +1,15 @@
 package com.myapp.config;
 
+import static com.myapp.security.AuthoritySetAuthorizationManager.hasAuthority;
 import static org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers.pathMatchers;
 
 import com.myapp.security.AuthoritiesConstants;
 import com.myapp.security.SecurityUtils;
 import com.myapp.security.oauth2.AudienceValidator;
+import com.myapp.security.oauth2.CachingReactiveJwtDecoder;
 import com.myapp.security.oauth2.JwtGrantedAuthorityConverter;
+import com.myapp.web.filter.AuthoritySetWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -83,6 +87,8 @@ public class SecurityConfiguration {
         .and()
             // See https://github.com/spring-projects/spring-security/issues/5766
             .addFilterAt(new CookieCsrfFilter(), SecurityWebFiltersOrder.REACTOR_CONTEXT)
+            // the authority checks of the request share the authority set of its security context
+            .addFilterBefore(new AuthoritySetWebFilter(), SecurityWebFiltersOrder.AUTHORIZATION)
             .exceptionHandling()
                 .accessDeniedHandler(problemSupport)
                 .authenticationEntryPoint(problemSupport)
@@ -99,18 +105,20 @@ public class SecurityConfiguration {
             .authorizeExchange()
             .pathMatchers("/api/authenticate").permitAll()
             .pathMatchers("/api/auth-info").permitAll()
-            .pathMatchers("/api/admin/**").hasAuthority(AuthoritiesConstants.ADMIN)
+            .pathMatchers("/api/admin/**").access(hasAuthority(AuthoritiesConstants.ADMIN))
+            // @Secured is not applied by the reactive method security, which only supports @PreAuthorize/@PostAuthorize
+            .pathMatchers("/api/gateway/**").access(hasAuthority(AuthoritiesConstants.ADMIN))
             .pathMatchers("/api/**").authenticated()
             // microfrontend resources are loaded by webpack without authentication, they need to be public
             .pathMatchers("/services/*/*.js").permitAll()
             .pathMatchers("/services/*/*.js.map").permitAll()
-            .pathMatchers("/services/*/v3/api-docs").hasAuthority(AuthoritiesConstants.ADMIN)
+            .pathMatchers("/services/*/v3/api-docs").access(hasAuthority(AuthoritiesConstants.ADMIN))
             .pathMatchers("/services/**").authenticated()
             .pathMatchers("/management/health").permitAll()
             .pathMatchers("/management/health/**").permitAll()
             .pathMatchers("/management/info").permitAll()
             .pathMatchers("/management/prometheus").permitAll()
-            .pathMatchers("/management/**").hasAuthority(AuthoritiesConstants.ADMIN);
+            .pathMatchers("/management/**").access(hasAuthority(AuthoritiesConstants.ADMIN));
 
         http.oauth2Login(oauth2 -> oauth2.authorizationRequestResolver(authorizationRequestResolver(this.clientRegistrationRepository)))            
             .oauth2ResourceServer()
@@ -179,15 +187,23 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    ReactiveJwtDecoder jwtDecoder() {
+    ReactiveJwtDecoder jwtDecoder(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
         NimbusReactiveJwtDecoder jwtDecoder = (NimbusReactiveJwtDecoder) ReactiveJwtDecoders.fromOidcIssuerLocation(issuerUri);
 
         OAuth2TokenValidator<Jwt> audienceValidator = new AudienceValidator(jHipsterProperties.getSecurity().getOauth2().getAudience());
-        OAuth2TokenValidator<Jwt> withIssuer = JwtValidators.createDefaultWithIssuer(issuerUri);
-        OAuth2TokenValidator<Jwt> withAudience = new DelegatingOAuth2TokenValidator<>(withIssuer, audienceValidator);
+        int cacheSize = applicationProperties.getJwtCache().getMaxSize();
+        if (cacheSize <= 0) {
+            OAuth2TokenValidator<Jwt> withIssuer = JwtValidators.createDefaultWithIssuer(issuerUri);
+            OAuth2TokenValidator<Jwt> withAudience = new DelegatingOAuth2TokenValidator<>(withIssuer, audienceValidator);
 
-        jwtDecoder.setJwtValidator(withAudience);
+            jwtDecoder.setJwtValidator(withAudience);
 
-        return jwtDecoder;
+            return jwtDecoder;
+        }
+
+        // the signature, the issuer and the audience are checked once per token, the timestamps on every request
+        jwtDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(new JwtIssuerValidator(issuerUri), audienceValidator));
+
+        return new CachingReactiveJwtDecoder(jwtDecoder, new JwtTimestampValidator(), cacheSize, meterRegistry);
     }
 }
@@ -8,6 +8,7 @@ import javax.validation.constraints.*;
 import org.mapstruct.Builder;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -31,6 +32,10 @@ public class A implements Serializable {
     @JsonIgnoreProperties(value = { "a" }, allowSetters = true)
     private Set<B> bs = new HashSet<>();
 
+    @Version
+    @Column("version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -90,6 +95,19 @@ public class A implements Serializable {
         return this;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public A version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -115,6 +133,7 @@ public class A implements Serializable {
         return "A{" +
             "id=" + getId() +
             ", test='" + getTest() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.io.Serializable;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -26,6 +27,10 @@ public class B implements Serializable {
     @Column("a_id")
     private Long aId;
 
+    @Version
+    @Column("version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -63,6 +68,19 @@ public class B implements Serializable {
         this.aId = a;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public B version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -87,6 +105,7 @@ public class B implements Serializable {
     public String toString() {
         return "B{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             "}";
     }
 }
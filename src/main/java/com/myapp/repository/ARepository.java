@@ -23,6 +23,12 @@ public interface ARepository extends ReactiveCrudRepository<A, Long>, ARepositor
     @Override
     Flux<A> findAll();
 
+    @Override
+    Mono<A> findOneWithEagerRelationships(Long id);
+
+    @Override
+    Flux<A> findAllWithEagerRelationships(Pageable page);
+
     @Override
     Mono<A> findById(Long id);
 
@@ -33,11 +39,29 @@ public interface ARepository extends ReactiveCrudRepository<A, Long>, ARepositor
 interface ARepositoryInternal {
     <S extends A> Mono<S> save(S entity);
 
+    Mono<Void> deleteById(Long id);
+
+    Flux<A> insertAll(Flux<A> entities);
+
+    Flux<UpsertResult<A>> upsertAll(Flux<A> entities);
+
+    Mono<A> updateIfExists(A entity);
+
+    Mono<A> partialUpdate(A patch);
+
     Flux<A> findAllBy(Pageable pageable);
 
     Flux<A> findAll();
 
+    Flux<A> streamAll();
+
     Mono<A> findById(Long id);
 
     Flux<A> findAllBy(Pageable pageable, Criteria criteria);
+
+    Mono<KeysetPage<A>> findAllBy(Pageable pageable, Criteria criteria, KeysetCursor after);
+
+    Mono<A> findOneWithEagerRelationships(Long id);
+
+    Flux<A> findAllWithEagerRelationships(Pageable page);
 }
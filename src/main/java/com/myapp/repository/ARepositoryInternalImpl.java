@@ -3,7 +3,9 @@ package com.myapp.repository;
 import static org.springframework.data.relational.core.query.Criteria.where;
 
 import com.myapp.domain.A;
+import com.myapp.domain.B;
 import com.myapp.repository.rowmapper.ARowMapper;
+import com.myapp.repository.rowmapper.BRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.ArrayList;
@@ -12,6 +14,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
@@ -25,6 +30,7 @@ import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJ
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.PreparedOperation;
 import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -40,13 +46,18 @@ class ARepositoryInternalImpl extends SimpleR2dbcRepository<A, Long> implements
     private final EntityManager entityManager;
 
     private final ARowMapper aMapper;
+    private final BRowMapper bMapper;
 
     private static final Table entityTable = Table.aliased("a", EntityManager.ENTITY_ALIAS);
+    private static final Table bTable = Table.aliased("b", EntityManager.ENTITY_ALIAS);
+    private static final Supplier<SelectFromAndJoin> selectFrom = ARepositoryInternalImpl::createSelectFrom;
+    private static final Supplier<SelectFromAndJoin> selectBs = ARepositoryInternalImpl::createSelectBs;
 
     public ARepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         ARowMapper aMapper,
+        BRowMapper bMapper,
         R2dbcEntityOperations entityOperations,
         R2dbcConverter converter
     ) {
@@ -59,6 +70,7 @@ class ARepositoryInternalImpl extends SimpleR2dbcRepository<A, Long> implements
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.aMapper = aMapper;
+        this.bMapper = bMapper;
     }
 
     @Override
@@ -71,31 +83,118 @@ class ARepositoryInternalImpl extends SimpleR2dbcRepository<A, Long> implements
         return createQuery(pageable, criteria).all();
     }
 
+    @Override
+    public Mono<KeysetPage<A>> findAllBy(Pageable pageable, Criteria criteria, KeysetCursor after) {
+        return createQuery(pageable, criteria, after)
+            .all()
+            .collectList()
+            .map(entities -> KeysetPage.of(entities, pageable, last -> entityManager.createCursor(last, after.getSort())));
+    }
+
     RowsFetchSpec<A> createQuery(Pageable pageable, Criteria criteria) {
-        List<Expression> columns = ASqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
+        PreparedOperation<String> select = entityManager.createSelect(selectFrom, A.class, pageable, criteria);
+        return db.sql(select).map(this::process);
+    }
 
-        String select = entityManager.createSelect(selectFrom, A.class, pageable, criteria);
+    RowsFetchSpec<A> createQuery(Pageable pageable, Criteria criteria, KeysetCursor after) {
+        PreparedOperation<String> select = entityManager.createSelect(selectFrom, A.class, pageable, criteria, after);
         return db.sql(select).map(this::process);
     }
 
+    private static SelectFromAndJoin createSelectFrom() {
+        List<Expression> columns = ASqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        return Select.builder().select(columns).from(entityTable);
+    }
+
+    private static SelectFromAndJoin createSelectBs() {
+        List<Expression> columns = BSqlHelper.getColumns(bTable, EntityManager.ENTITY_ALIAS);
+        return Select.builder().select(columns).from(bTable);
+    }
+
     @Override
     public Flux<A> findAll() {
         return findAllBy(null, null);
     }
 
+    @Override
+    public Flux<A> streamAll() {
+        PreparedOperation<String> select = entityManager.createSelect(selectFrom, A.class, null, null);
+        return db.sql(select).filter(entityManager::withFetchSize).map(this::process).all();
+    }
+
     @Override
     public Mono<A> findById(Long id) {
-        return createQuery(null, where(EntityManager.ENTITY_ALIAS + ".id").is(id)).one();
+        return createQuery(null, where("id").is(id)).one();
+    }
+
+    @Override
+    public Mono<A> findOneWithEagerRelationships(Long id) {
+        return fetchBs(findById(id).flux()).next();
+    }
+
+    @Override
+    public Flux<A> findAllWithEagerRelationships(Pageable page) {
+        return fetchBs(findAllBy(page));
+    }
+
+    /**
+     * Fill the bs of the given entities, with a single select of all their bs.
+     */
+    private Flux<A> fetchBs(Flux<A> entities) {
+        return entities
+            .collectList()
+            .flatMapMany(as -> {
+                if (as.isEmpty()) {
+                    return Flux.empty();
+                }
+                Map<Long, A> asById = as.stream().collect(Collectors.toMap(A::getId, Function.identity()));
+                PreparedOperation<String> select = entityManager.createSelect(
+                    selectBs,
+                    B.class,
+                    null,
+                    where("aId").in(EntityManager.padInList(asById.keySet()))
+                );
+                return db
+                    .sql(select)
+                    .map((row, metadata) -> bMapper.apply(row, metadata, EntityManager.ENTITY_ALIAS))
+                    .all()
+                    .doOnNext(b -> asById.get(b.getAId()).addB(b))
+                    .thenMany(Flux.fromIterable(as));
+            });
     }
 
     private A process(Row row, RowMetadata metadata) {
-        A entity = aMapper.apply(row, "e");
+        A entity = aMapper.apply(row, metadata, "e");
         return entity;
     }
 
     @Override
     public <S extends A> Mono<S> save(S entity) {
-        return super.save(entity);
+        return entityManager.save(entity);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return entityManager.registerDeleted(A.class, id);
+    }
+
+    @Override
+    public Flux<A> insertAll(Flux<A> entities) {
+        return entityManager.insertAll(entities);
+    }
+
+    @Override
+    public Flux<UpsertResult<A>> upsertAll(Flux<A> entities) {
+        return entityManager.upsertAll(entities, "test");
+    }
+
+    @Override
+    public Mono<A> updateIfExists(A entity) {
+        return entityManager.updateIfExists(entity);
+    }
+
+    @Override
+    public Mono<A> partialUpdate(A patch) {
+        return entityManager.partialUpdate(patch);
     }
 }
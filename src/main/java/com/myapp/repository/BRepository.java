@@ -39,11 +39,25 @@ public interface BRepository extends ReactiveCrudRepository<B, Long>, BRepositor
 interface BRepositoryInternal {
     <S extends B> Mono<S> save(S entity);
 
+    Mono<Void> deleteById(Long id);
+
+    Mono<Integer> deleteAllByA(Long aId);
+
+    Flux<B> insertAll(Flux<B> entities);
+
+    Mono<B> updateIfExists(B entity);
+
+    Mono<B> partialUpdate(B patch);
+
     Flux<B> findAllBy(Pageable pageable);
 
     Flux<B> findAll();
 
+    Flux<B> streamAll();
+
     Mono<B> findById(Long id);
 
     Flux<B> findAllBy(Pageable pageable, Criteria criteria);
+
+    Mono<KeysetPage<B>> findAllBy(Pageable pageable, Criteria criteria, KeysetCursor after);
 }
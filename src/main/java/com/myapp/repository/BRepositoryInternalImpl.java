@@ -2,6 +2,7 @@ package com.myapp.repository;
 
 import static org.springframework.data.relational.core.query.Criteria.where;
 
+import com.myapp.domain.A;
 import com.myapp.domain.B;
 import com.myapp.repository.rowmapper.ARowMapper;
 import com.myapp.repository.rowmapper.BRowMapper;
@@ -13,6 +14,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import javax.persistence.criteria.CriteriaBuilder;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
@@ -27,6 +29,7 @@ import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJ
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.PreparedOperation;
 import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -46,6 +49,7 @@ class BRepositoryInternalImpl extends SimpleR2dbcRepository<B, Long> implements
 
     private static final Table entityTable = Table.aliased("b", EntityManager.ENTITY_ALIAS);
     private static final Table aTable = Table.aliased("a", "a");
+    private static final Supplier<SelectFromAndJoinCondition> selectFrom = BRepositoryInternalImpl::createSelectFrom;
 
     public BRepositoryInternalImpl(
         R2dbcEntityTemplate template,
@@ -77,18 +81,34 @@ class BRepositoryInternalImpl extends SimpleR2dbcRepository<B, Long> implements
         return createQuery(pageable, criteria).all();
     }
 
+    @Override
+    public Mono<KeysetPage<B>> findAllBy(Pageable pageable, Criteria criteria, KeysetCursor after) {
+        return createQuery(pageable, criteria, after)
+            .all()
+            .collectList()
+            .map(entities -> KeysetPage.of(entities, pageable, last -> entityManager.createCursor(last, after.getSort())));
+    }
+
     RowsFetchSpec<B> createQuery(Pageable pageable, Criteria criteria) {
+        PreparedOperation<String> select = entityManager.createSelect(selectFrom, B.class, pageable, criteria);
+        return db.sql(select).map(this::process);
+    }
+
+    RowsFetchSpec<B> createQuery(Pageable pageable, Criteria criteria, KeysetCursor after) {
+        PreparedOperation<String> select = entityManager.createSelect(selectFrom, B.class, pageable, criteria, after);
+        return db.sql(select).map(this::process);
+    }
+
+    private static SelectFromAndJoinCondition createSelectFrom() {
         List<Expression> columns = BSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(ASqlHelper.getColumns(aTable, "a"));
-        SelectFromAndJoinCondition selectFrom = Select
+        return Select
             .builder()
             .select(columns)
             .from(entityTable)
             .leftOuterJoin(aTable)
             .on(Column.create("a_id", entityTable))
             .equals(Column.create("id", aTable));
-        String select = entityManager.createSelect(selectFrom, B.class, pageable, criteria);
-        return db.sql(select).map(this::process);
     }
 
     @Override
@@ -96,19 +116,57 @@ class BRepositoryInternalImpl extends SimpleR2dbcRepository<B, Long> implements
         return findAllBy(null, null);
     }
 
+    @Override
+    public Flux<B> streamAll() {
+        PreparedOperation<String> select = entityManager.createSelect(selectFrom, B.class, null, null);
+        return db.sql(select).filter(entityManager::withFetchSize).map(this::process).all();
+    }
+
     @Override
     public Mono<B> findById(Long id) {
-        return createQuery(null, where(EntityManager.ENTITY_ALIAS + ".id").is(id)).one();
+        return createQuery(null, where("id").is(id)).one();
     }
 
     private B process(Row row, RowMetadata metadata) {
-        B entity = bMapper.apply(row, "e");
-        entity.setA(aMapper.apply(row, "a"));
+        B entity = bMapper.apply(row, metadata, "e");
+        entity.setA(aMapper.apply(row, metadata, "a"));
         return entity;
     }
 
     @Override
     public <S extends B> Mono<S> save(S entity) {
-        return super.save(entity);
+        return entityManager.save(entity);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return entityManager.registerDeleted(B.class, id);
+    }
+
+    @Override
+    public Mono<Integer> deleteAllByA(Long aId) {
+        return entityManager.deleteAllBy(B.class, where("aId").is(aId));
+    }
+
+    @Override
+    public Flux<B> insertAll(Flux<B> entities) {
+        return entityManager.insertAll(entities);
+    }
+
+    @Override
+    public Mono<B> updateIfExists(B entity) {
+        return entityManager.updateIfExists(entity).doOnNext(this::setA);
+    }
+
+    @Override
+    public Mono<B> partialUpdate(B patch) {
+        return entityManager.partialUpdate(patch).doOnNext(this::setA);
+    }
+
+    // the updated row is not joined with its a, whose id is all that the DTO carries
+    private void setA(B entity) {
+        if (entity.getA() == null && entity.getAId() != null) {
+            entity.setA(new A().id(entity.getAId()));
+        }
     }
 }
@@ -33,11 +33,23 @@ public interface CRepository extends ReactiveCrudRepository<C, Long>, CRepositor
 interface CRepositoryInternal {
     <S extends C> Mono<S> save(S entity);
 
+    Mono<Void> deleteById(Long id);
+
+    Flux<C> insertAll(Flux<C> entities);
+
+    Mono<C> updateIfExists(C entity);
+
+    Mono<C> partialUpdate(C patch);
+
     Flux<C> findAllBy(Pageable pageable);
 
     Flux<C> findAll();
 
+    Flux<C> streamAll();
+
     Mono<C> findById(Long id);
 
     Flux<C> findAllBy(Pageable pageable, Criteria criteria);
+
+    Mono<KeysetPage<C>> findAllBy(Pageable pageable, Criteria criteria, KeysetCursor after);
 }
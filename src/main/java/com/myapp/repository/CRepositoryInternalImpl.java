@@ -12,6 +12,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
@@ -25,6 +26,7 @@ import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJ
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.PreparedOperation;
 import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -42,6 +44,7 @@ class CRepositoryInternalImpl extends SimpleR2dbcRepository<C, Long> implements
     private final CRowMapper cMapper;
 
     private static final Table entityTable = Table.aliased("c", EntityManager.ENTITY_ALIAS);
+    private static final Supplier<SelectFromAndJoin> selectFrom = CRepositoryInternalImpl::createSelectFrom;
 
     public CRepositoryInternalImpl(
         R2dbcEntityTemplate template,
@@ -71,31 +74,72 @@ class CRepositoryInternalImpl extends SimpleR2dbcRepository<C, Long> implements
         return createQuery(pageable, criteria).all();
     }
 
+    @Override
+    public Mono<KeysetPage<C>> findAllBy(Pageable pageable, Criteria criteria, KeysetCursor after) {
+        return createQuery(pageable, criteria, after)
+            .all()
+            .collectList()
+            .map(entities -> KeysetPage.of(entities, pageable, last -> entityManager.createCursor(last, after.getSort())));
+    }
+
     RowsFetchSpec<C> createQuery(Pageable pageable, Criteria criteria) {
-        List<Expression> columns = CSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
+        PreparedOperation<String> select = entityManager.createSelect(selectFrom, C.class, pageable, criteria);
+        return db.sql(select).map(this::process);
+    }
 
-        String select = entityManager.createSelect(selectFrom, C.class, pageable, criteria);
+    RowsFetchSpec<C> createQuery(Pageable pageable, Criteria criteria, KeysetCursor after) {
+        PreparedOperation<String> select = entityManager.createSelect(selectFrom, C.class, pageable, criteria, after);
         return db.sql(select).map(this::process);
     }
 
+    private static SelectFromAndJoin createSelectFrom() {
+        List<Expression> columns = CSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        return Select.builder().select(columns).from(entityTable);
+    }
+
     @Override
     public Flux<C> findAll() {
         return findAllBy(null, null);
     }
 
+    @Override
+    public Flux<C> streamAll() {
+        PreparedOperation<String> select = entityManager.createSelect(selectFrom, C.class, null, null);
+        return db.sql(select).filter(entityManager::withFetchSize).map(this::process).all();
+    }
+
     @Override
     public Mono<C> findById(Long id) {
-        return createQuery(null, where(EntityManager.ENTITY_ALIAS + ".id").is(id)).one();
+        return createQuery(null, where("id").is(id)).one();
     }
 
     private C process(Row row, RowMetadata metadata) {
-        C entity = cMapper.apply(row, "e");
+        C entity = cMapper.apply(row, metadata, "e");
         return entity;
     }
 
     @Override
     public <S extends C> Mono<S> save(S entity) {
-        return super.save(entity);
+        return entityManager.save(entity);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return entityManager.registerDeleted(C.class, id);
+    }
+
+    @Override
+    public Flux<C> insertAll(Flux<C> entities) {
+        return entityManager.insertAll(entities);
+    }
+
+    @Override
+    public Mono<C> updateIfExists(C entity) {
+        return entityManager.updateIfExists(entity);
+    }
+
+    @Override
+    public Mono<C> partialUpdate(C patch) {
+        return entityManager.partialUpdate(patch);
     }
 }
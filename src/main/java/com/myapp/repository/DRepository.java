@@ -33,11 +33,23 @@ public interface DRepository extends ReactiveCrudRepository<D, Long>, DRepositor
 interface DRepositoryInternal {
     <S extends D> Mono<S> save(S entity);
 
+    Mono<Void> deleteById(Long id);
+
+    Flux<D> insertAll(Flux<D> entities);
+
+    Mono<D> updateIfExists(D entity);
+
+    Mono<D> partialUpdate(D patch);
+
     Flux<D> findAllBy(Pageable pageable);
 
     Flux<D> findAll();
 
+    Flux<D> streamAll();
+
     Mono<D> findById(Long id);
 
     Flux<D> findAllBy(Pageable pageable, Criteria criteria);
+
+    Mono<KeysetPage<D>> findAllBy(Pageable pageable, Criteria criteria, KeysetCursor after);
 }
@@ -1,17 +0,0 @@
-package com.myapp.repository;
-
-import java.util.ArrayList;
-import java.util.List;
-import org.springframework.data.relational.core.sql.Column;
-import org.springframework.data.relational.core.sql.Expression;
-import org.springframework.data.relational.core.sql.Table;
-
-public class DSqlHelper {
-
-    public static List<Expression> getColumns(Table table, String columnPrefix) {
-        List<Expression> columns = new ArrayList<>();
-        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
-
-        return columns;
-    }
-}
@@ -1,32 +1,79 @@
 package com.myapp.repository;
 
+import com.myapp.config.ApplicationProperties;
+import com.myapp.repository.id.PooledIdAllocator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.stream.Stream;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.core.StatementMapper;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
 import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.query.BoundAssignments;
+import org.springframework.data.r2dbc.query.BoundCondition;
 import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
 import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.CriteriaDefinition;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.data.relational.core.sql.AssignValue;
+import org.springframework.data.relational.core.sql.Assignment;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.Expressions;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
 import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectWhere;
 import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.data.relational.core.sql.StatementBuilder;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.data.util.ClassTypeInformation;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.Parameter;
+import org.springframework.r2dbc.core.PreparedOperation;
+import org.springframework.r2dbc.core.binding.BindMarker;
+import org.springframework.r2dbc.core.binding.BindMarkers;
+import org.springframework.r2dbc.core.binding.BindMarkersFactory;
+import org.springframework.r2dbc.core.binding.BindTarget;
+import org.springframework.r2dbc.core.binding.Bindings;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -56,94 +103,289 @@ public class EntityManager {
         }
     }
 
+    /**
+     * The maximum number of rendered select statements kept, the least recently used ones being evicted first.
+     */
+    static final int SELECT_CACHE_MAX_SIZE = 1024;
+
     private final SqlRenderer sqlRenderer;
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final StatementMapper statementMapper;
+    private final R2dbcDialect dialect;
+    private final BindMarkersFactory bindMarkersFactory;
+    private final PooledIdAllocator idAllocator;
+    private final int batchSize;
+    private final int fetchSize;
 
-    public EntityManager(SqlRenderer sqlRenderer, UpdateMapper updateMapper, R2dbcEntityTemplate r2dbcEntityTemplate) {
+    private final Map<SelectKey, String> selectCache = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SelectKey, String> eldest) {
+                return size() > SELECT_CACHE_MAX_SIZE;
+            }
+        }
+    );
+    private final Counter selectCacheHits;
+    private final Counter selectCacheMisses;
+    private final Timer flushTimer;
+
+    public EntityManager(
+        SqlRenderer sqlRenderer,
+        UpdateMapper updateMapper,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        R2dbcDialect dialect,
+        PooledIdAllocator idAllocator,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
         this.sqlRenderer = sqlRenderer;
         this.updateMapper = updateMapper;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper();
+        this.dialect = dialect;
+        this.bindMarkersFactory = dialect.getBindMarkersFactory();
+        this.idAllocator = idAllocator;
+        this.batchSize = applicationProperties.getPersistence().getBatchSize();
+        this.fetchSize = applicationProperties.getPersistence().getFetchSize();
+        this.selectCacheHits = meterRegistry.counter("repository.select.cache", "result", "hit");
+        this.selectCacheMisses = meterRegistry.counter("repository.select.cache", "result", "miss");
+        meterRegistry.gaugeMapSize("repository.select.cache.size", Tags.empty(), selectCache);
+        this.flushTimer = meterRegistry.timer("repository.unit-of-work.flush");
     }
 
     /**
-     * Creates an SQL select statement from the given fragment and pagination parameters.
-     * @param selectFrom a representation of a select statement.
+     * Creates an SQL select statement from the given fragment, pagination parameters and criteria. The values of the
+     * criteria and the pagination are bound as parameters, so the statement is rendered only once for every shape of
+     * the query, and the database sees the same SQL text for every execution.
+     * @param selectFrom creates the select statement, it is only called when the statement is not cached yet; it must be
+     *                   a constant, as it identifies the statement in the cache.
      * @param entityType the entity type which holds the table name.
      * @param pageable page parameter, or null, if everything needs to be returned
-     * @return sql select statement
-     */
-    public String createSelect(SelectFromAndJoin selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
-        if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
-            }
-        } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
-            }
+     * @param criteria the criteria on the properties of the entity, or null.
+     * @return the sql select statement with its parameters bound.
+     */
+    public PreparedOperation<String> createSelect(
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        Pageable pageable,
+        Criteria criteria
+    ) {
+        if (pageable != null && pageable.isPaged()) {
+            return createSelectImpl(selectFrom, entityType, criteria, pageable.getSort(), null, pageable.getPageSize(), pageable.getOffset());
         }
+        return createSelectImpl(selectFrom, entityType, criteria, Sort.unsorted(), null, null, null);
     }
 
     /**
-     * Creates an SQL select statement from the given fragment and pagination parameters.
-     * @param selectFrom a representation of a select statement.
+     * Creates an SQL select statement which returns the page following the given keyset cursor, instead of skipping
+     * the previous rows with an offset.
+     * @param selectFrom creates the select statement, it is only called when the statement is not cached yet; it must be
+     *                   a constant, as it identifies the statement in the cache.
      * @param entityType the entity type which holds the table name.
-     * @param pageable page parameter, or null, if everything needs to be returned
-     * @return sql select statement
-     */
-    public String createSelect(SelectFromAndJoinCondition selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
-        if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
+     * @param pageable page parameter, only the page size is used.
+     * @param criteria the criteria on the properties of the entity, or null.
+     * @param after the position after which the rows are returned, its sort is used for the ordering.
+     * @return the sql select statement with its parameters bound.
+     */
+    public PreparedOperation<String> createSelect(
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        Pageable pageable,
+        Criteria criteria,
+        KeysetCursor after
+    ) {
+        return createSelectImpl(selectFrom, entityType, criteria, after.getSort(), after, pageable.getPageSize(), null);
+    }
+
+    /**
+     * Limits the number of rows the driver fetches at once to {@code application.persistence.fetch-size}, so a large result
+     * can be streamed with a bounded memory, following the demand of the subscriber.
+     * @param statement the statement of the select.
+     * @return the statement with its fetch size.
+     */
+    public Statement withFetchSize(Statement statement) {
+        return statement.fetchSize(fetchSize);
+    }
+
+    /**
+     * Creates the cursor pointing after the given entity, to request the next page of a keyset paginated select.
+     * @param entity the last entity of the current page.
+     * @param sort the requested sort.
+     * @return the cursor of the next page.
+     */
+    public KeysetCursor createCursor(Object entity, Sort sort) {
+        RelationalPersistentEntity<?> persistentEntity = getRequiredPersistentEntity(entity.getClass());
+        PersistentPropertyAccessor<?> accessor = persistentEntity.getPropertyAccessor(entity);
+        Sort keysetSort = KeysetCursor.keysetSort(sort);
+        List<Object> values = new ArrayList<>();
+        for (Sort.Order order : keysetSort) {
+            values.add(accessor.getProperty(persistentEntity.getRequiredPersistentProperty(order.getProperty())));
+        }
+        return KeysetCursor.after(keysetSort, values);
+    }
+
+    private PreparedOperation<String> createSelectImpl(
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        Criteria criteria,
+        Sort sort,
+        KeysetCursor after,
+        Integer limit,
+        Long offset
+    ) {
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entityType);
+        Table table = Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS);
+        // the markers are always taken in the same order, so the bindings match the cached statement of the same shape
+        BindMarkers bindMarkers = bindMarkersFactory.create();
+        BoundCondition boundCriteria = criteria != null && !criteria.isEmpty()
+            ? updateMapper.getMappedObject(bindMarkers, criteria, table, entity)
+            : null;
+        List<BindMarker> markers = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        if (after != null) {
+            for (Object value : after.getValues()) {
+                markers.add(bindMarkers.next());
+                values.add(r2dbcEntityTemplate.getConverter().writeValue(value, ClassTypeInformation.from(value.getClass())));
             }
+        }
+        BindMarker limitMarker = null;
+        if (limit != null) {
+            limitMarker = bindMarkers.next();
+            markers.add(limitMarker);
+            values.add(limit);
+        }
+        BindMarker offsetMarker = null;
+        if (offset != null) {
+            offsetMarker = bindMarkers.next();
+            markers.add(offsetMarker);
+            values.add(offset);
+        }
+
+        SelectKey key = new SelectKey(
+            selectFrom,
+            entityType,
+            criteria != null ? getShape(criteria) : null,
+            sort,
+            after != null ? after.getValues().size() : -1,
+            limit != null,
+            offset != null
+        );
+        String sql = selectCache.get(key);
+        if (sql != null) {
+            selectCacheHits.increment();
         } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
+            selectCacheMisses.increment();
+            Condition condition = boundCriteria != null ? boundCriteria.getCondition() : null;
+            if (after != null && !after.isFirst()) {
+                Condition keyset = createKeysetCondition(table, entity, after.getSort(), markers);
+                condition = condition != null ? Conditions.nest(condition).and(Conditions.nest(keyset)) : keyset;
             }
+            sql = renderSelect(selectFrom.get(), table, entity, condition, sort, limitMarker, offsetMarker);
+            selectCache.putIfAbsent(key, sql);
         }
+        return new BoundSelect(sql, boundCriteria != null ? boundCriteria.getBindings() : null, markers, values);
     }
 
-    private String createSelectImpl(SelectOrdered selectFrom, Class<?> entityType, Sort sortParameter) {
-        if (sortParameter != null && sortParameter.isSorted()) {
-            RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
-            if (entity != null) {
-                Sort sort = updateMapper.getMappedObject(sortParameter, entity);
-                selectFrom =
-                    selectFrom.orderBy(createOrderByFields(Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS), sort));
+    private Condition createKeysetCondition(Table table, RelationalPersistentEntity<?> entity, Sort keysetSort, List<BindMarker> markers) {
+        List<Sort.Order> orders = updateMapper.getMappedObject(keysetSort, entity).toList();
+        // (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ... - with the comparison reversed for the descending keys
+        Condition keyset = null;
+        for (int i = 0; i < orders.size(); i++) {
+            Column column = table.column(orders.get(i).getProperty());
+            Expression marker = SQL.bindMarker(markers.get(i).getPlaceholder());
+            Condition term = orders.get(i).isAscending() ? column.isGreater(marker) : column.isLess(marker);
+            for (int j = i - 1; j >= 0; j--) {
+                term = table.column(orders.get(j).getProperty()).isEqualTo(SQL.bindMarker(markers.get(j).getPlaceholder())).and(term);
             }
+            keyset = keyset == null ? Conditions.nest(term) : keyset.or(Conditions.nest(term));
         }
-        return createSelect(selectFrom.build());
+        return keyset;
     }
 
-    private RelationalPersistentEntity<?> getPersistentEntity(Class<?> entityType) {
-        return r2dbcEntityTemplate.getConverter().getMappingContext().getPersistentEntity(entityType);
+    private String renderSelect(
+        SelectWhere selectFrom,
+        Table table,
+        RelationalPersistentEntity<?> entity,
+        Condition condition,
+        Sort sort,
+        BindMarker limit,
+        BindMarker offset
+    ) {
+        SelectOrdered select = condition != null ? selectFrom.where(condition) : selectFrom;
+        if (sort.isSorted()) {
+            select = select.orderBy(createOrderByFields(table, updateMapper.getMappedObject(sort, entity)));
+        }
+        // LIMIT and OFFSET are appended, as the select builder only accepts literal values for them
+        StringBuilder sql = new StringBuilder(createSelect(select.build()));
+        if (limit != null) {
+            sql.append(" LIMIT ").append(limit.getPlaceholder());
+        }
+        if (offset != null) {
+            sql.append(" OFFSET ").append(offset.getPlaceholder());
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Pads the values of an {@code IN} list to the next power of two, by repeating the last one: the lists of different
+     * sizes share a few shapes of select, instead of one per size.
+     * @param <T> the type of the values.
+     * @param values the values of the list.
+     * @return the padded values, which select the same rows.
+     */
+    public static <T> List<T> padInList(Collection<T> values) {
+        List<T> padded = new ArrayList<>(values);
+        if (padded.isEmpty()) {
+            return padded;
+        }
+        int size = Integer.highestOneBit(padded.size());
+        if (size < padded.size()) {
+            size <<= 1;
+        }
+        T last = padded.get(padded.size() - 1);
+        while (padded.size() < size) {
+            padded.add(last);
+        }
+        return padded;
+    }
+
+    /**
+     * Describes the criteria without its values: criteria with the same shape render to the same SQL. The size of a
+     * list is part of the shape, so the {@code IN} lists of varying sizes should be padded with {@link #padInList}.
+     */
+    private static String getShape(CriteriaDefinition criteria) {
+        StringBuilder shape = new StringBuilder();
+        appendShape(shape, criteria);
+        return shape.toString();
+    }
+
+    private static void appendShape(StringBuilder shape, CriteriaDefinition criteria) {
+        if (criteria.hasPrevious()) {
+            appendShape(shape, criteria.getPrevious());
+        }
+        shape.append(criteria.getCombinator()).append('(');
+        if (criteria.isGroup()) {
+            for (CriteriaDefinition part : criteria.getGroup()) {
+                appendShape(shape, part);
+            }
+        } else if (criteria.getColumn() != null) {
+            shape.append(criteria.getColumn()).append(' ').append(criteria.getComparator());
+            Object value = criteria.getValue();
+            if (value == null) {
+                shape.append(" null");
+            } else if (value instanceof Collection) {
+                shape.append(" [").append(((Collection<?>) value).size()).append(']');
+            }
+            if (criteria.isIgnoreCase()) {
+                shape.append(" ignoreCase");
+            }
+        }
+        shape.append(')');
+    }
+
+    private RelationalPersistentEntity<?> getRequiredPersistentEntity(Class<?> entityType) {
+        return r2dbcEntityTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entityType);
     }
 
     /**
@@ -155,6 +397,17 @@ public class EntityManager {
         return r2dbcEntityTemplate.delete(entityType).all();
     }
 
+    /**
+     * Delete the entities of the given type matching the criteria with a single statement, and return the number of
+     * deletions. The statement is sent right away, even in a unit of work.
+     * @param entityType the entity type which holds the table name.
+     * @param criteria the criteria of the deleted entities, on their properties.
+     * @return the number of deleted entities.
+     */
+    public Mono<Integer> deleteAllBy(Class<?> entityType, Criteria criteria) {
+        return r2dbcEntityTemplate.delete(Query.query(criteria), entityType);
+    }
+
     /**
      * Delete all the rows from the given table, and return the number of deletions.
      * @param tableName the name of the table to delete.
@@ -175,7 +428,19 @@ public class EntityManager {
     }
 
     /**
-     * Inserts the given entity into the database - and sets the id, if it's an autoincrement field.
+     * Sets the id of the given entity from the sequence of its table, if it has none, so it can be referred to before it
+     * is inserted: the parents and their children can then be inserted together by {@link #insertAll(Flux)}.
+     * @param <S> the type of the entity.
+     * @param entity the entity.
+     * @return the entity, with its id.
+     */
+    public <S> Mono<S> assignId(S entity) {
+        return idAllocator.assignId(entity);
+    }
+
+    /**
+     * Inserts the given entity into the database - and sets the id, from the sequence of its table, or else if it's an
+     * autoincrement field.
      * @param <S> the type of the persisted entity.
      * @param entity the entity to be inserted into the database.
      * @return the persisted entity.
@@ -185,32 +450,888 @@ public class EntityManager {
     }
 
     /**
-     * Updates the table, which links the entity with the referred entities.
-     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
-     * @param entityId the id of the entity, for which the links are created.
-     * @param referencedIds the id of the referred entities.
-     * @return the number of inserted rows.
+     * Inserts the given entities into the database, in batches of {@code application.persistence.batch-size} rows - and
+     * sets the ids, from the sequence of their table, or else if they are autoincrement fields.
+     * @param <S> the type of the persisted entities.
+     * @param entities the entities to be inserted into the database.
+     * @return the persisted entities, in the same order.
      */
-    public Mono<Integer> updateLinkTable(LinkTable table, Long entityId, Stream<Long> referencedIds) {
-        return deleteFromLinkTable(table, entityId)
-            .then(
-                Flux
-                    .fromStream(referencedIds)
-                    .flatMap((Long referenceId) -> {
-                        StatementMapper.InsertSpec insert = r2dbcEntityTemplate
-                            .getDataAccessStrategy()
-                            .getStatementMapper()
-                            .createInsert(table.tableName)
-                            .withColumn(table.idColumn, Parameter.from(entityId))
-                            .withColumn(table.referenceColumn, Parameter.from(referenceId));
-
-                        return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(insert)).fetch().rowsUpdated();
-                    })
+    public <S> Flux<S> insertAll(Flux<S> entities) {
+        return insertAll(entities, batchSize);
+    }
+
+    /**
+     * Inserts the given entities into the database, in batches of the given size - and sets the ids, from the sequence
+     * of their table, or else if they are autoincrement fields. The rows of a batch are bound to a single statement,
+     * which is sent in one round trip.
+     * @param <S> the type of the persisted entities.
+     * @param entities the entities to be inserted into the database.
+     * @param batchSize the maximum number of rows of a batch.
+     * @return the persisted entities, in the same order.
+     */
+    public <S> Flux<S> insertAll(Flux<S> entities, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be positive");
+        // an error of the source waits for the running batch, so the transaction is not rolled back under its statement
+        return entities
+            .buffer(batchSize)
+            .concatMapDelayError(
+                batch -> Flux.fromIterable(batch).concatMap(idAllocator::assignId).collectList().flatMapMany(this::insertBatch),
+                false,
+                1
+            );
+    }
+
+    private <S> Flux<S> insertBatch(List<S> entities) {
+        RelationalPersistentEntity<?> persistentEntity = getRequiredPersistentEntity(entities.get(0).getClass());
+        List<OutboundRow> rows = new ArrayList<>();
+        for (S entity : entities) {
+            setInitialVersion(persistentEntity, entity);
+            rows.add(getInsertRow(persistentEntity, entity));
+        }
+        // the rows sharing a statement need the same columns, which differ when the ids are set on some entities only
+        Flux<S> inserted = Flux.empty();
+        int start = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            if (i == rows.size() || !rows.get(i).keySet().equals(rows.get(start).keySet())) {
+                inserted = inserted.concatWith(insertRows(persistentEntity, entities.subList(start, i), rows.subList(start, i)));
+                start = i;
+            }
+        }
+        return inserted;
+    }
+
+    private void setInitialVersion(RelationalPersistentEntity<?> persistentEntity, Object entity) {
+        RelationalPersistentProperty versionProperty = persistentEntity.getVersionProperty();
+        if (versionProperty != null) {
+            // the first version of R2dbcEntityTemplate.insert
+            Object version = versionProperty.getType().isPrimitive() ? 1L : 0L;
+            persistentEntity
+                .getPropertyAccessor(entity)
+                .setProperty(versionProperty, r2dbcEntityTemplate.getConverter().getConversionService().convert(version, versionProperty.getType()));
+        }
+    }
+
+    private OutboundRow getInsertRow(RelationalPersistentEntity<?> persistentEntity, Object entity) {
+        OutboundRow row = r2dbcEntityTemplate.getDataAccessStrategy().getOutboundRow(entity);
+        RelationalPersistentProperty idProperty = persistentEntity.getIdProperty();
+        if (idProperty != null && row.containsKey(idProperty.getColumnName()) && !row.get(idProperty.getColumnName()).hasValue()) {
+            row.remove(idProperty.getColumnName());
+        }
+        return row;
+    }
+
+    private <S> Flux<S> insertRows(RelationalPersistentEntity<?> persistentEntity, List<S> entities, List<OutboundRow> rows) {
+        RelationalPersistentProperty idProperty = persistentEntity.getIdProperty();
+        boolean generatedId = idProperty != null && !rows.get(0).containsKey(idProperty.getColumnName());
+        StatementMapper.InsertSpec insert = statementMapper.createInsert(persistentEntity.getTableName());
+        for (Entry<SqlIdentifier, Parameter> column : rows.get(0).entrySet()) {
+            insert = insert.withColumn(column.getKey(), column.getValue());
+        }
+        String sql = statementMapper.getMappedObject(insert).toQuery();
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(sql);
+                if (generatedId) {
+                    statement.returnGeneratedValues(r2dbcEntityTemplate.getDataAccessStrategy().toSql(idProperty.getColumnName()));
+                }
+                bindRows(statement, rows);
+                if (!generatedId) {
+                    return Flux.from(statement.execute()).concatMap(Result::getRowsUpdated).thenMany(Flux.fromIterable(entities));
+                }
+                return Flux
+                    .from(statement.execute())
+                    .concatMap(result -> result.map((row, metadata) -> row.get(0)))
+                    .zipWithIterable(entities, (id, entity) -> setId(persistentEntity, entity, id));
+            });
+    }
+
+    private <S> S setId(RelationalPersistentEntity<?> persistentEntity, S entity, Object id) {
+        RelationalPersistentProperty idProperty = persistentEntity.getRequiredIdProperty();
+        PersistentPropertyAccessor<S> accessor = persistentEntity.getPropertyAccessor(entity);
+        accessor.setProperty(idProperty, r2dbcEntityTemplate.getConverter().getConversionService().convert(id, idProperty.getType()));
+        return accessor.getBean();
+    }
+
+    /**
+     * Inserts the given entities, or updates the rows which already hold their natural key, in batches of
+     * {@code application.persistence.batch-size} rows. The ids of the rows of a batch which already exist are read
+     * first, so that only the new rows get an id from the sequence of their table. The rows of a batch are then bound to
+     * a single statement: an {@code INSERT ... ON CONFLICT DO UPDATE} on PostgreSQL, which returns the id and the version
+     * of each row, and a {@code MERGE ... USING} on the other databases. The natural key must have a unique constraint.
+     * <p>
+     * The new rows get their first version. The updated rows keep their id, and their version is incremented: an updated
+     * entity overwrites the row whatever its version.
+     * <p>
+     * The {@code MERGE} writes each row atomically, but it cannot return the rows it wrote: the inserted flags and the
+     * versions of the results are the ones of the rows read before it, which a concurrent write of the same keys makes
+     * wrong. It is meant for the H2 database of the development and the tests, the upserts of the production database
+     * need PostgreSQL.
+     * @param <S> the type of the written entities.
+     * @param entities the entities to write.
+     * @param keyProperty the property of the natural key.
+     * @return the written entities, with the ids and the versions of their rows, in the same order.
+     */
+    public <S> Flux<UpsertResult<S>> upsertAll(Flux<S> entities, String keyProperty) {
+        return entities.buffer(batchSize).concatMapDelayError(batch -> upsertBatch(batch, keyProperty), false, 1);
+    }
+
+    private <S> Flux<UpsertResult<S>> upsertBatch(List<S> entities, String keyProperty) {
+        RelationalPersistentEntity<?> persistentEntity = getRequiredPersistentEntity(entities.get(0).getClass());
+        RelationalPersistentProperty key = persistentEntity.getRequiredPersistentProperty(keyProperty);
+        return selectStoredByKey(persistentEntity, key, entities)
+            .flatMapMany(storedByKey ->
+                assignIds(persistentEntity, key, entities, storedByKey)
                     .collectList()
-                    .map((List<Integer> updates) -> updates.stream().reduce(Integer::sum).orElse(0))
+                    .flatMapMany(withIds -> {
+                        for (S entity : withIds) {
+                            setInitialVersion(persistentEntity, entity);
+                        }
+                        if (dialect instanceof PostgresDialect && !(dialect instanceof H2Dialect)) {
+                            return insertOnConflict(persistentEntity, key, withIds);
+                        }
+                        return merge(persistentEntity, key, withIds, storedByKey);
+                    })
+            );
+    }
+
+    private Mono<Map<Object, Object>> selectStoredByKey(
+        RelationalPersistentEntity<?> persistentEntity,
+        RelationalPersistentProperty key,
+        List<?> entities
+    ) {
+        List<Object> keys = entities
+            .stream()
+            .map(entity -> persistentEntity.getPropertyAccessor(entity).getProperty(key))
+            .distinct()
+            .collect(Collectors.toList());
+        return r2dbcEntityTemplate
+            .select(Query.query(Criteria.where(key.getName()).in(keys)), persistentEntity.getType())
+            .collectMap(stored -> persistentEntity.getPropertyAccessor(stored).getProperty(key), stored -> (Object) stored);
+    }
+
+    // the stored rows keep their ids, an entity of the batch with the key of a previous new one gets its id
+    private <S> Flux<S> assignIds(
+        RelationalPersistentEntity<?> persistentEntity,
+        RelationalPersistentProperty key,
+        List<S> entities,
+        Map<Object, Object> storedByKey
+    ) {
+        RelationalPersistentProperty idProperty = persistentEntity.getRequiredIdProperty();
+        Map<Object, Object> newIds = new HashMap<>();
+        return Flux
+            .fromIterable(entities)
+            .concatMap(entity -> {
+                PersistentPropertyAccessor<S> accessor = persistentEntity.getPropertyAccessor(entity);
+                Object keyValue = accessor.getProperty(key);
+                Object stored = storedByKey.get(keyValue);
+                Object id = stored != null ? persistentEntity.getPropertyAccessor(stored).getProperty(idProperty) : newIds.get(keyValue);
+                if (id != null) {
+                    accessor.setProperty(idProperty, id);
+                    return Mono.just(accessor.getBean());
+                }
+                return idAllocator.assignId(entity);
+            })
+            .doOnNext(entity -> {
+                Object id = persistentEntity.getPropertyAccessor(entity).getProperty(idProperty);
+                Assert.notNull(id, "The upserted entities need a sequence");
+                newIds.putIfAbsent(persistentEntity.getPropertyAccessor(entity).getProperty(key), id);
+            });
+    }
+
+    private <S> Flux<UpsertResult<S>> insertOnConflict(
+        RelationalPersistentEntity<?> persistentEntity,
+        RelationalPersistentProperty key,
+        List<S> entities
+    ) {
+        IdentifierProcessing identifiers = dialect.getIdentifierProcessing();
+        RelationalPersistentProperty idProperty = persistentEntity.getRequiredIdProperty();
+        RelationalPersistentProperty versionProperty = persistentEntity.getVersionProperty();
+        String table = persistentEntity.getTableName().toSql(identifiers);
+        List<OutboundRow> rows = getOutboundRows(entities);
+        BindMarkers bindMarkers = bindMarkersFactory.create();
+        List<String> columns = new ArrayList<>();
+        List<String> markers = new ArrayList<>();
+        List<String> set = new ArrayList<>();
+        for (SqlIdentifier column : rows.get(0).keySet()) {
+            String name = column.toSql(identifiers);
+            columns.add(name);
+            markers.add(bindMarkers.next().getPlaceholder());
+            boolean version = versionProperty != null && column.equals(versionProperty.getColumnName());
+            if (!column.equals(idProperty.getColumnName()) && !version) {
+                set.add(name + " = EXCLUDED." + name);
+            }
+        }
+        String returning = idProperty.getColumnName().toSql(identifiers);
+        if (versionProperty != null) {
+            String versionColumn = versionProperty.getColumnName().toSql(identifiers);
+            set.add(versionColumn + " = " + table + "." + versionColumn + " + 1");
+            returning += ", " + versionColumn;
+        }
+        // the row of an insert has no deleting transaction yet, unlike the row of an update
+        String sql = String.format(
+            "INSERT INTO %s (%s) VALUES (%s) ON CONFLICT (%s) DO UPDATE SET %s RETURNING (xmax = 0), %s",
+            table,
+            String.join(", ", columns),
+            String.join(", ", markers),
+            key.getColumnName().toSql(identifiers),
+            String.join(", ", set),
+            returning
+        );
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .inConnectionMany(connection ->
+                Flux
+                    .from(bindRows(connection.createStatement(sql), rows).execute())
+                    .concatMap(result ->
+                        result.map((row, metadata) ->
+                            new Object[] { row.get(0, Boolean.class), row.get(1), versionProperty != null ? row.get(2) : null }
+                        )
+                    )
+            )
+            .zipWithIterable(
+                entities,
+                (stored, entity) -> {
+                    S withId = setId(persistentEntity, entity, stored[1]);
+                    PersistentPropertyAccessor<S> accessor = persistentEntity.getPropertyAccessor(withId);
+                    if (versionProperty != null) {
+                        accessor.setProperty(versionProperty, convert(stored[2], versionProperty));
+                    }
+                    return new UpsertResult<>(accessor.getBean(), (Boolean) stored[0]);
+                }
             );
     }
 
+    private <S> Flux<UpsertResult<S>> merge(
+        RelationalPersistentEntity<?> persistentEntity,
+        RelationalPersistentProperty key,
+        List<S> entities,
+        Map<Object, Object> storedByKey
+    ) {
+        IdentifierProcessing identifiers = dialect.getIdentifierProcessing();
+        RelationalPersistentProperty idProperty = persistentEntity.getRequiredIdProperty();
+        RelationalPersistentProperty versionProperty = persistentEntity.getVersionProperty();
+        List<UpsertResult<S>> results = new ArrayList<>();
+        for (S entity : entities) {
+            PersistentPropertyAccessor<S> accessor = persistentEntity.getPropertyAccessor(entity);
+            Object stored = storedByKey.get(accessor.getProperty(key));
+            if (stored != null && versionProperty != null) {
+                long version = ((Number) persistentEntity.getPropertyAccessor(stored).getProperty(versionProperty)).longValue();
+                accessor.setProperty(versionProperty, convert(version + 1, versionProperty));
+            }
+            // an entity of the batch with the key of a previous one updates its row
+            storedByKey.put(accessor.getProperty(key), accessor.getBean());
+            results.add(new UpsertResult<>(accessor.getBean(), stored == null));
+        }
+        String table = persistentEntity.getTableName().toSql(identifiers);
+        List<OutboundRow> rows = getOutboundRows(entities);
+        BindMarkers bindMarkers = bindMarkersFactory.create();
+        List<String> columns = new ArrayList<>();
+        List<String> markers = new ArrayList<>();
+        List<String> set = new ArrayList<>();
+        String keyMarker = null;
+        for (SqlIdentifier column : rows.get(0).keySet()) {
+            String name = column.toSql(identifiers);
+            String marker = bindMarkers.next().getPlaceholder();
+            columns.add(name);
+            markers.add(marker);
+            boolean version = versionProperty != null && column.equals(versionProperty.getColumnName());
+            if (column.equals(key.getColumnName())) {
+                keyMarker = marker;
+            } else if (!column.equals(idProperty.getColumnName()) && !version) {
+                set.add(table + "." + name + " = " + marker);
+            }
+        }
+        String keyColumn = table + "." + key.getColumnName().toSql(identifiers);
+        if (versionProperty != null) {
+            String versionColumn = table + "." + versionProperty.getColumnName().toSql(identifiers);
+            set.add(versionColumn + " = " + versionColumn + " + 1");
+        } else if (set.isEmpty()) {
+            set.add(keyColumn + " = " + keyMarker);
+        }
+        // the markers are numbered, the ones of the key and of the updated columns are used twice
+        String sql = String.format(
+            "MERGE INTO %s USING DUAL ON %s = %s WHEN MATCHED THEN UPDATE SET %s WHEN NOT MATCHED THEN INSERT (%s) VALUES (%s)",
+            table,
+            keyColumn,
+            keyMarker,
+            String.join(", ", set),
+            String.join(", ", columns),
+            String.join(", ", markers)
+        );
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .inConnectionMany(connection ->
+                Flux.from(bindRows(connection.createStatement(sql), rows).execute()).concatMap(Result::getRowsUpdated)
+            )
+            .thenMany(Flux.fromIterable(results));
+    }
+
+    private List<OutboundRow> getOutboundRows(List<?> entities) {
+        return entities
+            .stream()
+            .map(entity -> r2dbcEntityTemplate.getDataAccessStrategy().getOutboundRow(entity))
+            .collect(Collectors.toList());
+    }
+
+    // the markers of the statement are numbered in the order of the columns
+    private static Statement bindRows(Statement statement, List<OutboundRow> rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                statement.add();
+            }
+            int index = 0;
+            for (Parameter value : rows.get(i).values()) {
+                bind(statement, index++, value);
+            }
+        }
+        return statement;
+    }
+
+    private Object convert(Object value, RelationalPersistentProperty property) {
+        return r2dbcEntityTemplate.getConverter().getConversionService().convert(value, property.getType());
+    }
+
+    /**
+     * Updates the columns of the non-null properties of the given entity, in the row with its id, and returns the stored
+     * row. On PostgreSQL, the statement returns the row with {@code RETURNING}; the other databases read it with a second
+     * statement, as the {@code FINAL TABLE} of an update does not see the updated values on H2 1.4.
+     * <p>
+     * When the entity has a version, the row is only updated if it still has the version of the patch, or any version if
+     * the patch has none, and its version is incremented.
+     * @param <S> the type of the updated entity.
+     * @param patch the id of the row, the expected version, and the values of the updated columns.
+     * @return the updated entity, as stored, or an empty {@link Mono} if there is no row with the id.
+     * @throws OptimisticLockingFailureException if the row has another version.
+     */
+    public <S> Mono<S> partialUpdate(S patch) {
+        RelationalPersistentEntity<?> persistentEntity = getRequiredPersistentEntity(patch.getClass());
+        PersistentPropertyAccessor<S> accessor = persistentEntity.getPropertyAccessor(patch);
+        // without any other column, the id is set to itself to tell whether the row exists
+        Map<SqlIdentifier, Object> columns = new LinkedHashMap<>();
+        for (RelationalPersistentProperty property : persistentEntity) {
+            Object value = accessor.getProperty(property);
+            if (!property.isVersionProperty() && value != null) {
+                columns.put(property.getColumnName(), value);
+            }
+        }
+        return updateById(patch, columns, true);
+    }
+
+    /**
+     * Updates all the columns of the row with the id of the given entity, with a single statement which tells from its
+     * updated row count whether the row exists.
+     * <p>
+     * When the entity has a version, the row is only updated if it still has the version of the entity, or any version if
+     * the entity has none, and its version is incremented. The row is read again after the update when the previous
+     * version is unknown.
+     * @param <S> the type of the updated entity.
+     * @param entity the entity to write, with its id.
+     * @return the given entity, with its new version, or an empty {@link Mono} if there is no row with its id.
+     * @throws OptimisticLockingFailureException if the row has another version.
+     */
+    public <S> Mono<S> updateIfExists(S entity) {
+        RelationalPersistentEntity<?> persistentEntity = getRequiredPersistentEntity(entity.getClass());
+        // the id column is kept, so the update has a column to set even when the entity has no other one
+        Map<SqlIdentifier, Object> columns = new LinkedHashMap<>(r2dbcEntityTemplate.getDataAccessStrategy().getOutboundRow(entity));
+        if (persistentEntity.hasVersionProperty()) {
+            columns.remove(persistentEntity.getRequiredVersionProperty().getColumnName());
+        }
+        return updateById(entity, columns, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S> Mono<S> updateById(S entity, Map<SqlIdentifier, Object> columns, boolean readStored) {
+        Class<S> entityType = (Class<S>) entity.getClass();
+        RelationalPersistentEntity<?> persistentEntity = getRequiredPersistentEntity(entityType);
+        RelationalPersistentProperty idProperty = persistentEntity.getRequiredIdProperty();
+        RelationalPersistentProperty versionProperty = persistentEntity.getVersionProperty();
+        PersistentPropertyAccessor<S> accessor = persistentEntity.getPropertyAccessor(entity);
+        Object id = accessor.getProperty(idProperty);
+        Assert.notNull(id, "id is null");
+        Object version = versionProperty != null ? accessor.getProperty(versionProperty) : null;
+
+        Table table = Table.create(persistentEntity.getTableName());
+        BindMarkers bindMarkers = bindMarkersFactory.create();
+        BoundAssignments assignments = updateMapper.getMappedObject(bindMarkers, columns, table, persistentEntity);
+        List<Assignment> set = new ArrayList<>(assignments.getAssignments());
+        Criteria criteria = Criteria.where(idProperty.getName()).is(id);
+        if (versionProperty != null) {
+            String versionColumn = versionProperty.getColumnName().toSql(dialect.getIdentifierProcessing());
+            set.add(AssignValue.create(table.column(versionProperty.getColumnName()), Expressions.just(versionColumn + " + 1")));
+            if (version != null) {
+                criteria = criteria.and(versionProperty.getName()).is(version);
+            }
+        }
+        BoundCondition condition = updateMapper.getMappedObject(bindMarkers, criteria, table, persistentEntity);
+        String sql = sqlRenderer.render(StatementBuilder.update(table).set(set).where(condition.getCondition()).build());
+        Bindings bindings = Bindings.merge(assignments.getBindings(), condition.getBindings());
+
+        DatabaseClient db = r2dbcEntityTemplate.getDatabaseClient();
+        Mono<S> updated;
+        if (!readStored && (versionProperty == null || version != null)) {
+            updated =
+                db
+                    .sql(new BoundUpdate(sql, bindings))
+                    .fetch()
+                    .rowsUpdated()
+                    .filter(count -> count > 0)
+                    .map(count -> {
+                        if (version != null) {
+                            Object nextVersion = ((Number) version).longValue() + 1;
+                            accessor.setProperty(
+                                versionProperty,
+                                r2dbcEntityTemplate.getConverter().getConversionService().convert(nextVersion, versionProperty.getType())
+                            );
+                        }
+                        return accessor.getBean();
+                    });
+        } else if (dialect instanceof PostgresDialect && !(dialect instanceof H2Dialect)) {
+            updated =
+                db
+                    .sql(new BoundUpdate(sql + " RETURNING *", bindings))
+                    .map((row, metadata) -> r2dbcEntityTemplate.getConverter().read(entityType, row, metadata))
+                    .one();
+        } else {
+            updated =
+                db
+                    .sql(new BoundUpdate(sql, bindings))
+                    .fetch()
+                    .rowsUpdated()
+                    .filter(count -> count > 0)
+                    .flatMap(count -> r2dbcEntityTemplate.selectOne(Query.query(Criteria.where(idProperty.getName()).is(id)), entityType));
+        }
+        if (version == null) {
+            return updated;
+        }
+        // the row count does not tell a missing row from a row with another version, which is only read on a failure
+        return updated.switchIfEmpty(
+            Mono.defer(() -> r2dbcEntityTemplate.exists(Query.query(Criteria.where(idProperty.getName()).is(id)), entityType))
+                .flatMap(exists ->
+                    exists
+                        ? Mono.error(
+                            new OptimisticLockingFailureException(
+                                String.format("Failed to update %s with id %s and version %s", entityType.getSimpleName(), id, version)
+                            )
+                        )
+                        : Mono.empty()
+                )
+        );
+    }
+
+    /**
+     * Runs the given operation in a unit of work: the writes it registers with {@link #save(Object)},
+     * {@link #registerNew(Object)}, {@link #registerDirty(Object)}, {@link #registerDeleted(Class, Object)} or
+     * {@link #registerLink(LinkTable, Object, Object)} are sent when it completes, with a few batched statements. An
+     * operation which already runs in a unit of work joins it.
+     * <p>
+     * The operation must run in a transaction, which then only holds the locks of the rows from the flush to its commit.
+     * Until the flush, the reads of the operation do not see its registered writes.
+     * @param <T> the type of the result.
+     * @param operation the operation.
+     * @return the result of the operation, once its writes are flushed.
+     */
+    public <T> Mono<T> inUnitOfWork(Mono<T> operation) {
+        return Mono.deferContextual(context -> {
+            if (context.hasKey(UnitOfWork.class)) {
+                return operation;
+            }
+            UnitOfWork unitOfWork = new UnitOfWork();
+            return operation
+                .contextWrite(operationContext -> operationContext.put(UnitOfWork.class, unitOfWork))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(result -> flush(unitOfWork).then(Mono.justOrEmpty(result)));
+        });
+    }
+
+    /**
+     * Runs the given operation in a unit of work, see {@link #inUnitOfWork(Mono)}.
+     * @param <T> the type of the results.
+     * @param operation the operation.
+     * @return the results of the operation, once its writes are flushed.
+     */
+    public <T> Flux<T> inUnitOfWork(Flux<T> operation) {
+        return Flux.deferContextual(context -> {
+            if (context.hasKey(UnitOfWork.class)) {
+                return operation;
+            }
+            UnitOfWork unitOfWork = new UnitOfWork();
+            return operation
+                .contextWrite(operationContext -> operationContext.put(UnitOfWork.class, unitOfWork))
+                .collectList()
+                .flatMapMany(results -> flush(unitOfWork).thenMany(Flux.fromIterable(results)));
+        });
+    }
+
+    /**
+     * Inserts the new entity or updates the existing one, like the {@code save} of the repositories: at the flush of the
+     * current unit of work, or else right away.
+     * @param <S> the type of the entity.
+     * @param entity the entity to save.
+     * @return the entity.
+     */
+    public <S> Mono<S> save(S entity) {
+        return getRequiredPersistentEntity(entity.getClass()).isNew(entity) ? registerNew(entity) : registerDirty(entity);
+    }
+
+    /**
+     * Inserts the given entity at the flush of the current unit of work, or else right away. In a unit of work, the
+     * entity gets its id from the sequence of its table, and its first version, when it is registered.
+     * @param <S> the type of the entity.
+     * @param entity the entity to insert.
+     * @return the entity.
+     */
+    public <S> Mono<S> registerNew(S entity) {
+        return UnitOfWork
+            .current()
+            .flatMap(unitOfWork ->
+                idAllocator
+                    .assignId(entity)
+                    .doOnNext(registered -> {
+                        setInitialVersion(getRequiredPersistentEntity(registered.getClass()), registered);
+                        unitOfWork.registerNew(registered);
+                    })
+            )
+            .switchIfEmpty(Mono.defer(() -> insert(entity)));
+    }
+
+    /**
+     * Updates the row of the given entity at the flush of the current unit of work, or else right away. In a unit of
+     * work, the entity gets its next version when it is registered: the flush fails if the row has another version than
+     * the previous one.
+     * @param <S> the type of the entity.
+     * @param entity the entity to update.
+     * @return the entity.
+     */
+    public <S> Mono<S> registerDirty(S entity) {
+        return UnitOfWork
+            .current()
+            .map(unitOfWork -> {
+                RelationalPersistentEntity<?> persistentEntity = getRequiredPersistentEntity(entity.getClass());
+                RelationalPersistentProperty versionProperty = persistentEntity.getVersionProperty();
+                PersistentPropertyAccessor<S> accessor = persistentEntity.getPropertyAccessor(entity);
+                Object version = versionProperty != null ? accessor.getProperty(versionProperty) : null;
+                if (unitOfWork.registerDirty(entity, version) && version != null) {
+                    Object nextVersion = ((Number) version).longValue() + 1;
+                    accessor.setProperty(
+                        versionProperty,
+                        r2dbcEntityTemplate.getConverter().getConversionService().convert(nextVersion, versionProperty.getType())
+                    );
+                }
+                return accessor.getBean();
+            })
+            .switchIfEmpty(Mono.defer(() -> r2dbcEntityTemplate.update(entity)));
+    }
+
+    /**
+     * Deletes the row with the given id at the flush of the current unit of work, or else right away.
+     * @param entityType the entity type which holds the table name.
+     * @param id the id of the row.
+     * @return a Mono to signal the registration, or the deletion.
+     */
+    public Mono<Void> registerDeleted(Class<?> entityType, Object id) {
+        return UnitOfWork
+            .current()
+            .map(unitOfWork -> {
+                unitOfWork.registerDeleted(entityType, id);
+                return true;
+            })
+            .switchIfEmpty(Mono.defer(() -> deleteByIds(entityType, List.of(id)).thenReturn(true)))
+            .then();
+    }
+
+    /**
+     * Inserts the link between the given ids into the link table, at the flush of the current unit of work, or else
+     * right away.
+     * @param table describes the link table, it should be a constant, as the links are grouped by table.
+     * @param entityId the id of the entity.
+     * @param referencedId the id of the referred entity.
+     * @return a Mono to signal the registration, or the insertion.
+     */
+    public Mono<Void> registerLink(LinkTable table, Object entityId, Object referencedId) {
+        return UnitOfWork
+            .current()
+            .map(unitOfWork -> {
+                unitOfWork.registerLink(table, entityId, referencedId);
+                return true;
+            })
+            .switchIfEmpty(
+                Mono.defer(() -> insertLinks(table, Collections.singletonList(new Object[] { entityId, referencedId })).thenReturn(true))
+            )
+            .then();
+    }
+
+    /**
+     * Writes the registered entities of the unit of work, by entity type: the inserts in batches of
+     * {@code application.persistence.batch-size} rows, the updates with one statement for every batch of rows, then the
+     * links and the deletes. The inserts and the updates go from the referred types to the referring ones, and the
+     * deletes the other way, so the foreign keys are satisfied.
+     */
+    private Mono<Void> flush(UnitOfWork unitOfWork) {
+        long start = System.nanoTime();
+        List<Class<?>> entityTypes = sortByDependency(unitOfWork.getEntityTypes());
+        List<Class<?>> referringFirst = new ArrayList<>(entityTypes);
+        Collections.reverse(referringFirst);
+        return Flux
+            .fromIterable(entityTypes)
+            .concatMap(entityType -> insertAll(Flux.fromIterable(unitOfWork.getInserts(entityType))))
+            .thenMany(Flux.fromIterable(entityTypes).concatMap(entityType -> updateAll(entityType, unitOfWork.getUpdates(entityType))))
+            .thenMany(Flux.fromIterable(unitOfWork.getLinks().entrySet()).concatMap(links -> insertLinks(links.getKey(), links.getValue())))
+            .thenMany(Flux.fromIterable(referringFirst).concatMap(entityType -> deleteByIds(entityType, unitOfWork.getDeletes(entityType))))
+            .then()
+            .doOnSuccess(flushed -> flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Sorts the entity types so that every type comes after the types it refers to: the types of its {@link Transient}
+     * properties which are not collections, like the {@code a} of a {@code B}. The types of a cycle keep their order.
+     */
+    static List<Class<?>> sortByDependency(Collection<Class<?>> entityTypes) {
+        List<Class<?>> sorted = new ArrayList<>();
+        Set<Class<?>> visited = new HashSet<>();
+        for (Class<?> entityType : entityTypes) {
+            addAfterReferredTypes(entityType, entityTypes, visited, sorted);
+        }
+        return sorted;
+    }
+
+    private static void addAfterReferredTypes(
+        Class<?> entityType,
+        Collection<Class<?>> entityTypes,
+        Set<Class<?>> visited,
+        List<Class<?>> sorted
+    ) {
+        if (!visited.add(entityType)) {
+            return;
+        }
+        ReflectionUtils.doWithFields(
+            entityType,
+            field -> addAfterReferredTypes(field.getType(), entityTypes, visited, sorted),
+            field -> field.isAnnotationPresent(Transient.class) && entityTypes.contains(field.getType())
+        );
+        sorted.add(entityType);
+    }
+
+    private Mono<Void> updateAll(Class<?> entityType, List<UnitOfWork.DirtyEntity> dirtyEntities) {
+        if (dirtyEntities.isEmpty()) {
+            return Mono.empty();
+        }
+        RelationalPersistentEntity<?> persistentEntity = getRequiredPersistentEntity(entityType);
+        RelationalPersistentProperty idProperty = persistentEntity.getRequiredIdProperty();
+        RelationalPersistentProperty versionProperty = persistentEntity.getVersionProperty();
+        Table table = Table.create(persistentEntity.getTableName());
+        BindMarkers bindMarkers = bindMarkersFactory.create();
+
+        // the id column is kept, like in updateIfExists, and the markers are numbered in the order of the columns
+        List<SqlIdentifier> columns = new ArrayList<>();
+        List<Assignment> set = new ArrayList<>();
+        for (SqlIdentifier column : r2dbcEntityTemplate.getDataAccessStrategy().getOutboundRow(dirtyEntities.get(0).entity).keySet()) {
+            if (versionProperty == null || !column.equals(versionProperty.getColumnName())) {
+                columns.add(column);
+                set.add(AssignValue.create(table.column(column), SQL.bindMarker(bindMarkers.next().getPlaceholder())));
+            }
+        }
+        Condition condition = table.column(idProperty.getColumnName()).isEqualTo(SQL.bindMarker(bindMarkers.next().getPlaceholder()));
+        if (versionProperty != null) {
+            String versionColumn = versionProperty.getColumnName().toSql(dialect.getIdentifierProcessing());
+            set.add(AssignValue.create(table.column(versionProperty.getColumnName()), Expressions.just(versionColumn + " + 1")));
+            // the rows registered without a version are updated whatever their version
+            condition =
+                condition.and(
+                    table
+                        .column(versionProperty.getColumnName())
+                        .isEqualTo(Expressions.just("COALESCE(" + bindMarkers.next().getPlaceholder() + ", " + versionColumn + ")"))
+                );
+        }
+        String sql = sqlRenderer.render(StatementBuilder.update(table).set(set).where(condition).build());
+
+        return Flux
+            .fromIterable(dirtyEntities)
+            .buffer(batchSize)
+            .concatMap(batch ->
+                r2dbcEntityTemplate
+                    .getDatabaseClient()
+                    .inConnectionMany(connection -> {
+                        Statement statement = connection.createStatement(sql);
+                        for (int i = 0; i < batch.size(); i++) {
+                            if (i > 0) {
+                                statement.add();
+                            }
+                            UnitOfWork.DirtyEntity dirtyEntity = batch.get(i);
+                            OutboundRow row = r2dbcEntityTemplate.getDataAccessStrategy().getOutboundRow(dirtyEntity.entity);
+                            int index = 0;
+                            for (SqlIdentifier column : columns) {
+                                bind(statement, index++, row.get(column));
+                            }
+                            bind(statement, index++, row.get(idProperty.getColumnName()));
+                            if (versionProperty != null) {
+                                bind(statement, index, Parameter.fromOrEmpty(dirtyEntity.version, Long.class));
+                            }
+                        }
+                        return Flux.from(statement.execute()).concatMap(Result::getRowsUpdated);
+                    })
+                    .zipWithIterable(batch, (count, dirtyEntity) -> {
+                        if (count == 0) {
+                            Object id = persistentEntity.getPropertyAccessor(dirtyEntity.entity).getProperty(idProperty);
+                            String entityName = entityType.getSimpleName();
+                            throw versionProperty != null
+                                ? new OptimisticLockingFailureException(
+                                    String.format("Failed to update %s with id %s and version %s", entityName, id, dirtyEntity.version)
+                                )
+                                : new TransientDataAccessResourceException(
+                                    String.format("Failed to update %s with id %s, the row does not exist", entityName, id)
+                                );
+                        }
+                        return count;
+                    })
+            )
+            .then();
+    }
+
+    private static void bind(Statement statement, int index, Parameter value) {
+        if (value.hasValue()) {
+            statement.bind(index, value.getValue());
+        } else {
+            statement.bindNull(index, value.getType());
+        }
+    }
+
+    private Mono<Void> deleteByIds(Class<?> entityType, List<Object> ids) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        String idProperty = getRequiredPersistentEntity(entityType).getRequiredIdProperty().getName();
+        return Flux
+            .fromIterable(ids)
+            .buffer(batchSize)
+            .concatMap(batch -> r2dbcEntityTemplate.delete(Query.query(Criteria.where(idProperty).in(batch)), entityType))
+            .then();
+    }
+
+    private Mono<Void> insertLinks(LinkTable table, List<Object[]> links) {
+        StatementMapper.InsertSpec insert = statementMapper
+            .createInsert(table.tableName)
+            .withColumn(table.idColumn, Parameter.from(links.get(0)[0]))
+            .withColumn(table.referenceColumn, Parameter.from(links.get(0)[1]));
+        String sql = statementMapper.getMappedObject(insert).toQuery();
+        return Flux
+            .fromIterable(links)
+            .buffer(batchSize)
+            .concatMap(batch ->
+                r2dbcEntityTemplate
+                    .getDatabaseClient()
+                    .inConnectionMany(connection -> {
+                        Statement statement = connection.createStatement(sql);
+                        for (int i = 0; i < batch.size(); i++) {
+                            if (i > 0) {
+                                statement.add();
+                            }
+                            statement.bind(0, batch.get(i)[0]).bind(1, batch.get(i)[1]);
+                        }
+                        return Flux.from(statement.execute()).concatMap(Result::getRowsUpdated);
+                    })
+            )
+            .then();
+    }
+
+    /**
+     * Updates the table, which links the entity with the referred entities. Only the difference with the current links is
+     * written: the removed links are deleted with one statement, and the added links are inserted with one batch.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param entityId the id of the entity, for which the links are created.
+     * @param referencedIds the id of the referred entities, duplicates are ignored.
+     * @return the number of inserted and deleted rows.
+     */
+    public Mono<Integer> updateLinkTable(LinkTable table, Long entityId, long[] referencedIds) {
+        Assert.notNull(entityId, "entityId is null");
+        long[] desired = sortedDistinct(referencedIds.clone());
+        StatementMapper.SelectSpec select = statementMapper
+            .createSelect(table.tableName)
+            .withProjection(table.referenceColumn)
+            .withCriteria(Criteria.where(table.idColumn).is(entityId));
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(statementMapper.getMappedObject(select))
+            .map(row -> row.get(0, Long.class))
+            .all()
+            .collectList()
+            .flatMap(currentIds -> {
+                long[] current = sortedDistinct(currentIds.stream().mapToLong(Long::longValue).toArray());
+                return deleteFromLinkTable(table, entityId, difference(current, desired))
+                    .flatMap(deleted ->
+                        insertIntoLinkTable(table, entityId, difference(desired, current)).map(inserted -> deleted + inserted)
+                    );
+            });
+    }
+
+    private Mono<Integer> deleteFromLinkTable(LinkTable table, Long entityId, long[] referencedIds) {
+        if (referencedIds.length == 0) {
+            return Mono.just(0);
+        }
+        List<Long> ids = new ArrayList<>(referencedIds.length);
+        for (long referencedId : referencedIds) {
+            ids.add(referencedId);
+        }
+        StatementMapper.DeleteSpec delete = statementMapper
+            .createDelete(table.tableName)
+            .withCriteria(Criteria.where(table.idColumn).is(entityId).and(table.referenceColumn).in(ids));
+        return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(delete)).fetch().rowsUpdated();
+    }
+
+    private Mono<Integer> insertIntoLinkTable(LinkTable table, Long entityId, long[] referencedIds) {
+        if (referencedIds.length == 0) {
+            return Mono.just(0);
+        }
+        StatementMapper.InsertSpec insert = statementMapper
+            .createInsert(table.tableName)
+            .withColumn(table.idColumn, Parameter.from(entityId))
+            .withColumn(table.referenceColumn, Parameter.from(referencedIds[0]));
+        String sql = statementMapper.getMappedObject(insert).toQuery();
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(sql);
+                for (int i = 0; i < referencedIds.length; i++) {
+                    if (i > 0) {
+                        statement.add();
+                    }
+                    statement.bind(0, entityId).bind(1, referencedIds[i]);
+                }
+                return Flux.from(statement.execute()).concatMap(Result::getRowsUpdated);
+            })
+            .reduce(0, Integer::sum);
+    }
+
+    private static long[] sortedDistinct(long[] ids) {
+        Arrays.sort(ids);
+        int size = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[size++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * @return the ids of the first sorted array, which are not in the second one.
+     */
+    private static long[] difference(long[] ids, long[] excludedIds) {
+        long[] result = new long[ids.length];
+        int size = 0;
+        int j = 0;
+        for (long id : ids) {
+            while (j < excludedIds.length && excludedIds[j] < id) {
+                j++;
+            }
+            if (j == excludedIds.length || excludedIds[j] != id) {
+                result[size++] = id;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
     public Mono<Void> deleteFromLinkTable(LinkTable table, Long entityId) {
         Assert.notNull(entityId, "entityId is null");
         StatementMapper.DeleteSpec deleteSpec = r2dbcEntityTemplate
@@ -233,4 +1354,117 @@ public class EntityManager {
 
         return fields;
     }
+
+    private static final class SelectKey {
+
+        private final Object selectFrom;
+        private final Class<?> entityType;
+        private final String criteria;
+        private final Sort sort;
+        private final int keysetSize;
+        private final boolean limited;
+        private final boolean offset;
+
+        SelectKey(Object selectFrom, Class<?> entityType, String criteria, Sort sort, int keysetSize, boolean limited, boolean offset) {
+            this.selectFrom = selectFrom;
+            this.entityType = entityType;
+            this.criteria = criteria;
+            this.sort = sort;
+            this.keysetSize = keysetSize;
+            this.limited = limited;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SelectKey)) {
+                return false;
+            }
+            SelectKey that = (SelectKey) o;
+            return (
+                selectFrom == that.selectFrom &&
+                entityType.equals(that.entityType) &&
+                Objects.equals(criteria, that.criteria) &&
+                sort.equals(that.sort) &&
+                keysetSize == that.keysetSize &&
+                limited == that.limited &&
+                offset == that.offset
+            );
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(selectFrom), entityType, criteria, sort, keysetSize, limited, offset);
+        }
+    }
+
+    /**
+     * A rendered select statement, together with the values to bind for one execution.
+     */
+    private static final class BoundSelect implements PreparedOperation<String> {
+
+        private final String sql;
+        private final Bindings criteriaBindings;
+        private final List<BindMarker> markers;
+        private final List<Object> values;
+
+        BoundSelect(String sql, Bindings criteriaBindings, List<BindMarker> markers, List<Object> values) {
+            this.sql = sql;
+            this.criteriaBindings = criteriaBindings;
+            this.markers = markers;
+            this.values = values;
+        }
+
+        @Override
+        public String getSource() {
+            return sql;
+        }
+
+        @Override
+        public String toQuery() {
+            return sql;
+        }
+
+        @Override
+        public void bindTo(BindTarget target) {
+            if (criteriaBindings != null) {
+                criteriaBindings.apply(target);
+            }
+            for (int i = 0; i < markers.size(); i++) {
+                markers.get(i).bind(target, values.get(i));
+            }
+        }
+    }
+
+    /**
+     * A rendered update statement, together with the values to bind.
+     */
+    private static final class BoundUpdate implements PreparedOperation<String> {
+
+        private final String sql;
+        private final Bindings bindings;
+
+        BoundUpdate(String sql, Bindings bindings) {
+            this.sql = sql;
+            this.bindings = bindings;
+        }
+
+        @Override
+        public String getSource() {
+            return sql;
+        }
+
+        @Override
+        public String toQuery() {
+            return sql;
+        }
+
+        @Override
+        public void bindTo(BindTarget target) {
+            bindings.apply(target);
+        }
+    }
 }
@@ -0,0 +1,259 @@
+package com.myapp.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import javax.validation.constraints.NotNull;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Opaque position in a keyset (seek) paginated result: the values of the sort properties and of the id of the last row
+ * that has been returned, so the next page can be selected with a {@code WHERE} clause instead of an {@code OFFSET}.
+ * <p>
+ * The values of the sort properties must not be {@code null}: the keyset sorts of an entity are restricted to its
+ * non-nullable properties, see {@link #decode(String, Sort, Class)}.
+ */
+public final class KeysetCursor {
+
+    public static final String ID_PROPERTY = "id";
+
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_LONG = 'L';
+    private static final byte TYPE_INTEGER = 'I';
+    private static final byte TYPE_STRING = 'S';
+    private static final byte TYPE_BOOLEAN = 'B';
+    private static final byte TYPE_INSTANT = 'T';
+
+    private final Sort sort;
+    private final List<Object> values;
+
+    private KeysetCursor(Sort sort, List<Object> values) {
+        this.sort = sort;
+        this.values = values;
+    }
+
+    /**
+     * Creates the cursor which points before the first row of the result.
+     * @param sort the requested sort, the id is appended as a tie-breaker, if needed.
+     * @return the cursor of the first page.
+     */
+    public static KeysetCursor first(Sort sort) {
+        return new KeysetCursor(keysetSort(sort), Collections.emptyList());
+    }
+
+    /**
+     * Creates a cursor pointing after the row with the given values.
+     * @param sort the requested sort, the id is appended as a tie-breaker, if needed.
+     * @param values the values of the properties of the keyset sort, in order.
+     * @return the cursor of the page following the row.
+     */
+    public static KeysetCursor after(Sort sort, List<Object> values) {
+        Sort keysetSort = keysetSort(sort);
+        Assert.isTrue(keysetSort.toList().size() == values.size(), "the number of values doesn't match the sort");
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) == null) {
+                throw new IllegalArgumentException("Keyset property '" + keysetSort.toList().get(i).getProperty() + "' is null");
+            }
+        }
+        return new KeysetCursor(keysetSort, Collections.unmodifiableList(new ArrayList<>(values)));
+    }
+
+    /**
+     * Appends the id to the sort if it is not part of it yet, so every row has a unique position.
+     * @param sort the requested sort.
+     * @return the sort used by the keyset queries.
+     */
+    public static Sort keysetSort(Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return Sort.by(ID_PROPERTY);
+        }
+        if (sort.getOrderFor(ID_PROPERTY) != null) {
+            return sort;
+        }
+        return sort.and(Sort.by(ID_PROPERTY));
+    }
+
+    /**
+     * Parses a cursor previously returned by {@link #encode()}.
+     * @param token the encoded cursor, an empty token is the cursor of the first page.
+     * @param sort the requested sort, which must be the same as the one the cursor was created with.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed, or was created for another sort.
+     */
+    public static KeysetCursor decode(String token, Sort sort) {
+        if (token == null || token.isEmpty()) {
+            return first(sort);
+        }
+        Sort expectedSort = keysetSort(sort);
+        List<Sort.Order> orders = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unsupported keyset cursor version");
+            }
+            int size = in.readUnsignedByte();
+            for (int i = 0; i < size; i++) {
+                String property = in.readUTF();
+                orders.add(in.readBoolean() ? Sort.Order.asc(property) : Sort.Order.desc(property));
+                values.add(readValue(in));
+            }
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("Invalid keyset cursor");
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid keyset cursor", e);
+        }
+        if (!Sort.by(orders).equals(expectedSort)) {
+            throw new IllegalArgumentException("The keyset cursor doesn't match the requested sort");
+        }
+        return after(expectedSort, values);
+    }
+
+    /**
+     * Parses a cursor previously returned by {@link #encode()}, for a sort of the given entity, which must only use
+     * non-nullable properties: the id, the version and the properties annotated with {@link NotNull}.
+     * @param token the encoded cursor, an empty token is the cursor of the first page.
+     * @param sort the requested sort, which must be the same as the one the cursor was created with.
+     * @param entityType the type of the sorted entity.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed, or was created for another sort, or if the sort uses
+     * an unknown or nullable property of the entity.
+     */
+    public static KeysetCursor decode(String token, Sort sort, Class<?> entityType) {
+        for (Sort.Order order : keysetSort(sort)) {
+            Field field = ReflectionUtils.findField(entityType, order.getProperty());
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown keyset property '" + order.getProperty() + "'");
+            }
+            if (!isNonNullable(field)) {
+                throw new IllegalArgumentException("Keyset property '" + order.getProperty() + "' is nullable");
+            }
+        }
+        return decode(token, sort);
+    }
+
+    private static boolean isNonNullable(Field field) {
+        return (
+            field.getType().isPrimitive() ||
+            field.isAnnotationPresent(Id.class) ||
+            field.isAnnotationPresent(Version.class) ||
+            field.isAnnotationPresent(NotNull.class)
+        );
+    }
+
+    /**
+     * @return the opaque, URL safe representation of this cursor.
+     */
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(values.size());
+            List<Sort.Order> orders = sort.toList();
+            for (int i = 0; i < values.size(); i++) {
+                out.writeUTF(orders.get(i).getProperty());
+                out.writeBoolean(orders.get(i).isAscending());
+                writeValue(out, values.get(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * @return true, if this cursor points before the first row.
+     */
+    public boolean isFirst() {
+        return values.isEmpty();
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Instant) {
+            out.writeByte(TYPE_INSTANT);
+            out.writeLong(((Instant) value).getEpochSecond());
+            out.writeInt(((Instant) value).getNano());
+        } else {
+            throw new IllegalArgumentException("Unsupported keyset value type: " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_INTEGER:
+                return in.readInt();
+            case TYPE_STRING:
+                return in.readUTF();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_INSTANT:
+                return Instant.ofEpochSecond(in.readLong(), in.readInt());
+            default:
+                throw new IllegalArgumentException("Invalid keyset cursor");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof KeysetCursor)) {
+            return false;
+        }
+        KeysetCursor that = (KeysetCursor) o;
+        return sort.equals(that.sort) && values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sort, values);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+            "sort=" + sort +
+            ", values=" + values +
+            "}";
+    }
+}
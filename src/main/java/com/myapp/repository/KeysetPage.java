@@ -0,0 +1,61 @@
+package com.myapp.repository;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * A page of a keyset (seek) paginated result, with the cursor of the next page.
+ *
+ * @param <T> the type of the content.
+ */
+public final class KeysetPage<T> {
+
+    private final List<T> content;
+    private final KeysetCursor next;
+
+    private KeysetPage(List<T> content, KeysetCursor next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    /**
+     * Creates a page from the rows returned by a keyset select, the next cursor is only created when the page is full.
+     * @param content the rows of the page.
+     * @param pageable the requested page.
+     * @param cursorFactory creates the cursor pointing after the given row.
+     * @param <T> the type of the content.
+     * @return the page.
+     */
+    public static <T> KeysetPage<T> of(List<T> content, Pageable pageable, Function<T, KeysetCursor> cursorFactory) {
+        KeysetCursor next = content.isEmpty() || content.size() < pageable.getPageSize()
+            ? null
+            : cursorFactory.apply(content.get(content.size() - 1));
+        return new KeysetPage<>(content, next);
+    }
+
+    /**
+     * @param converter the function applied to each element.
+     * @param <R> the type of the converted content.
+     * @return a page with the converted content, and the same next cursor.
+     */
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> converter) {
+        return new KeysetPage<>(content.stream().map(converter).collect(Collectors.toList()), next);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the cursor of the next page, or {@code null} if this is the last page.
+     */
+    public KeysetCursor getNext() {
+        return next;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
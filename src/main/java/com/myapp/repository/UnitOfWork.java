@@ -0,0 +1,106 @@
+package com.myapp.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import reactor.core.publisher.Mono;
+
+/**
+ * The writes recorded during a business operation, which are sent to the database together when it completes: see
+ * {@link EntityManager#inUnitOfWork(Mono)}. The unit of work of an operation is bound to its Reactor context.
+ * <p>
+ * The entities are kept in the order of their registration, by type. A unit of work is used by a single operation, but
+ * its steps may run concurrently, so the registrations are synchronized.
+ */
+public final class UnitOfWork {
+
+    private final Map<Class<?>, List<Object>> inserts = new LinkedHashMap<>();
+    private final Map<Class<?>, List<DirtyEntity>> updates = new LinkedHashMap<>();
+    private final Map<Class<?>, List<Object>> deletes = new LinkedHashMap<>();
+    private final Map<EntityManager.LinkTable, List<Object[]>> links = new LinkedHashMap<>();
+
+    UnitOfWork() {}
+
+    /**
+     * Get the unit of work of the current operation.
+     *
+     * @return the unit of work, or an empty {@link Mono} if the operation has none.
+     */
+    public static Mono<UnitOfWork> current() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.getOrEmpty(UnitOfWork.class)));
+    }
+
+    synchronized void registerNew(Object entity) {
+        if (!isRegistered(entity)) {
+            inserts.computeIfAbsent(entity.getClass(), type -> new ArrayList<>()).add(entity);
+        }
+    }
+
+    /**
+     * Register an updated entity, unless it is already registered: the flush writes its state at that time.
+     *
+     * @return false if the entity was already registered.
+     */
+    synchronized boolean registerDirty(Object entity, Object version) {
+        if (isRegistered(entity)) {
+            return false;
+        }
+        updates.computeIfAbsent(entity.getClass(), type -> new ArrayList<>()).add(new DirtyEntity(entity, version));
+        return true;
+    }
+
+    synchronized void registerDeleted(Class<?> entityType, Object id) {
+        deletes.computeIfAbsent(entityType, type -> new ArrayList<>()).add(id);
+    }
+
+    synchronized void registerLink(EntityManager.LinkTable table, Object entityId, Object referencedId) {
+        links.computeIfAbsent(table, linkTable -> new ArrayList<>()).add(new Object[] { entityId, referencedId });
+    }
+
+    private boolean isRegistered(Object entity) {
+        return (
+            inserts.getOrDefault(entity.getClass(), List.of()).stream().anyMatch(inserted -> inserted == entity) ||
+            updates.getOrDefault(entity.getClass(), List.of()).stream().anyMatch(updated -> updated.entity == entity)
+        );
+    }
+
+    synchronized Set<Class<?>> getEntityTypes() {
+        Set<Class<?>> entityTypes = new LinkedHashSet<>(inserts.keySet());
+        entityTypes.addAll(updates.keySet());
+        entityTypes.addAll(deletes.keySet());
+        return entityTypes;
+    }
+
+    synchronized List<Object> getInserts(Class<?> entityType) {
+        return new ArrayList<>(inserts.getOrDefault(entityType, List.of()));
+    }
+
+    synchronized List<DirtyEntity> getUpdates(Class<?> entityType) {
+        return new ArrayList<>(updates.getOrDefault(entityType, List.of()));
+    }
+
+    synchronized List<Object> getDeletes(Class<?> entityType) {
+        return new ArrayList<>(deletes.getOrDefault(entityType, List.of()));
+    }
+
+    synchronized Map<EntityManager.LinkTable, List<Object[]>> getLinks() {
+        return new LinkedHashMap<>(links);
+    }
+
+    /**
+     * An updated entity, with the version it had when it was registered.
+     */
+    static final class DirtyEntity {
+
+        final Object entity;
+        final Object version;
+
+        DirtyEntity(Object entity, Object version) {
+            this.entity = entity;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.myapp.repository;
+
+import com.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Coalesces the partial updates of the same row: the patches of a row which arrive within
+ * {@code application.persistence.coalescing.window} of the first one are merged in memory, the last non-null value of
+ * each property winning, and written with a single update in its own transaction. Each caller gets the stored row once
+ * the merged update has committed, or its error. A batch is written as soon as it holds
+ * {@code application.persistence.coalescing.max-batch-size} patches.
+ * <p>
+ * Only the entities named in {@code application.persistence.coalescing.entities} (the uncapitalized simple name of
+ * their class, like {@code a}) are coalesced. The patches with a version are conditional on it, and the patches sent
+ * within a transaction must be part of it, so both are written on their own, as are all the patches of the other
+ * entities. The counter {@code repository.update.coalescing}, tagged with the entity and a result of {@code merged} or
+ * {@code written}, tells how many patches were merged into the update of another one.
+ */
+@Component
+public class UpdateCoalescer {
+
+    private final R2dbcMappingContext mappingContext;
+    private final TransactionalOperator transactionalOperator;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> entities;
+    private final Duration window;
+    private final int maxBatchSize;
+
+    private final Map<BatchKey, Batch<?>> batches = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UpdateCoalescer(
+        R2dbcMappingContext mappingContext,
+        ReactiveTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this(
+            mappingContext,
+            TransactionalOperator.create(transactionManager),
+            meterRegistry,
+            applicationProperties.getPersistence().getCoalescing()
+        );
+    }
+
+    UpdateCoalescer(
+        R2dbcMappingContext mappingContext,
+        TransactionalOperator transactionalOperator,
+        MeterRegistry meterRegistry,
+        ApplicationProperties.Coalescing coalescing
+    ) {
+        this.mappingContext = mappingContext;
+        this.transactionalOperator = transactionalOperator;
+        this.meterRegistry = meterRegistry;
+        this.entities = Set.copyOf(coalescing.getEntities());
+        this.window = coalescing.getWindow();
+        this.maxBatchSize = coalescing.getMaxBatchSize();
+    }
+
+    /**
+     * Apply a partial update, merged with the other ones of the same row when its entity is coalesced. The update joins
+     * the current transaction, or runs in a transaction of its own.
+     *
+     * @param <S> the type of the entity.
+     * @param patch the id of the row, the expected version if any, and the non-null values to write.
+     * @param update writes a patch, like {@link EntityManager#partialUpdate(Object)}.
+     * @return the updated entity, as stored, or an empty {@link Mono} if there is no row with the id.
+     */
+    public <S> Mono<S> partialUpdate(S patch, Function<S, Mono<S>> update) {
+        RelationalPersistentEntity<?> persistentEntity = mappingContext.getRequiredPersistentEntity(patch.getClass());
+        String entityName = StringUtils.uncapitalize(patch.getClass().getSimpleName());
+        Object id = persistentEntity.getPropertyAccessor(patch).getProperty(persistentEntity.getRequiredIdProperty());
+        boolean coalesced = entities.contains(entityName) && id != null && !hasVersion(persistentEntity, patch);
+        return inTransaction()
+            .flatMap(inTransaction -> {
+                if (inTransaction) {
+                    return update.apply(patch);
+                }
+                if (!coalesced) {
+                    return transactionalOperator.transactional(Mono.defer(() -> update.apply(patch)));
+                }
+                BatchKey key = new BatchKey(patch.getClass(), id);
+                return Mono.<S>create(sink -> enqueue(key, entityName, persistentEntity, patch, update, sink));
+            });
+    }
+
+    private static boolean hasVersion(RelationalPersistentEntity<?> persistentEntity, Object patch) {
+        return (
+            persistentEntity.hasVersionProperty() &&
+            persistentEntity.getPropertyAccessor(patch).getProperty(persistentEntity.getRequiredVersionProperty()) != null
+        );
+    }
+
+    private static Mono<Boolean> inTransaction() {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .map(TransactionSynchronizationManager::isActualTransactionActive)
+            .onErrorReturn(NoTransactionException.class, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S> void enqueue(
+        BatchKey key,
+        String entityName,
+        RelationalPersistentEntity<?> persistentEntity,
+        S patch,
+        Function<S, Mono<S>> update,
+        MonoSink<S> sink
+    ) {
+        // a batch which is being written takes no more patches, the patch then starts the next batch
+        while (true) {
+            Batch<S> batch = (Batch<S>) batches.computeIfAbsent(
+                key,
+                k -> {
+                    Batch<S> created = new Batch<>(key, entityName, persistentEntity, patch, update);
+                    Schedulers.parallel().schedule(() -> write(created), window.toMillis(), TimeUnit.MILLISECONDS);
+                    return created;
+                }
+            );
+            Boolean full = batch.add(patch, sink);
+            if (full != null) {
+                if (full) {
+                    write(batch);
+                }
+                return;
+            }
+        }
+    }
+
+    private <S> void write(Batch<S> batch) {
+        if (!batch.close()) {
+            return;
+        }
+        batches.remove(batch.key, batch);
+        List<MonoSink<S>> sinks = batch.sinks;
+        meterRegistry.counter("repository.update.coalescing", "entity", batch.entityName, "result", "written").increment();
+        Counter merged = meterRegistry.counter("repository.update.coalescing", "entity", batch.entityName, "result", "merged");
+        merged.increment(sinks.size() - 1);
+        transactionalOperator
+            .transactional(Mono.defer(() -> batch.update.apply(batch.merged)))
+            .subscribe(
+                stored -> sinks.forEach(sink -> sink.success(stored)),
+                error -> sinks.forEach(sink -> sink.error(error)),
+                () -> sinks.forEach(MonoSink::success)
+            );
+    }
+
+    /**
+     * The patches of a row waiting to be written, merged into the first one.
+     */
+    private final class Batch<S> {
+
+        private final BatchKey key;
+        private final String entityName;
+        private final RelationalPersistentEntity<?> persistentEntity;
+        private final S merged;
+        private final Function<S, Mono<S>> update;
+        private final List<MonoSink<S>> sinks = new ArrayList<>();
+        private boolean closed;
+
+        Batch(BatchKey key, String entityName, RelationalPersistentEntity<?> persistentEntity, S first, Function<S, Mono<S>> update) {
+            this.key = key;
+            this.entityName = entityName;
+            this.persistentEntity = persistentEntity;
+            this.merged = first;
+            this.update = update;
+        }
+
+        /**
+         * Merge a patch into the batch.
+         *
+         * @return whether the batch is now full, or null if it is closed.
+         */
+        synchronized Boolean add(S patch, MonoSink<S> sink) {
+            if (closed) {
+                return null;
+            }
+            if (patch != merged) {
+                PersistentPropertyAccessor<S> from = persistentEntity.getPropertyAccessor(patch);
+                PersistentPropertyAccessor<S> to = persistentEntity.getPropertyAccessor(merged);
+                for (RelationalPersistentProperty property : persistentEntity) {
+                    Object value = from.getProperty(property);
+                    if (value != null) {
+                        to.setProperty(property, value);
+                    }
+                }
+            }
+            sinks.add(sink);
+            return sinks.size() >= maxBatchSize;
+        }
+
+        /**
+         * @return false if the batch was already closed.
+         */
+        synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            return true;
+        }
+    }
+
+    private static final class BatchKey {
+
+        private final Class<?> entityType;
+        private final Object id;
+
+        BatchKey(Class<?> entityType, Object id) {
+            this.entityType = entityType;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BatchKey)) {
+                return false;
+            }
+            BatchKey other = (BatchKey) o;
+            return entityType.equals(other.entityType) && Objects.equals(id, other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityType, id);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.myapp.repository;
+
+/**
+ * An entity written by {@link EntityManager#upsertAll(reactor.core.publisher.Flux, String)}, which tells whether its row
+ * was inserted or updated.
+ *
+ * @param <S> the type of the entity.
+ */
+public final class UpsertResult<S> {
+
+    private final S entity;
+    private final boolean inserted;
+
+    UpsertResult(S entity, boolean inserted) {
+        this.entity = entity;
+        this.inserted = inserted;
+    }
+
+    /**
+     * @return the entity, with the id and the version of its row.
+     */
+    public S getEntity() {
+        return entity;
+    }
+
+    /**
+     * @return true if the row was inserted, false if it was updated.
+     */
+    public boolean isInserted() {
+        return inserted;
+    }
+}
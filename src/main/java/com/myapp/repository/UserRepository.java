@@ -7,13 +7,13 @@ import com.myapp.domain.Authority;
 import com.myapp.domain.User;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import org.apache.commons.beanutils.BeanComparator;
 import org.springframework.data.domain.*;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
-import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.data.relational.core.sql.Column;
@@ -31,6 +31,9 @@ import reactor.util.function.Tuples;
  */
 @Repository
 public interface UserRepository extends R2dbcRepository<User, String>, UserRepositoryInternal {
+    @Override
+    <S extends User> Mono<S> save(S user);
+
     Mono<User> findOneByLogin(String login);
 
     Flux<User> findAllByIdNotNull(Pageable pageable);
@@ -46,29 +49,62 @@ public interface UserRepository extends R2dbcRepository<User, String>, UserRepos
     Mono<Void> deleteAllUserAuthorities();
 
     @Query("DELETE FROM jhi_user_authority WHERE user_id = :userId")
-    Mono<Void> deleteUserAuthorities(Long userId);
+    Mono<Void> deleteUserAuthorities(String userId);
 }
 
 interface UserRepositoryInternal {
+    <S extends User> Mono<S> save(S user);
+
     Mono<User> findOneWithAuthoritiesByLogin(String login);
 
     Mono<User> create(User user);
 
+    Mono<Void> registerUserAuthority(String userId, String authority);
+
     Flux<User> findAllWithAuthorities(Pageable pageable);
 }
 
 class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
+    private static final EntityManager.LinkTable USER_AUTHORITY = new EntityManager.LinkTable(
+        "jhi_user_authority",
+        "user_id",
+        "authority_name"
+    );
+
     private final DatabaseClient db;
-    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final EntityManager entityManager;
     private final R2dbcConverter r2dbcConverter;
 
-    public UserRepositoryInternalImpl(DatabaseClient db, R2dbcEntityTemplate r2dbcEntityTemplate, R2dbcConverter r2dbcConverter) {
+    /**
+     * The columns of the properties the users can be sorted by.
+     */
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.ofEntries(
+        Map.entry("id", "id"),
+        Map.entry("login", "login"),
+        Map.entry("firstName", "first_name"),
+        Map.entry("lastName", "last_name"),
+        Map.entry("email", "email"),
+        Map.entry("imageUrl", "image_url"),
+        Map.entry("activated", "activated"),
+        Map.entry("langKey", "lang_key"),
+        Map.entry("createdBy", "created_by"),
+        Map.entry("createdDate", "created_date"),
+        Map.entry("lastModifiedBy", "last_modified_by"),
+        Map.entry("lastModifiedDate", "last_modified_date")
+    );
+
+    public UserRepositoryInternalImpl(DatabaseClient db, EntityManager entityManager, R2dbcConverter r2dbcConverter) {
         this.db = db;
-        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.entityManager = entityManager;
         this.r2dbcConverter = r2dbcConverter;
     }
 
+    @Override
+    public <S extends User> Mono<S> save(S user) {
+        return entityManager.save(user);
+    }
+
     @Override
     public Mono<User> findOneWithAuthoritiesByLogin(String login) {
         return findOneWithAuthoritiesBy("login", login);
@@ -76,33 +112,57 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
     @Override
     public Flux<User> findAllWithAuthorities(Pageable pageable) {
-        String property = pageable.getSort().stream().map(Sort.Order::getProperty).findFirst().orElse("id");
-        String direction = String.valueOf(
-            pageable.getSort().stream().map(Sort.Order::getDirection).findFirst().orElse(Sort.DEFAULT_DIRECTION)
-        );
-        long page = pageable.getPageNumber();
-        long size = pageable.getPageSize();
+        List<String> orderBy = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            String column = SORTABLE_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                return Flux.error(new IllegalArgumentException("The users cannot be sorted by " + order.getProperty()));
+            }
+            orderBy.add("u." + column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        if (pageable.getSort().getOrderFor("id") == null) {
+            // the id makes the order total, so the pages do not overlap
+            orderBy.add("u.id ASC");
+        }
+        StringBuilder sql = new StringBuilder("SELECT * FROM jhi_user u ORDER BY ").append(String.join(", ", orderBy));
+        if (pageable.isUnpaged()) {
+            return findAllWithAuthorities(db.sql(sql.toString()));
+        }
+        sql.append(" LIMIT :limit OFFSET :offset");
+        return findAllWithAuthorities(db.sql(sql.toString()).bind("limit", pageable.getPageSize()).bind("offset", pageable.getOffset()));
+    }
 
+    private Flux<User> findAllWithAuthorities(DatabaseClient.GenericExecuteSpec select) {
+        return select
+            .map((row, metadata) -> r2dbcConverter.read(User.class, row, metadata))
+            .all()
+            .collectList()
+            .flatMapMany(users -> users.isEmpty() ? Flux.empty() : findAuthorities(users).thenMany(Flux.fromIterable(users)));
+    }
+
+    private Mono<Void> findAuthorities(List<User> users) {
+        Map<String, User> usersById = users.stream().collect(Collectors.toMap(User::getId, Function.identity()));
         return db
-            .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id")
-            .map((row, metadata) ->
-                Tuples.of(r2dbcConverter.read(User.class, row, metadata), Optional.ofNullable(row.get("authority_name", String.class)))
-            )
+            .sql("SELECT user_id, authority_name FROM jhi_user_authority WHERE user_id IN (:userIds)")
+            .bind("userIds", usersById.keySet())
+            .map((row, metadata) -> Tuples.of(row.get("user_id", String.class), row.get("authority_name", String.class)))
             .all()
-            .groupBy(t -> t.getT1().getLogin())
-            .flatMap(l -> l.collectList().map(t -> updateUserWithAuthorities(t.get(0).getT1(), t)))
-            .sort(
-                Sort.Direction.fromString(direction) == Sort.DEFAULT_DIRECTION
-                    ? new BeanComparator<>(property)
-                    : new BeanComparator<>(property).reversed()
-            )
-            .skip(page * size)
-            .take(size);
+            .doOnNext(t -> {
+                Authority authority = new Authority();
+                authority.setName(t.getT2());
+                usersById.get(t.getT1()).getAuthorities().add(authority);
+            })
+            .then();
     }
 
     @Override
     public Mono<User> create(User user) {
-        return r2dbcEntityTemplate.insert(User.class).using(user).defaultIfEmpty(user);
+        return entityManager.registerNew(user);
+    }
+
+    @Override
+    public Mono<Void> registerUserAuthority(String userId, String authority) {
+        return entityManager.registerLink(USER_AUTHORITY, userId, authority);
     }
 
     private Mono<User> findOneWithAuthoritiesBy(String fieldName, Object fieldValue) {
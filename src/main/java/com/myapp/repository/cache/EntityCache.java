@@ -0,0 +1,227 @@
+package com.myapp.repository.cache;
+
+import com.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the entities the services read by id, up to {@code application.persistence.cache.max-size} entities of each
+ * type, the least recently read ones being evicted first, and for {@code application.persistence.cache.ttl}.
+ * <p>
+ * The cache holds the loads rather than the entities: the reads of an entity which is being loaded wait for the same
+ * query. A load which finds no entity, or fails, is not kept. The writes through the services invalidate the entities
+ * right away, and again when their transaction completes, so a load which read the row before the commit is not kept.
+ * The reads of a read-write transaction bypass the cache, as they may see its uncommitted writes.
+ * <p>
+ * The cache of each type is measured by the counters {@code repository.cache.gets}, tagged with the result, hit or
+ * miss, and {@code repository.cache.evictions}, tagged with the cause, size, expired or invalidated, the timer
+ * {@code repository.cache.load} and the gauge {@code repository.cache.size}, all tagged with the entity name.
+ */
+@Component
+public class EntityCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoTime;
+
+    private final Map<Class<?>, TypeCache> caches = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EntityCache(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this(applicationProperties.getPersistence().getCache(), meterRegistry, System::nanoTime);
+    }
+
+    EntityCache(ApplicationProperties.Cache cache, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.maxSize = cache.getMaxSize();
+        this.ttlNanos = cache.getTtl().toNanos();
+        this.meterRegistry = meterRegistry;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Get an entity by id from the cache, or else from the loader.
+     *
+     * @param <T> the type of the entity.
+     * @param entityType the type of the entity.
+     * @param id the id of the entity.
+     * @param loader the query of the entity.
+     * @return the entity, or an empty {@link Mono} if it does not exist.
+     */
+    public <T> Mono<T> get(Class<?> entityType, Object id, Supplier<Mono<T>> loader) {
+        if (maxSize <= 0) {
+            return Mono.defer(loader);
+        }
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .map(synchronizationManager ->
+                synchronizationManager.isActualTransactionActive() && !synchronizationManager.isCurrentTransactionReadOnly()
+            )
+            .onErrorReturn(NoTransactionException.class, false)
+            .flatMap(readWrite -> readWrite ? loader.get() : getCache(entityType).get(id, loader));
+    }
+
+    /**
+     * Invalidate an entity, after it was written.
+     *
+     * @param entityType the type of the entity.
+     * @param id the id of the entity.
+     * @return a {@link Mono} completing once the entity is invalidated, and its invalidation registered with the
+     * current transaction, if any.
+     */
+    public Mono<Void> evict(Class<?> entityType, Object id) {
+        return invalidate(() -> getCache(entityType).evict(id));
+    }
+
+    /**
+     * Invalidate all the entities of a type, after a write of an unknown set of them.
+     *
+     * @param entityType the type of the entities.
+     * @return a {@link Mono} completing once the entities are invalidated, and their invalidation registered with the
+     * current transaction, if any.
+     */
+    public Mono<Void> evictAll(Class<?> entityType) {
+        return invalidate(() -> getCache(entityType).evictAll());
+    }
+
+    private Mono<Void> invalidate(Runnable invalidation) {
+        if (maxSize <= 0) {
+            return Mono.empty();
+        }
+        return Mono
+            .fromRunnable(invalidation)
+            .then(TransactionSynchronizationManager.forCurrentTransaction())
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(synchronizationManager ->
+                synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCompletion(int status) {
+                            return Mono.fromRunnable(invalidation);
+                        }
+                    }
+                )
+            )
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .then();
+    }
+
+    private TypeCache getCache(Class<?> entityType) {
+        return caches.computeIfAbsent(entityType, TypeCache::new);
+    }
+
+    private final class TypeCache {
+
+        private final Map<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() > maxSize) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        private final Counter hits;
+        private final Counter misses;
+        private final Counter sizeEvictions;
+        private final Counter expirations;
+        private final Counter invalidations;
+        private final Timer loads;
+
+        TypeCache(Class<?> entityType) {
+            String entity = StringUtils.uncapitalize(entityType.getSimpleName());
+            this.hits = meterRegistry.counter("repository.cache.gets", "entity", entity, "result", "hit");
+            this.misses = meterRegistry.counter("repository.cache.gets", "entity", entity, "result", "miss");
+            this.sizeEvictions = meterRegistry.counter("repository.cache.evictions", "entity", entity, "cause", "size");
+            this.expirations = meterRegistry.counter("repository.cache.evictions", "entity", entity, "cause", "expired");
+            this.invalidations = meterRegistry.counter("repository.cache.evictions", "entity", entity, "cause", "invalidated");
+            this.loads = meterRegistry.timer("repository.cache.load", "entity", entity);
+            Gauge.builder("repository.cache.size", this, TypeCache::size).tag("entity", entity).register(meterRegistry);
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> Mono<T> get(Object id, Supplier<Mono<T>> loader) {
+            long now = nanoTime.getAsLong();
+            Entry entry;
+            synchronized (this) {
+                entry = entries.get(id);
+                if (entry != null && now - entry.created >= ttlNanos) {
+                    entries.remove(id);
+                    expirations.increment();
+                    entry = null;
+                }
+                if (entry != null) {
+                    hits.increment();
+                    return (Mono<T>) entry.value;
+                }
+                // the load is only subscribed to by the callers
+                entry = new Entry(now);
+                entry.value = load(id, entry, loader);
+                entries.put(id, entry);
+            }
+            misses.increment();
+            return (Mono<T>) entry.value;
+        }
+
+        private <T> Mono<T> load(Object id, Entry entry, Supplier<Mono<T>> loader) {
+            return Mono
+                .defer(() -> {
+                    long start = nanoTime.getAsLong();
+                    return loader.get().doOnTerminate(() -> loads.record(nanoTime.getAsLong() - start, TimeUnit.NANOSECONDS));
+                })
+                .doOnSuccess(entity -> {
+                    if (entity == null) {
+                        remove(id, entry);
+                    }
+                })
+                .doOnError(e -> remove(id, entry))
+                .cache();
+        }
+
+        private synchronized void remove(Object id, Entry entry) {
+            entries.remove(id, entry);
+        }
+
+        synchronized void evict(Object id) {
+            if (entries.remove(id) != null) {
+                invalidations.increment();
+            }
+        }
+
+        synchronized void evictAll() {
+            invalidations.increment(entries.size());
+            entries.clear();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    private static final class Entry {
+
+        private final long created;
+        private Mono<?> value;
+
+        Entry(long created) {
+            this.created = created;
+        }
+    }
+}
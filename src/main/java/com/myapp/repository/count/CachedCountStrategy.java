@@ -0,0 +1,70 @@
+package com.myapp.repository.count;
+
+import com.myapp.config.ApplicationProperties;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the exact count of each entity type for {@code application.persistence.count.cache-ttl}, or until entities of
+ * the type are created or deleted through the services.
+ * <p>
+ * Every invalidation starts a new generation of the type, a count is only used while its generation is current, so a
+ * count which was running during a write is never kept. The {@link EntityCounter} invalidates the type again when the
+ * transaction of the write completes, so a count which ran between the write and its commit is not kept either.
+ */
+@Component
+public class CachedCountStrategy implements CountStrategy {
+
+    public static final String NAME = "cached";
+
+    private final long ttlNanos;
+
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<Class<?>, CachedCount> counts = new ConcurrentHashMap<>();
+
+    public CachedCountStrategy(ApplicationProperties applicationProperties) {
+        this.ttlNanos = applicationProperties.getPersistence().getCount().getCacheTtl().toNanos();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Mono<Long> count(Class<?> entityType, Mono<Long> exactCount) {
+        return Mono.defer(() -> {
+            long generation = getGeneration(entityType).get();
+            CachedCount cached = counts.get(entityType);
+            if (cached != null && cached.generation == generation && System.nanoTime() - cached.time < ttlNanos) {
+                return Mono.just(cached.count);
+            }
+            return exactCount.doOnNext(count -> counts.put(entityType, new CachedCount(count, generation, System.nanoTime())));
+        });
+    }
+
+    @Override
+    public void invalidate(Class<?> entityType) {
+        getGeneration(entityType).incrementAndGet();
+    }
+
+    private AtomicLong getGeneration(Class<?> entityType) {
+        return generations.computeIfAbsent(entityType, type -> new AtomicLong());
+    }
+
+    private static final class CachedCount {
+
+        private final long count;
+        private final long generation;
+        private final long time;
+
+        CachedCount(long count, long generation, long time) {
+            this.count = count;
+            this.generation = generation;
+            this.time = time;
+        }
+    }
+}
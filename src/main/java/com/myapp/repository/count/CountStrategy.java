@@ -0,0 +1,32 @@
+package com.myapp.repository.count;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts the entities of a type, for the total of the paginated lists.
+ * <p>
+ * The strategies are Spring beans, the one of each entity is chosen by its name with
+ * {@code application.persistence.count}, see {@link EntityCounter}.
+ */
+public interface CountStrategy {
+    /**
+     * @return the name of the strategy in the configuration.
+     */
+    String getName();
+
+    /**
+     * Count the entities of the given type.
+     *
+     * @param entityType the type of the counted entities.
+     * @param exactCount the exact count of the repository, which is subscribed to only if the strategy needs it.
+     * @return the number of entities, or an empty {@link Mono} if it is unknown.
+     */
+    Mono<Long> count(Class<?> entityType, Mono<Long> exactCount);
+
+    /**
+     * Called when entities of the given type are created or deleted through the services.
+     *
+     * @param entityType the type of the written entities.
+     */
+    default void invalidate(Class<?> entityType) {}
+}
@@ -0,0 +1,35 @@
+package com.myapp.repository.count;
+
+import com.myapp.config.ApplicationProperties;
+import java.time.Duration;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs the exact count, but gives up after {@code application.persistence.count.deadline}: the list is then sent
+ * without its total, and only with the link to the next page.
+ * <p>
+ * The services count without a transaction of their own, as the commit of a transaction would wait for the abandoned
+ * count to finish on its connection.
+ */
+@Component
+public class DeadlineCountStrategy implements CountStrategy {
+
+    public static final String NAME = "deadline";
+
+    private final Duration deadline;
+
+    public DeadlineCountStrategy(ApplicationProperties applicationProperties) {
+        this.deadline = applicationProperties.getPersistence().getCount().getDeadline();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Mono<Long> count(Class<?> entityType, Mono<Long> exactCount) {
+        return exactCount.timeout(deadline, Mono.empty());
+    }
+}
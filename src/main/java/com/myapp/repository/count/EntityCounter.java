@@ -0,0 +1,88 @@
+package com.myapp.repository.count;
+
+import com.myapp.config.ApplicationProperties;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts the entities with the {@link CountStrategy} configured for their type: the one named in
+ * {@code application.persistence.count.entities} by the entity name (the uncapitalized simple name of its class, like
+ * {@code a} or {@code user}), or else {@code application.persistence.count.strategy}.
+ */
+@Component
+public class EntityCounter {
+
+    private final Map<String, CountStrategy> strategies = new HashMap<>();
+    private final CountStrategy defaultStrategy;
+    private final Map<String, CountStrategy> entityStrategies = new HashMap<>();
+
+    public EntityCounter(List<CountStrategy> strategies, ApplicationProperties applicationProperties) {
+        for (CountStrategy strategy : strategies) {
+            this.strategies.put(strategy.getName(), strategy);
+        }
+        ApplicationProperties.Count count = applicationProperties.getPersistence().getCount();
+        this.defaultStrategy = getStrategy(count.getStrategy());
+        for (Entry<String, String> entity : count.getEntities().entrySet()) {
+            this.entityStrategies.put(entity.getKey(), getStrategy(entity.getValue()));
+        }
+    }
+
+    private CountStrategy getStrategy(String name) {
+        CountStrategy strategy = strategies.get(name);
+        if (strategy == null) {
+            throw new IllegalStateException("Unknown count strategy " + name + ", the strategies are " + strategies.keySet());
+        }
+        return strategy;
+    }
+
+    /**
+     * Count the entities of the given type.
+     *
+     * @param entityType the type of the counted entities.
+     * @param exactCount the exact count of the repository.
+     * @return the number of entities, or an empty {@link Mono} if the strategy of the entity gave up.
+     */
+    public Mono<Long> count(Class<?> entityType, Mono<Long> exactCount) {
+        return getStrategy(entityType).count(entityType, exactCount);
+    }
+
+    /**
+     * Invalidate the count of the given type, after entities were created or deleted: right away, and again when the
+     * current transaction completes, so that a count which ran before the commit is not kept.
+     *
+     * @param entityType the type of the written entities.
+     * @return a {@link Mono} completing once the count is invalidated, and its invalidation registered with the current
+     * transaction, if any.
+     */
+    public Mono<Void> invalidate(Class<?> entityType) {
+        CountStrategy strategy = getStrategy(entityType);
+        return Mono
+            .fromRunnable(() -> strategy.invalidate(entityType))
+            .then(TransactionSynchronizationManager.forCurrentTransaction())
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(synchronizationManager ->
+                synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCompletion(int status) {
+                            return Mono.fromRunnable(() -> strategy.invalidate(entityType));
+                        }
+                    }
+                )
+            )
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .then();
+    }
+
+    private CountStrategy getStrategy(Class<?> entityType) {
+        return entityStrategies.getOrDefault(StringUtils.uncapitalize(entityType.getSimpleName()), defaultStrategy);
+    }
+}
@@ -0,0 +1,54 @@
+package com.myapp.repository.count;
+
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads the number of rows estimated by the PostgreSQL statistics ({@code pg_class.reltuples}), which is maintained
+ * by {@code VACUUM} and {@code ANALYZE}, instead of scanning the table.
+ * <p>
+ * The exact count is used on the other databases, and on the tables which were never analyzed.
+ */
+@Component
+public class EstimatedCountStrategy implements CountStrategy {
+
+    public static final String NAME = "estimated";
+
+    private final DatabaseClient db;
+    private final R2dbcDialect dialect;
+    private final R2dbcMappingContext mappingContext;
+
+    public EstimatedCountStrategy(R2dbcEntityTemplate template, R2dbcDialect dialect) {
+        this.db = template.getDatabaseClient();
+        this.dialect = dialect;
+        this.mappingContext = (R2dbcMappingContext) template.getConverter().getMappingContext();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Mono<Long> count(Class<?> entityType, Mono<Long> exactCount) {
+        // the H2 dialect extends the PostgreSQL one
+        if (!(dialect instanceof PostgresDialect) || dialect instanceof H2Dialect) {
+            return exactCount;
+        }
+        String table = mappingContext.getRequiredPersistentEntity(entityType).getTableName().toSql(dialect.getIdentifierProcessing());
+        return db
+            .sql("SELECT reltuples::bigint AS estimate FROM pg_class WHERE oid = to_regclass(:table)")
+            .bind("table", table)
+            .map(row -> row.get("estimate", Long.class))
+            .one()
+            // a table which was never analyzed has no estimate
+            .filter(estimate -> estimate >= 0)
+            .switchIfEmpty(exactCount);
+    }
+}
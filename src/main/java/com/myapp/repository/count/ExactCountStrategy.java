@@ -0,0 +1,23 @@
+package com.myapp.repository.count;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs the exact {@code COUNT(*)} of the repository on every request.
+ */
+@Component
+public class ExactCountStrategy implements CountStrategy {
+
+    public static final String NAME = "exact";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Mono<Long> count(Class<?> entityType, Mono<Long> exactCount) {
+        return exactCount;
+    }
+}
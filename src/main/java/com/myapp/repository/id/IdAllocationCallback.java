@@ -0,0 +1,25 @@
+package com.myapp.repository.id;
+
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets the ids of the entities inserted by the {@link org.springframework.data.r2dbc.core.R2dbcEntityTemplate}, from
+ * the {@link PooledIdAllocator}.
+ */
+@Component
+public class IdAllocationCallback implements BeforeConvertCallback<Object> {
+
+    private final PooledIdAllocator idAllocator;
+
+    public IdAllocationCallback(PooledIdAllocator idAllocator) {
+        this.idAllocator = idAllocator;
+    }
+
+    @Override
+    public Publisher<Object> onBeforeConvert(Object entity, SqlIdentifier table) {
+        return idAllocator.assignId(entity);
+    }
+}
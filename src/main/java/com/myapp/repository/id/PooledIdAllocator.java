@@ -0,0 +1,225 @@
+package com.myapp.repository.id;
+
+import com.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Allocates the ids of the entities from the sequence of their table, named like {@code a_seq}, a block at a time: a
+ * value of the sequence reserves itself and the following ids, up to {@code application.persistence.id-block-size}
+ * which is the increment of the sequence, and they are handed out from memory. The entities get their ids before they
+ * are inserted, so the children can refer to their parents, and the rows of a batch need no generated keys.
+ * <p>
+ * The ids are taken from the current block with an atomic increment. The caller which finds it exhausted starts the
+ * refill, the others wait for the same refill instead of reading the sequence too. A refill is recorded by the timer
+ * {@code repository.id.block.refill}, tagged with the sequence.
+ * <p>
+ * The entities whose table has no such sequence, or whose id is not a {@link Long}, are left as they are. A sequence
+ * whose increment is not the block size is rejected, as its blocks would overlap: the sequences of the entities are
+ * checked when the application starts, which then fails.
+ */
+@Component
+public class PooledIdAllocator {
+
+    // the infinite time to live of Mono.cache
+    private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+    private final R2dbcMappingContext mappingContext;
+    private final Function<String, Mono<Long>> nextValue;
+    private final Function<String, Mono<Long>> sequenceIncrement;
+    private final MeterRegistry meterRegistry;
+    private final int blockSize;
+
+    private final Map<String, Mono<Pool>> pools = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PooledIdAllocator(
+        DatabaseClient databaseClient,
+        R2dbcMappingContext mappingContext,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this(
+            mappingContext,
+            sequence -> databaseClient.sql("SELECT nextval('" + sequence + "')").map(row -> row.get(0, Long.class)).one(),
+            sequence ->
+                databaseClient
+                    .sql("SELECT CAST(increment AS BIGINT) FROM information_schema.sequences WHERE LOWER(sequence_name) = :sequence")
+                    .bind("sequence", sequence)
+                    .map(row -> row.get(0, Long.class))
+                    .first(),
+            meterRegistry,
+            applicationProperties.getPersistence().getIdBlockSize()
+        );
+    }
+
+    PooledIdAllocator(
+        R2dbcMappingContext mappingContext,
+        Function<String, Mono<Long>> nextValue,
+        Function<String, Mono<Long>> sequenceIncrement,
+        MeterRegistry meterRegistry,
+        int blockSize
+    ) {
+        this.mappingContext = mappingContext;
+        this.nextValue = nextValue;
+        this.sequenceIncrement = sequenceIncrement;
+        this.meterRegistry = meterRegistry;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Set the id of the given entity from the sequence of its table, if it has none.
+     *
+     * @param <T> the type of the entity.
+     * @param entity the entity.
+     * @return the entity.
+     */
+    public <T> Mono<T> assignId(T entity) {
+        RelationalPersistentEntity<?> persistentEntity = mappingContext.getRequiredPersistentEntity(entity.getClass());
+        RelationalPersistentProperty idProperty = persistentEntity.getIdProperty();
+        if (idProperty == null || !Long.class.equals(idProperty.getType())) {
+            return Mono.just(entity);
+        }
+        PersistentPropertyAccessor<T> accessor = persistentEntity.getPropertyAccessor(entity);
+        if (accessor.getProperty(idProperty) != null) {
+            return Mono.just(entity);
+        }
+        return getPool(persistentEntity.getTableName().getReference() + "_seq")
+            .flatMap(Pool::nextId)
+            .map(id -> {
+                accessor.setProperty(idProperty, id);
+                return accessor.getBean();
+            })
+            .defaultIfEmpty(entity);
+    }
+
+    /**
+     * Get the next id of the given sequence.
+     *
+     * @param sequence the name of the sequence.
+     * @return the id, or an empty {@link Mono} if there is no such sequence.
+     */
+    public Mono<Long> nextId(String sequence) {
+        return getPool(sequence).flatMap(Pool::nextId);
+    }
+
+    /**
+     * Check the increments of the sequences of the entities, when the application is ready.
+     *
+     * @throws IllegalStateException if a sequence is not incremented by the block size.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkSequences() {
+        Flux
+            .fromIterable(mappingContext.getPersistentEntities())
+            .filter(persistentEntity -> persistentEntity.getIdProperty() != null)
+            .filter(persistentEntity -> Long.class.equals(persistentEntity.getRequiredIdProperty().getType()))
+            .concatMap(persistentEntity -> getPool(persistentEntity.getTableName().getReference() + "_seq"))
+            .blockLast();
+    }
+
+    private Mono<Pool> getPool(String sequence) {
+        Mono<Pool> pool = pools.get(sequence);
+        if (pool == null) {
+            // an error is not kept, the next call looks the sequence up again
+            pool =
+                pools.computeIfAbsent(
+                    sequence,
+                    name ->
+                        sequenceIncrement
+                            .apply(name)
+                            .map(increment -> {
+                                if (increment != blockSize) {
+                                    throw new IllegalStateException(
+                                        "The sequence " + name + " is incremented by " + increment +
+                                        ", which must be application.persistence.id-block-size: " + blockSize
+                                    );
+                                }
+                                return new Pool(name);
+                            })
+                            .cache(found -> FOREVER, error -> Duration.ZERO, () -> FOREVER)
+                );
+        }
+        return pool;
+    }
+
+    private final class Pool {
+
+        private final String sequence;
+        private final Timer refills;
+        private final AtomicReference<Block> block = new AtomicReference<>(new Block(0, 0));
+        private final AtomicReference<Mono<Void>> refill = new AtomicReference<>();
+
+        Pool(String sequence) {
+            this.sequence = sequence;
+            this.refills = meterRegistry.timer("repository.id.block.refill", "sequence", sequence);
+        }
+
+        Mono<Long> nextId() {
+            return Mono.defer(() -> {
+                Block current = block.get();
+                long id = current.next.getAndIncrement();
+                if (id < current.end) {
+                    return Mono.just(id);
+                }
+                return refill(current).then(nextId());
+            });
+        }
+
+        private Mono<Void> refill(Block exhausted) {
+            Mono<Void> running = refill.get();
+            if (running != null) {
+                return running;
+            }
+            Mono<Void> next = nextValue
+                .apply(sequence)
+                .elapsed()
+                .doOnNext(value -> {
+                    refills.record(value.getT1(), TimeUnit.MILLISECONDS);
+                    block.compareAndSet(exhausted, new Block(value.getT2(), value.getT2() + blockSize));
+                })
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("The sequence " + sequence + " returned no value")))
+                .doOnTerminate(() -> refill.set(null))
+                .then()
+                .cache();
+            // the callers which do not start the refill retry, with the refill of the winner or with its block
+            if (!refill.compareAndSet(null, next)) {
+                return Mono.empty();
+            }
+            if (block.get() != exhausted) {
+                refill.set(null);
+                return Mono.empty();
+            }
+            return next;
+        }
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long end;
+
+        Block(long first, long end) {
+            this.next = new AtomicLong(first);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.myapp.repository.pool;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import reactor.pool.AllocationStrategy;
+
+/**
+ * Sizes a connection pool between a minimum and a maximum from the time its callers wait for a connection. The pool
+ * may open connections up to a limit, which starts at the minimum: each acquire which waits longer than the target
+ * raises it by one, up to the maximum, and it is lowered by one, down to the minimum, every resize interval without such
+ * an acquire. The connections above a lowered limit are closed by the eviction of the idle connections.
+ */
+public class AdaptiveAllocationStrategy implements AllocationStrategy {
+
+    private final int min;
+    private final int max;
+    private final long targetAcquireWait;
+    private final long resizeInterval;
+    private final LongSupplier nanoTime;
+
+    private final AtomicInteger granted = new AtomicInteger();
+    private final AtomicInteger limit;
+    private final AtomicLong lastResize;
+
+    /**
+     * @param min the number of connections which are always allowed, and opened by the warmup.
+     * @param max the maximum number of connections.
+     * @param targetAcquireWait the wait above which the pool grows.
+     * @param resizeInterval the interval without long waits after which the pool shrinks.
+     */
+    public AdaptiveAllocationStrategy(int min, int max, Duration targetAcquireWait, Duration resizeInterval) {
+        this(min, max, targetAcquireWait, resizeInterval, System::nanoTime);
+    }
+
+    AdaptiveAllocationStrategy(int min, int max, Duration targetAcquireWait, Duration resizeInterval, LongSupplier nanoTime) {
+        if (min < 0 || max < Math.max(min, 1)) {
+            throw new IllegalArgumentException("The pool size must be between " + min + " and " + max);
+        }
+        this.min = min;
+        this.max = max;
+        this.targetAcquireWait = targetAcquireWait.toNanos();
+        this.resizeInterval = resizeInterval.toNanos();
+        this.nanoTime = nanoTime;
+        this.limit = new AtomicInteger(Math.max(min, 1));
+        this.lastResize = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    /**
+     * Record the time a caller waited for a connection, resizing the pool if needed.
+     *
+     * @param nanos the wait, in nanoseconds.
+     */
+    public void recordAcquireWait(long nanos) {
+        long now = nanoTime.getAsLong();
+        if (nanos > targetAcquireWait) {
+            if (limit.getAndUpdate(current -> Math.min(max, current + 1)) < max) {
+                lastResize.set(now);
+            }
+            return;
+        }
+        long last = lastResize.get();
+        if (now - last >= resizeInterval && limit.get() > min && lastResize.compareAndSet(last, now)) {
+            limit.updateAndGet(current -> Math.max(Math.max(min, 1), current - 1));
+        }
+    }
+
+    /**
+     * @return the number of connections the pool may currently open.
+     */
+    public int getLimit() {
+        return limit.get();
+    }
+
+    @Override
+    public int getPermits(int desired) {
+        if (desired < 0) {
+            return 0;
+        }
+        while (true) {
+            int current = granted.get();
+            // the minimum is granted at once, like the warmup expects
+            int permits = Math.min(Math.max(desired, min - current), limit.get() - current);
+            if (permits <= 0) {
+                return 0;
+            }
+            if (granted.compareAndSet(current, current + permits)) {
+                return permits;
+            }
+        }
+    }
+
+    @Override
+    public void returnPermits(int returned) {
+        if (granted.addAndGet(-returned) < 0) {
+            granted.addAndGet(returned);
+            throw new IllegalArgumentException("Too many permits returned: " + returned);
+        }
+    }
+
+    @Override
+    public int estimatePermitCount() {
+        return Math.max(0, limit.get() - granted.get());
+    }
+
+    @Override
+    public int permitGranted() {
+        return granted.get();
+    }
+
+    @Override
+    public int permitMinimum() {
+        return min;
+    }
+
+    @Override
+    public int permitMaximum() {
+        return max;
+    }
+}
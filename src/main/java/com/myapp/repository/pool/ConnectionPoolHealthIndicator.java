@@ -0,0 +1,140 @@
+package com.myapp.repository.pool;
+
+import io.r2dbc.pool.PoolMetrics;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.actuate.health.AbstractReactiveHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reports the connectivity and the use of the connection pools. A connection of each pool is validated against the
+ * database: the health is {@code DOWN} when one is not valid within the timeout. A pool is saturated when more callers
+ * than the threshold wait for a connection: its connection is not validated, as it would only wait with them, and the
+ * health is {@code OUT_OF_SERVICE}. Either takes the instance out of the readiness group.
+ */
+public class ConnectionPoolHealthIndicator extends AbstractReactiveHealthIndicator {
+
+    private final List<InstrumentedConnectionPool> connectionPools;
+    private final int saturationPendingAcquires;
+    private final Duration validationTimeout;
+
+    /**
+     * @param connectionPools the connection pools.
+     * @param saturationPendingAcquires the number of pending acquires above which a pool is saturated.
+     * @param validationTimeout how long the validation of a connection may take.
+     */
+    public ConnectionPoolHealthIndicator(
+        List<InstrumentedConnectionPool> connectionPools,
+        int saturationPendingAcquires,
+        Duration validationTimeout
+    ) {
+        super("Connection pool health check failed");
+        this.connectionPools = connectionPools;
+        this.saturationPendingAcquires = saturationPendingAcquires;
+        this.validationTimeout = validationTimeout;
+    }
+
+    @Override
+    protected Mono<Health> doHealthCheck(Health.Builder builder) {
+        return Flux
+            .fromIterable(connectionPools)
+            .concatMap(this::poolHealth)
+            .collectList()
+            .map(poolHealths -> {
+                Status status = Status.UP;
+                for (int i = 0; i < poolHealths.size(); i++) {
+                    PoolHealth poolHealth = poolHealths.get(i);
+                    builder.withDetail(connectionPools.get(i).getName(), poolHealth);
+                    if (Boolean.FALSE.equals(poolHealth.getValid())) {
+                        status = Status.DOWN;
+                    } else if (poolHealth.isSaturated() && status == Status.UP) {
+                        status = Status.OUT_OF_SERVICE;
+                    }
+                }
+                return builder.status(status).build();
+            });
+    }
+
+    private Mono<PoolHealth> poolHealth(InstrumentedConnectionPool connectionPool) {
+        PoolMetrics metrics = connectionPool.getMetrics();
+        if (metrics.pendingAcquireSize() > saturationPendingAcquires) {
+            return Mono.just(poolHealth(connectionPool, metrics, true, null));
+        }
+        return connectionPool
+            .validate()
+            .timeout(validationTimeout)
+            .onErrorReturn(false)
+            .defaultIfEmpty(false)
+            .map(valid -> poolHealth(connectionPool, metrics, false, valid));
+    }
+
+    private static PoolHealth poolHealth(InstrumentedConnectionPool connectionPool, PoolMetrics metrics, boolean saturated, Boolean valid) {
+        return new PoolHealth(
+            metrics.acquiredSize(),
+            metrics.idleSize(),
+            metrics.pendingAcquireSize(),
+            connectionPool.getLimit(),
+            metrics.getMaxAllocatedSize(),
+            saturated,
+            valid
+        );
+    }
+
+    /**
+     * The details of a pool.
+     */
+    public static final class PoolHealth {
+
+        private final int acquired;
+        private final int idle;
+        private final int pending;
+        private final int limit;
+        private final int maxSize;
+        private final boolean saturated;
+        private final Boolean valid;
+
+        PoolHealth(int acquired, int idle, int pending, int limit, int maxSize, boolean saturated, Boolean valid) {
+            this.acquired = acquired;
+            this.idle = idle;
+            this.pending = pending;
+            this.limit = limit;
+            this.maxSize = maxSize;
+            this.saturated = saturated;
+            this.valid = valid;
+        }
+
+        public int getAcquired() {
+            return acquired;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getPending() {
+            return pending;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public boolean isSaturated() {
+            return saturated;
+        }
+
+        /**
+         * @return whether a connection of the pool is valid, {@code null} when the pool is saturated and not validated.
+         */
+        public Boolean getValid() {
+            return valid;
+        }
+    }
+}
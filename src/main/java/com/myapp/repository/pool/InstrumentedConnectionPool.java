@@ -0,0 +1,137 @@
+package com.myapp.repository.pool;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ValidationDepth;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * A connection pool sized by an {@link AdaptiveAllocationStrategy}, whose acquires are timed.
+ * <p>
+ * The pool is measured by the timer {@code repository.pool.acquire}, and by the gauges {@code repository.pool.acquired},
+ * {@code repository.pool.idle}, {@code repository.pool.allocated}, {@code repository.pool.pending} and
+ * {@code repository.pool.limit}, the current size limit, all tagged with the name of the pool.
+ */
+public class InstrumentedConnectionPool implements ConnectionFactory, Disposable {
+
+    private final String name;
+    private final ConnectionPool connectionPool;
+    private final AdaptiveAllocationStrategy allocationStrategy;
+    private final Timer acquires;
+
+    /**
+     * @param name the name of the pool, like {@code primary}.
+     * @param connectionPool the pool, built with the allocation strategy.
+     * @param allocationStrategy the allocation strategy, which gets the acquire times.
+     * @param meterRegistry the registry of the meters of the pool.
+     */
+    public InstrumentedConnectionPool(
+        String name,
+        ConnectionPool connectionPool,
+        AdaptiveAllocationStrategy allocationStrategy,
+        MeterRegistry meterRegistry
+    ) {
+        this.name = name;
+        this.connectionPool = connectionPool;
+        this.allocationStrategy = allocationStrategy;
+        this.acquires = meterRegistry.timer("repository.pool.acquire", "pool", name);
+        gauge(meterRegistry, "repository.pool.acquired", PoolMetrics::acquiredSize);
+        gauge(meterRegistry, "repository.pool.idle", PoolMetrics::idleSize);
+        gauge(meterRegistry, "repository.pool.allocated", PoolMetrics::allocatedSize);
+        gauge(meterRegistry, "repository.pool.pending", PoolMetrics::pendingAcquireSize);
+        Gauge
+            .builder("repository.pool.limit", allocationStrategy, AdaptiveAllocationStrategy::getLimit)
+            .tag("pool", name)
+            .register(meterRegistry);
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String meterName, ToIntFunction<PoolMetrics> value) {
+        Gauge
+            .builder(meterName, connectionPool, pool -> pool.getMetrics().map(value::applyAsInt).orElse(0))
+            .tag("pool", name)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            // an acquire which times out on the max acquire time waited too, and the pool must grow all the more
+            return connectionPool.create().doOnSuccess(connection -> recordAcquire(start)).doOnError(e -> recordAcquire(start));
+        });
+    }
+
+    private void recordAcquire(long start) {
+        long wait = System.nanoTime() - start;
+        acquires.record(wait, TimeUnit.NANOSECONDS);
+        allocationStrategy.recordAcquireWait(wait);
+    }
+
+    /**
+     * Open the minimum number of connections.
+     *
+     * @return the number of connections opened.
+     */
+    public Mono<Integer> warmup() {
+        return connectionPool.warmup();
+    }
+
+    /**
+     * Validate a connection of the pool against the database. The connection is acquired from the pool itself, so
+     * that the checks do not count as acquires of the application.
+     *
+     * @return whether the connection is valid.
+     */
+    public Mono<Boolean> validate() {
+        return Mono.usingWhen(
+            connectionPool.create(),
+            connection -> Mono.from(connection.validate(ValidationDepth.REMOTE)),
+            Connection::close
+        );
+    }
+
+    /**
+     * @return the name of the pool.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the current metrics of the pool.
+     */
+    public PoolMetrics getMetrics() {
+        return connectionPool.getMetrics().orElseThrow();
+    }
+
+    /**
+     * @return the number of connections the pool may currently open.
+     */
+    public int getLimit() {
+        return allocationStrategy.getLimit();
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return connectionPool.getMetadata();
+    }
+
+    @Override
+    public void dispose() {
+        connectionPool.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return connectionPool.isDisposed();
+    }
+}
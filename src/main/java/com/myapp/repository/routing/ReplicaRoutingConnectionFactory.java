@@ -0,0 +1,202 @@
+package com.myapp.repository.routing;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes the connections of the read-only transactions to the read replicas, and the other ones to the primary. A
+ * read-only transaction is either an actual transaction begun by the {@link ReplicaRoutingTransactionManager}, or the
+ * synchronization of a {@code @Transactional(propagation = SUPPORTS, readOnly = true)} method called without one.
+ * <p>
+ * The replicas are used in turn. Their lag is checked periodically: a replica whose lag exceeds the maximum, or which
+ * cannot be checked, is left aside until a later check finds it caught up, and the reads go to the primary when no
+ * replica is available.
+ */
+public class ReplicaRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements Disposable {
+
+    /**
+     * The key of the Reactor context telling whether the connection is acquired for a read-only transaction.
+     */
+    static final String READ_ONLY = ReplicaRoutingConnectionFactory.class.getName() + ".READ_ONLY";
+
+    private static final String PRIMARY = "primary";
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRoutingConnectionFactory.class);
+
+    private final ConnectionFactory primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Function<ConnectionFactory, Mono<Duration>> lag;
+    private final Duration maxLag;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private Disposable checks;
+
+    /**
+     * @param primary the connection factory of the primary.
+     * @param replicas the connection factories of the replicas.
+     * @param lag reads the replication lag of a replica.
+     * @param maxLag the lag above which a replica is not used.
+     */
+    public ReplicaRoutingConnectionFactory(
+        ConnectionFactory primary,
+        List<ConnectionFactory> replicas,
+        Function<ConnectionFactory, Mono<Duration>> lag,
+        Duration maxLag
+    ) {
+        this.primary = primary;
+        this.lag = lag;
+        this.maxLag = maxLag;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica(i, replicas.get(i)));
+            targets.put(i, replicas.get(i));
+        }
+        setTargetConnectionFactories(targets);
+        setDefaultTargetConnectionFactory(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Read the lag of a replica with a query returning it in seconds.
+     *
+     * @param query the query, like {@code SELECT 0} for a database which is not replicated.
+     * @return the function reading the lag.
+     */
+    public static Function<ConnectionFactory, Mono<Duration>> lagQuery(String query) {
+        return replica ->
+            Mono.usingWhen(
+                replica.create(),
+                connection ->
+                    Flux
+                        .from(connection.createStatement(query).execute())
+                        .concatMap(result -> result.map((row, metadata) -> row.get(0, Number.class)))
+                        .next(),
+                Connection::close
+            )
+            .map(seconds -> Duration.ofMillis(Math.round(seconds.doubleValue() * 1000)));
+    }
+
+    /**
+     * Check the lag of the replicas now and then every interval, until this connection factory is disposed.
+     *
+     * @param interval the interval between the checks.
+     */
+    public void start(Duration interval) {
+        checks =
+            Flux
+                .interval(Duration.ZERO, interval)
+                .concatMap(tick -> checkReplicas().timeout(interval).onErrorResume(e -> Mono.empty()))
+                .subscribe();
+    }
+
+    /**
+     * Check the lag of every replica, and use the ones which are within the maximum lag.
+     *
+     * @return a {@link Mono} completing when every replica has been checked.
+     */
+    public Mono<Void> checkReplicas() {
+        return Flux
+            .fromIterable(replicas)
+            .flatMap(replica ->
+                lag
+                    .apply(replica.connectionFactory)
+                    .map(replicaLag -> replicaLag.compareTo(maxLag) <= 0)
+                    .defaultIfEmpty(false)
+                    .onErrorResume(e -> {
+                        log.debug("Could not read the lag of the replica {}: {}", replica.index, e.getMessage());
+                        return Mono.just(false);
+                    })
+                    .doOnNext(replica::setAvailable)
+            )
+            .then();
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> {
+            if (context.hasKey(READ_ONLY)) {
+                return Mono.just(context.<Boolean>get(READ_ONLY));
+            }
+            return TransactionSynchronizationManager
+                .forCurrentTransaction()
+                .map(synchronizationManager ->
+                    synchronizationManager.isSynchronizationActive() && synchronizationManager.isCurrentTransactionReadOnly()
+                )
+                .onErrorReturn(NoTransactionException.class, false);
+        })
+            .map(readOnly -> readOnly ? nextAvailableReplica() : PRIMARY);
+    }
+
+    private Object nextAvailableReplica() {
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.available) {
+                return replica.index;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * @return the connection factories of the primary and of the replicas.
+     */
+    public List<ConnectionFactory> getConnectionFactories() {
+        List<ConnectionFactory> connectionFactories = new ArrayList<>();
+        connectionFactories.add(primary);
+        replicas.forEach(replica -> connectionFactories.add(replica.connectionFactory));
+        return connectionFactories;
+    }
+
+    @Override
+    public void dispose() {
+        if (checks != null) {
+            checks.dispose();
+        }
+        for (Replica replica : replicas) {
+            dispose(replica.connectionFactory);
+        }
+        dispose(primary);
+    }
+
+    private static void dispose(ConnectionFactory connectionFactory) {
+        if (connectionFactory instanceof Disposable) {
+            ((Disposable) connectionFactory).dispose();
+        }
+    }
+
+    private final class Replica {
+
+        private final int index;
+        private final ConnectionFactory connectionFactory;
+        private volatile boolean available;
+
+        Replica(int index, ConnectionFactory connectionFactory) {
+            this.index = index;
+            this.connectionFactory = connectionFactory;
+        }
+
+        void setAvailable(boolean available) {
+            if (available != this.available) {
+                log.info("The replica {} is {}", index, available ? "available" : "lagging or unreachable, its reads go to the primary");
+            }
+            this.available = available;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.myapp.repository.routing;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link R2dbcTransactionManager} which tells the {@link ReplicaRoutingConnectionFactory} whether the connection of a
+ * new transaction is for a read-only one: the connection is acquired when the transaction begins, before the
+ * synchronization of the transaction knows that it is read-only.
+ */
+public class ReplicaRoutingTransactionManager extends R2dbcTransactionManager {
+
+    public ReplicaRoutingTransactionManager(ConnectionFactory connectionFactory) {
+        super(connectionFactory);
+    }
+
+    @Override
+    protected Mono<Void> doBegin(
+        TransactionSynchronizationManager synchronizationManager,
+        Object transaction,
+        TransactionDefinition definition
+    ) {
+        return super
+            .doBegin(synchronizationManager, transaction, definition)
+            .contextWrite(context -> context.put(ReplicaRoutingConnectionFactory.READ_ONLY, definition.isReadOnly()));
+    }
+}
@@ -55,12 +55,7 @@ public class ColumnConverter {
      * @return the value which can be constructed from the input.
      */
     public <T> T fromRow(Row row, String columnName, Class<T> target) {
-        try {
-            // try, directly the driver
-            return row.get(columnName, target);
-        } catch (Exception e) {
-            Object obj = row.get(columnName);
-            return convert(obj, target);
-        }
+        // the value is read as the driver's native type, values of the target type are returned as they are
+        return convert(row.get(columnName), target);
     }
 }
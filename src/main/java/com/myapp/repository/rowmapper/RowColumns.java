@@ -0,0 +1,100 @@
+package com.myapp.repository.rowmapper;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The columns read by a generated row mapper. The ordinals of the prefixed columns are resolved once per layout of the
+ * columns of the results, so the values of a row are read by index, without building or looking up the column names.
+ * <p>
+ * The reader of the last {@link RowMetadata} of each prefix is reused as long as the rows share it, the other ones are
+ * found by the names of the columns, so the concurrent results of different queries do not resolve them again.
+ */
+public final class RowColumns {
+
+    private final ColumnConverter converter;
+    private final String[] names;
+    private final Class<?>[] types;
+    private final Map<String, Map<List<String>, Reader>> readers = new ConcurrentHashMap<>();
+    private final Map<String, LastReader> lastReaders = new ConcurrentHashMap<>();
+
+    public RowColumns(ColumnConverter converter, String[] names, Class<?>[] types) {
+        this.converter = converter;
+        this.names = names;
+        this.types = types;
+    }
+
+    /**
+     * Returns the reader of the columns with the given prefix, in the rows described by the given metadata.
+     * @param metadata the metadata of the rows, the drivers share one instance between the rows of a result.
+     * @param prefix the prefix of the column aliases.
+     * @return the reader of the columns.
+     */
+    public Reader reader(RowMetadata metadata, String prefix) {
+        LastReader last = lastReaders.get(prefix);
+        if (last != null && last.metadata == metadata) {
+            return last.reader;
+        }
+        List<String> layout = new ArrayList<>();
+        for (ColumnMetadata column : metadata.getColumnMetadatas()) {
+            layout.add(column.getName());
+        }
+        Reader reader = readers
+            .computeIfAbsent(prefix, p -> new ConcurrentHashMap<>())
+            .computeIfAbsent(layout, columns -> new Reader(metadata, prefix));
+        lastReaders.put(prefix, new LastReader(metadata, reader));
+        return reader;
+    }
+
+    private static final class LastReader {
+
+        private final RowMetadata metadata;
+        private final Reader reader;
+
+        LastReader(RowMetadata metadata, Reader reader) {
+            this.metadata = metadata;
+            this.reader = reader;
+        }
+    }
+
+    public final class Reader {
+
+        private final int[] ordinals;
+
+        private Reader(RowMetadata metadata, String prefix) {
+            Map<String, Integer> ordinalsByName = new HashMap<>();
+            int ordinal = 0;
+            for (ColumnMetadata column : metadata.getColumnMetadatas()) {
+                ordinalsByName.putIfAbsent(column.getName().toLowerCase(Locale.ROOT), ordinal++);
+            }
+            this.ordinals = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                String name = prefix + "_" + names[i];
+                Integer columnOrdinal = ordinalsByName.get(name.toLowerCase(Locale.ROOT));
+                if (columnOrdinal == null) {
+                    throw new IllegalArgumentException("Column '" + name + "' is not part of the result");
+                }
+                ordinals[i] = columnOrdinal;
+            }
+        }
+
+        /**
+         * Reads the value of a column, and converts it to the type of the field if the driver returned another type.
+         * @param row which contains the column values.
+         * @param column the index of the column in the columns of the mapper.
+         * @param target the type of the field.
+         * @param <T> the parameter for the intended type.
+         * @return the value of the column.
+         */
+        public <T> T get(Row row, int column, Class<T> target) {
+            return converter.convert(row.get(ordinals[column]), target);
+        }
+    }
+}
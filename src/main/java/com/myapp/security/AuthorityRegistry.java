@@ -0,0 +1,120 @@
+package com.myapp.security;
+
+import com.myapp.domain.Authority;
+import com.myapp.repository.AuthorityRepository;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the names of the authorities of the database in memory: they are read once, on first use, and updated with the
+ * authorities registered through this registry once their transaction commits.
+ * <p>
+ * The authorities created by another instance of the application are not known until a registration fails on them:
+ * the names are then read again on next use.
+ */
+@Component
+public class AuthorityRegistry {
+
+    private final Logger log = LoggerFactory.getLogger(AuthorityRegistry.class);
+
+    private final AuthorityRepository authorityRepository;
+
+    private volatile SortedSet<String> names;
+
+    public AuthorityRegistry(AuthorityRepository authorityRepository) {
+        this.authorityRepository = authorityRepository;
+    }
+
+    /**
+     * Get the names of the authorities.
+     *
+     * @return the names of the authorities, in alphabetical order.
+     */
+    public Flux<String> getAuthorities() {
+        return getNames().flatMapMany(Flux::fromIterable);
+    }
+
+    /**
+     * Save the authorities which are not in the database yet.
+     *
+     * @param authorities the names of the authorities.
+     * @return a {@link Mono} completing once the missing authorities are saved.
+     */
+    public Mono<Void> register(Collection<String> authorities) {
+        return getNames()
+            .flatMapMany(registered -> Flux.fromIterable(authorities).filter(authority -> !registered.contains(authority)).distinct())
+            .map(InternedAuthorities::authority)
+            .doOnNext(authority -> log.debug("Saving authority '{}' in local database", authority))
+            .concatMap(authorityRepository::save)
+            .map(Authority::getName)
+            .collectList()
+            .filter(saved -> !saved.isEmpty())
+            .flatMap(saved -> afterCommit(() -> add(saved)))
+            .doOnError(e -> refresh());
+    }
+
+    /**
+     * Forget the names of the authorities, so that they are read again on next use.
+     */
+    public void refresh() {
+        names = null;
+    }
+
+    private Mono<SortedSet<String>> getNames() {
+        return Mono.defer(() -> {
+            SortedSet<String> current = names;
+            if (current != null) {
+                return Mono.just(current);
+            }
+            return authorityRepository
+                .findAll()
+                .map(Authority::getName)
+                .collect(Collectors.toCollection(TreeSet::new))
+                .map(loaded -> {
+                    SortedSet<String> unmodifiable = Collections.unmodifiableSortedSet(loaded);
+                    names = unmodifiable;
+                    return unmodifiable;
+                });
+        });
+    }
+
+    private synchronized void add(List<String> saved) {
+        SortedSet<String> current = names;
+        if (current != null) {
+            TreeSet<String> updated = new TreeSet<>(current);
+            updated.addAll(saved);
+            names = Collections.unmodifiableSortedSet(updated);
+        }
+    }
+
+    private static Mono<Void> afterCommit(Runnable update) {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(synchronizationManager ->
+                synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(update);
+                        }
+                    }
+                )
+            )
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .switchIfEmpty(Mono.fromRunnable(update))
+            .then();
+    }
+}
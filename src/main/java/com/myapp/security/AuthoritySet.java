@@ -0,0 +1,123 @@
+package com.myapp.security;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * An immutable set of authorities, as a bitset of their {@link InternedAuthorities} indexes: checking whether it
+ * contains any of the authorities of another set takes a few word operations, whatever the number of authorities.
+ * <p>
+ * The authorities which could not be interned are kept by name, and compared one by one.
+ */
+public final class AuthoritySet {
+
+    private static final AuthoritySet EMPTY = new AuthoritySet(new long[0], Collections.emptySet());
+
+    private final long[] words;
+    private final Set<String> uninterned;
+
+    private AuthoritySet(long[] words, Set<String> uninterned) {
+        this.words = words;
+        this.uninterned = uninterned;
+    }
+
+    /**
+     * Get the set of granted authorities.
+     *
+     * @param authorities the granted authorities, like the ones of an authentication.
+     * @return the set of the authorities.
+     */
+    public static AuthoritySet of(Collection<? extends GrantedAuthority> authorities) {
+        return of(authorities.stream().map(GrantedAuthority::getAuthority).toArray(String[]::new));
+    }
+
+    /**
+     * Get the set of authorities of names.
+     *
+     * @param authorities the names of the authorities.
+     * @return the set of the authorities.
+     */
+    public static AuthoritySet of(String... authorities) {
+        if (authorities.length == 0) {
+            return EMPTY;
+        }
+        long[] words = new long[0];
+        Set<String> uninterned = Collections.emptySet();
+        for (String authority : authorities) {
+            int index = InternedAuthorities.indexOf(authority);
+            if (index < 0) {
+                if (uninterned.isEmpty()) {
+                    uninterned = new HashSet<>();
+                }
+                uninterned.add(authority);
+                continue;
+            }
+            int word = index >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, word + 1);
+            }
+            words[word] |= 1L << index;
+        }
+        return new AuthoritySet(words, uninterned);
+    }
+
+    /**
+     * Check whether this set contains an authority.
+     *
+     * @param authority the name of the authority.
+     * @return true if the set contains the authority, false otherwise.
+     */
+    public boolean contains(String authority) {
+        int index = InternedAuthorities.indexOf(authority);
+        if (index < 0) {
+            return uninterned.contains(authority);
+        }
+        int word = index >>> 6;
+        return word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    /**
+     * Check whether this set contains any of the authorities of another set.
+     *
+     * @param authorities the other set.
+     * @return true if the sets have an authority in common, false otherwise.
+     */
+    public boolean containsAny(AuthoritySet authorities) {
+        int length = Math.min(words.length, authorities.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & authorities.words[i]) != 0) {
+                return true;
+            }
+        }
+        if (uninterned.isEmpty() || authorities.uninterned.isEmpty()) {
+            return false;
+        }
+        return !Collections.disjoint(uninterned, authorities.uninterned);
+    }
+
+    /**
+     * Check whether this set contains none of the authorities of another set.
+     *
+     * @param authorities the other set.
+     * @return true if the sets have no authority in common, false otherwise.
+     */
+    public boolean containsNone(AuthoritySet authorities) {
+        return !containsAny(authorities);
+    }
+
+    /**
+     * @return true if the set contains no authority, false otherwise.
+     */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return uninterned.isEmpty();
+    }
+}
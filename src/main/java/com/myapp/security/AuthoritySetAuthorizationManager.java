@@ -0,0 +1,48 @@
+package com.myapp.security;
+
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link ReactiveAuthorizationManager} granting access to the authenticated users having any of the authorities,
+ * checked against the {@link AuthoritySet} of their security context.
+ *
+ * @param <T> the type of the object being authorized.
+ */
+public final class AuthoritySetAuthorizationManager<T> implements ReactiveAuthorizationManager<T> {
+
+    private final AuthoritySet authorities;
+
+    private AuthoritySetAuthorizationManager(AuthoritySet authorities) {
+        this.authorities = authorities;
+    }
+
+    /**
+     * @param <T> the type of the object being authorized.
+     * @param authority the authority to check.
+     * @return the authorization manager granting access to the users having the authority.
+     */
+    public static <T> AuthoritySetAuthorizationManager<T> hasAuthority(String authority) {
+        return new AuthoritySetAuthorizationManager<>(AuthoritySet.of(authority));
+    }
+
+    /**
+     * @param <T> the type of the object being authorized.
+     * @param authorities the authorities to check.
+     * @return the authorization manager granting access to the users having any of the authorities.
+     */
+    public static <T> AuthoritySetAuthorizationManager<T> hasAnyAuthority(String... authorities) {
+        return new AuthoritySetAuthorizationManager<>(AuthoritySet.of(authorities));
+    }
+
+    @Override
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, T object) {
+        return authentication
+            .filter(Authentication::isAuthenticated)
+            .flatMap(SecurityUtils::getAuthorities)
+            .map(granted -> new AuthorizationDecision(granted.containsAny(authorities)))
+            .defaultIfEmpty(new AuthorizationDecision(false));
+    }
+}
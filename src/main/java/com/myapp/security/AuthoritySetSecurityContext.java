@@ -0,0 +1,68 @@
+package com.myapp.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+/**
+ * A security context which computes the {@link AuthoritySet} of its authentication once, on first use.
+ */
+public class AuthoritySetSecurityContext extends SecurityContextImpl {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient volatile AuthoritySet authorities;
+
+    public AuthoritySetSecurityContext(Authentication authentication) {
+        super(authentication);
+    }
+
+    /**
+     * Wrap a security context, unless it already computes its authority set.
+     *
+     * @param securityContext the security context.
+     * @return the security context computing its authority set.
+     */
+    public static AuthoritySetSecurityContext of(SecurityContext securityContext) {
+        if (securityContext instanceof AuthoritySetSecurityContext) {
+            return (AuthoritySetSecurityContext) securityContext;
+        }
+        return new AuthoritySetSecurityContext(securityContext.getAuthentication());
+    }
+
+    /**
+     * Get the authority set of the authentication of a security context.
+     *
+     * @param securityContext the security context.
+     * @return the authority set of its authentication, computed once if the security context is an
+     * {@link AuthoritySetSecurityContext}, or an empty set if it has no authentication.
+     */
+    public static AuthoritySet authoritiesOf(SecurityContext securityContext) {
+        if (securityContext instanceof AuthoritySetSecurityContext) {
+            return ((AuthoritySetSecurityContext) securityContext).getAuthoritySet();
+        }
+        return authoritiesOf(securityContext.getAuthentication());
+    }
+
+    private static AuthoritySet authoritiesOf(Authentication authentication) {
+        return authentication != null ? AuthoritySet.of(authentication.getAuthorities()) : AuthoritySet.of();
+    }
+
+    /**
+     * @return the authority set of the authentication, or an empty set if there is no authentication.
+     */
+    public AuthoritySet getAuthoritySet() {
+        AuthoritySet current = authorities;
+        if (current == null) {
+            current = authoritiesOf(getAuthentication());
+            authorities = current;
+        }
+        return current;
+    }
+
+    @Override
+    public void setAuthentication(Authentication authentication) {
+        super.setAuthentication(authentication);
+        authorities = null;
+    }
+}
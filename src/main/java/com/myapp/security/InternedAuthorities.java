@@ -0,0 +1,104 @@
+package com.myapp.security;
+
+import com.myapp.domain.Authority;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Interns the authorities, like the strings are interned: the users and the tokens share one {@link Authority} and one
+ * {@link GrantedAuthority} instance of each authority, instead of allocating their own ones, and each authority gets a
+ * small index, in the order it is first seen.
+ * <p>
+ * An application has a few authorities, but their names come from the tokens: after {@link #MAX_SIZE} authorities, the
+ * next ones get new instances, and no index.
+ */
+public final class InternedAuthorities {
+
+    /**
+     * The maximum number of interned authorities.
+     */
+    public static final int MAX_SIZE = 1024;
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger nextIndex = new AtomicInteger();
+
+    static {
+        intern(AuthoritiesConstants.ADMIN);
+        intern(AuthoritiesConstants.USER);
+        intern(AuthoritiesConstants.ANONYMOUS);
+    }
+
+    private InternedAuthorities() {}
+
+    /**
+     * Get the granted authority of a name.
+     *
+     * @param name the name of the authority.
+     * @return the interned granted authority.
+     */
+    public static GrantedAuthority grantedAuthority(String name) {
+        Entry entry = intern(name);
+        return entry != null ? entry.grantedAuthority : new SimpleGrantedAuthority(name);
+    }
+
+    /**
+     * Get the authority of a name. The interned authority is shared, and must not be modified.
+     *
+     * @param name the name of the authority.
+     * @return the interned authority.
+     */
+    public static Authority authority(String name) {
+        Entry entry = intern(name);
+        return entry != null ? entry.authority : newAuthority(name);
+    }
+
+    /**
+     * Get the index of an authority.
+     *
+     * @param name the name of the authority.
+     * @return the index of the authority, from 0 to {@link #MAX_SIZE} excluded, or -1 if it could not be interned.
+     */
+    public static int indexOf(String name) {
+        Entry entry = intern(name);
+        return entry != null ? entry.index : -1;
+    }
+
+    private static Entry intern(String name) {
+        Entry entry = entries.get(name);
+        if (entry != null || nextIndex.get() >= MAX_SIZE) {
+            return entry;
+        }
+        return entries.computeIfAbsent(
+            name,
+            n -> {
+                // the function runs once for each interned authority, so the indexes are dense, and the counter stops
+                // at the maximum size, so that it cannot overflow however many names are looked up once it is full
+                int index = nextIndex.getAndUpdate(i -> i < MAX_SIZE ? i + 1 : i);
+                return index < MAX_SIZE ? new Entry(index, n) : null;
+            }
+        );
+    }
+
+    private static Authority newAuthority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authority;
+    }
+
+    private static final class Entry {
+
+        private final int index;
+        private final Authority authority;
+        private final GrantedAuthority grantedAuthority;
+
+        Entry(int index, String name) {
+            this.index = index;
+            this.authority = newAuthority(name);
+            this.grantedAuthority = new SimpleGrantedAuthority(name);
+        }
+    }
+}
@@ -4,7 +4,6 @@ import java.util.*;
 import java.util.stream.Collectors;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -58,11 +57,34 @@ public final class SecurityUtils {
      * @return true if the user is authenticated, false otherwise.
      */
     public static Mono<Boolean> isAuthenticated() {
+        return getCurrentUserAuthorities().map(authorities -> !authorities.contains(AuthoritiesConstants.ANONYMOUS));
+    }
+
+    /**
+     * Get the authorities of the current user, computed once for the security context of the request when it is an
+     * {@link AuthoritySetSecurityContext}.
+     *
+     * @return the authorities of the current user.
+     */
+    public static Mono<AuthoritySet> getCurrentUserAuthorities() {
         return ReactiveSecurityContextHolder
             .getContext()
-            .map(SecurityContext::getAuthentication)
-            .map(Authentication::getAuthorities)
-            .map(authorities -> authorities.stream().map(GrantedAuthority::getAuthority).noneMatch(AuthoritiesConstants.ANONYMOUS::equals));
+            .filter(securityContext -> securityContext.getAuthentication() != null)
+            .map(AuthoritySetSecurityContext::authoritiesOf);
+    }
+
+    /**
+     * Get the authorities of an authentication, from the current security context when it holds the authentication.
+     *
+     * @param authentication the authentication.
+     * @return the authorities of the authentication.
+     */
+    public static Mono<AuthoritySet> getAuthorities(Authentication authentication) {
+        return ReactiveSecurityContextHolder
+            .getContext()
+            .filter(securityContext -> securityContext.getAuthentication() == authentication)
+            .map(AuthoritySetSecurityContext::authoritiesOf)
+            .switchIfEmpty(Mono.fromSupplier(() -> AuthoritySet.of(authentication.getAuthorities())));
     }
 
     /**
@@ -72,16 +94,17 @@ public final class SecurityUtils {
      * @return true if the current user has any of the authorities, false otherwise.
      */
     public static Mono<Boolean> hasCurrentUserAnyOfAuthorities(String... authorities) {
-        return ReactiveSecurityContextHolder
-            .getContext()
-            .map(SecurityContext::getAuthentication)
-            .map(Authentication::getAuthorities)
-            .map(authorityList ->
-                authorityList
-                    .stream()
-                    .map(GrantedAuthority::getAuthority)
-                    .anyMatch(authority -> Arrays.asList(authorities).contains(authority))
-            );
+        return hasCurrentUserAnyOfAuthorities(AuthoritySet.of(authorities));
+    }
+
+    /**
+     * Checks if the current user has any of the authorities.
+     *
+     * @param authorities the authorities to check, which may be computed once by the caller.
+     * @return true if the current user has any of the authorities, false otherwise.
+     */
+    public static Mono<Boolean> hasCurrentUserAnyOfAuthorities(AuthoritySet authorities) {
+        return getCurrentUserAuthorities().map(granted -> granted.containsAny(authorities));
     }
 
     /**
@@ -91,7 +114,17 @@ public final class SecurityUtils {
      * @return true if the current user has none of the authorities, false otherwise.
      */
     public static Mono<Boolean> hasCurrentUserNoneOfAuthorities(String... authorities) {
-        return hasCurrentUserAnyOfAuthorities(authorities).map(result -> !result);
+        return hasCurrentUserNoneOfAuthorities(AuthoritySet.of(authorities));
+    }
+
+    /**
+     * Checks if the current user has none of the authorities.
+     *
+     * @param authorities the authorities to check, which may be computed once by the caller.
+     * @return true if the current user has none of the authorities, false otherwise.
+     */
+    public static Mono<Boolean> hasCurrentUserNoneOfAuthorities(AuthoritySet authorities) {
+        return getCurrentUserAuthorities().map(granted -> granted.containsNone(authorities));
     }
 
     /**
@@ -117,6 +150,10 @@ public final class SecurityUtils {
     }
 
     private static List<GrantedAuthority> mapRolesToGrantedAuthorities(Collection<String> roles) {
-        return roles.stream().filter(role -> role.startsWith("ROLE_")).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+        return roles
+            .stream()
+            .filter(role -> role.startsWith("ROLE_"))
+            .map(InternedAuthorities::grantedAuthority)
+            .collect(Collectors.toList());
     }
 }
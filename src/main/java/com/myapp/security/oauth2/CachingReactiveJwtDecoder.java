@@ -0,0 +1,151 @@
+package com.myapp.security.oauth2;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link ReactiveJwtDecoder} which keeps the tokens decoded by its delegate, by the SHA-256 of the token, until they
+ * expire: a token sent again is neither parsed nor verified again. The delegate must not check the timestamps of the
+ * tokens, which are checked by the timestamp validator on every decode.
+ * <p>
+ * Up to {@code maxSize} tokens are kept, the least recently used ones being evicted first. The tokens without
+ * expiration are not kept.
+ * <p>
+ * The cache is measured by the counters {@code security.jwt.cache.gets}, tagged with the result, hit or miss, and
+ * {@code security.jwt.cache.evictions}, tagged with the cause, size or expired, and the gauge
+ * {@code security.jwt.cache.size}.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+    private final OAuth2TokenValidator<Jwt> timestampValidator;
+    private final int maxSize;
+    private final Clock clock;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expirations;
+
+    private final Map<ByteBuffer, Jwt> tokens = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Jwt> eldest) {
+            if (size() > maxSize) {
+                sizeEvictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * @param delegate the decoder verifying the signature and validating the claims, except the timestamps.
+     * @param timestampValidator the validator of the timestamps, like a {@code JwtTimestampValidator}.
+     * @param maxSize the maximum number of tokens kept.
+     * @param meterRegistry the registry of the meters of the cache.
+     */
+    public CachingReactiveJwtDecoder(
+        ReactiveJwtDecoder delegate,
+        OAuth2TokenValidator<Jwt> timestampValidator,
+        int maxSize,
+        MeterRegistry meterRegistry
+    ) {
+        this(delegate, timestampValidator, maxSize, meterRegistry, Clock.systemUTC());
+    }
+
+    CachingReactiveJwtDecoder(
+        ReactiveJwtDecoder delegate,
+        OAuth2TokenValidator<Jwt> timestampValidator,
+        int maxSize,
+        MeterRegistry meterRegistry,
+        Clock clock
+    ) {
+        this.delegate = delegate;
+        this.timestampValidator = timestampValidator;
+        this.maxSize = maxSize;
+        this.clock = clock;
+        this.hits = meterRegistry.counter("security.jwt.cache.gets", "result", "hit");
+        this.misses = meterRegistry.counter("security.jwt.cache.gets", "result", "miss");
+        this.sizeEvictions = meterRegistry.counter("security.jwt.cache.evictions", "cause", "size");
+        this.expirations = meterRegistry.counter("security.jwt.cache.evictions", "cause", "expired");
+        Gauge.builder("security.jwt.cache.size", this, CachingReactiveJwtDecoder::size).register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        return Mono.defer(() -> {
+            ByteBuffer key = digest(token);
+            Jwt jwt = get(key);
+            if (jwt != null) {
+                hits.increment();
+                return validateTimestamps(jwt);
+            }
+            misses.increment();
+            return delegate.decode(token).doOnNext(decoded -> put(key, decoded)).flatMap(this::validateTimestamps);
+        });
+    }
+
+    private synchronized Jwt get(ByteBuffer key) {
+        Jwt jwt = tokens.get(key);
+        if (jwt != null && !clock.instant().isBefore(jwt.getExpiresAt())) {
+            tokens.remove(key);
+            expirations.increment();
+            return null;
+        }
+        return jwt;
+    }
+
+    private synchronized void put(ByteBuffer key, Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (maxSize > 0 && expiresAt != null && clock.instant().isBefore(expiresAt)) {
+            tokens.put(key, jwt);
+        }
+    }
+
+    private synchronized int size() {
+        return tokens.size();
+    }
+
+    private Mono<Jwt> validateTimestamps(Jwt jwt) {
+        OAuth2TokenValidatorResult result = timestampValidator.validate(jwt);
+        if (!result.hasErrors()) {
+            return Mono.just(jwt);
+        }
+        // the same message as the delegate's validation failures
+        String description = result
+            .getErrors()
+            .stream()
+            .map(OAuth2Error::getDescription)
+            .filter(StringUtils::hasText)
+            .findFirst()
+            .map(error -> "An error occurred while attempting to decode the Jwt: " + error)
+            .orElse("Unable to validate Jwt");
+        return Mono.error(new JwtValidationException(description, result.getErrors()));
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,12 +2,24 @@ package com.myapp.service;
 
 import com.myapp.domain.A;
 import com.myapp.repository.ARepository;
+import com.myapp.repository.EntityManager;
+import com.myapp.repository.KeysetCursor;
+import com.myapp.repository.KeysetPage;
+import com.myapp.repository.UpdateCoalescer;
+import com.myapp.repository.cache.EntityCache;
+import com.myapp.repository.count.EntityCounter;
 import com.myapp.service.dto.ADTO;
+import com.myapp.service.dto.BDTO;
+import com.myapp.service.dto.UpsertResultDTO;
 import com.myapp.service.mapper.AMapper;
+import com.myapp.service.mapper.BMapper;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -25,39 +37,133 @@ public class AService {
 
     private final AMapper aMapper;
 
-    public AService(ARepository aRepository, AMapper aMapper) {
+    private final BMapper bMapper;
+
+    private final EntityCounter entityCounter;
+
+    private final UpdateCoalescer updateCoalescer;
+
+    private final BService bService;
+
+    private final EntityManager entityManager;
+
+    private final EntityCache entityCache;
+
+    public AService(
+        ARepository aRepository,
+        AMapper aMapper,
+        BMapper bMapper,
+        EntityCounter entityCounter,
+        BService bService,
+        EntityManager entityManager,
+        UpdateCoalescer updateCoalescer,
+        EntityCache entityCache
+    ) {
         this.aRepository = aRepository;
         this.aMapper = aMapper;
+        this.bMapper = bMapper;
+        this.entityCounter = entityCounter;
+        this.bService = bService;
+        this.entityManager = entityManager;
+        this.updateCoalescer = updateCoalescer;
+        this.entityCache = entityCache;
     }
 
     /**
-     * Save a a.
+     * Save a a, with its new bs: the bs without an id are created with it, in the same unit of work.
      *
      * @param aDTO the entity to save.
-     * @return the persisted entity.
+     * @return the persisted entity, with its new bs.
      */
     public Mono<ADTO> save(ADTO aDTO) {
         log.debug("Request to save A : {}", aDTO);
-        return aRepository.save(aMapper.toEntity(aDTO)).map(aMapper::toDto);
+        return entityManager
+            .inUnitOfWork(aRepository.save(aMapper.toEntity(aDTO)).flatMap(a -> saveNewBs(a, aDTO.getBs())))
+            .flatMap(saved -> entityCache.evict(A.class, saved.getId()).thenReturn(saved))
+            .flatMap(saved -> entityCounter.invalidate(A.class).thenReturn(saved));
+    }
+
+    // the a already has its id, which it got from its sequence before it is inserted
+    private Mono<ADTO> saveNewBs(A a, Set<BDTO> bDTOs) {
+        ADTO aDTO = aMapper.toDto(a);
+        if (bDTOs == null || bDTOs.isEmpty()) {
+            return Mono.just(aDTO);
+        }
+        return Flux
+            .fromIterable(bDTOs)
+            .filter(bDTO -> bDTO.getId() == null)
+            .concatMap(bDTO -> {
+                bDTO.setA(aMapper.toDtoId(a));
+                return bService.save(bDTO);
+            })
+            .collect(Collectors.toSet())
+            .map(bs -> {
+                aDTO.setBs(bs);
+                return aDTO;
+            });
+    }
+
+    /**
+     * Update a a, if it exists.
+     *
+     * @param aDTO the entity to update.
+     * @return the persisted entity, or an empty {@link Mono} if it does not exist.
+     */
+    public Mono<ADTO> update(ADTO aDTO) {
+        log.debug("Request to update A : {}", aDTO);
+        return aRepository
+            .updateIfExists(aMapper.toEntity(aDTO))
+            .flatMap(updated -> entityCache.evict(A.class, updated.getId()).thenReturn(updated))
+            .map(aMapper::toDto);
+    }
+
+    /**
+     * Save new aS, sending them to the database in batches.
+     *
+     * @param aDTOs the entities to save.
+     * @return the persisted entities, in the same order.
+     */
+    public Flux<ADTO> saveAll(Flux<ADTO> aDTOs) {
+        log.debug("Request to save a batch of AS");
+        return aRepository
+            .insertAll(aDTOs.map(aMapper::toEntity))
+            .map(aMapper::toDto)
+            .concatWith(entityCounter.invalidate(A.class).then(Mono.empty()));
     }
 
     /**
-     * Partially update a a.
+     * Insert aS, or update the aS with the same test, sending them to the database in batches.
+     *
+     * @param aDTOs the entities to write.
+     * @return the ids and the versions of the written entities, in the same order, telling which ones were inserted.
+     */
+    public Flux<UpsertResultDTO> upsertAll(Flux<ADTO> aDTOs) {
+        log.debug("Request to upsert a batch of AS");
+        return aRepository
+            .upsertAll(aDTOs.map(aMapper::toEntity))
+            .concatMap(result ->
+                result.isInserted() ? Mono.just(result) : entityCache.evict(A.class, result.getEntity().getId()).thenReturn(result)
+            )
+            .map(result -> new UpsertResultDTO(result.getEntity().getId(), result.getEntity().getVersion(), result.isInserted()))
+            .concatWith(entityCounter.invalidate(A.class).then(Mono.empty()));
+    }
+
+    /**
+     * Partially update a a: only its non-null fields are written, with a single update statement. The partial updates
+     * of the same a may be merged into one, see {@link UpdateCoalescer}, which then writes them in its own transaction.
      *
      * @param aDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or an empty {@link Mono} if it does not exist.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Mono<ADTO> partialUpdate(ADTO aDTO) {
         log.debug("Request to partially update A : {}", aDTO);
 
-        return aRepository
-            .findById(aDTO.getId())
-            .map(existingA -> {
-                aMapper.partialUpdate(existingA, aDTO);
-
-                return existingA;
-            })
-            .flatMap(aRepository::save)
+        A patch = new A();
+        aMapper.partialUpdate(patch, aDTO);
+        return updateCoalescer
+            .partialUpdate(patch, aRepository::partialUpdate)
+            .flatMap(updated -> entityCache.evict(A.class, updated.getId()).thenReturn(updated))
             .map(aMapper::toDto);
     }
 
@@ -74,16 +180,53 @@ public class AService {
     }
 
     /**
-     * Returns the number of aS available.
-     * @return the number of entities in the database.
+     * Get all the aS with their bs, which are loaded by a single query for the whole page.
+     *
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<ADTO> findAllWithEagerRelationships(Pageable pageable) {
+        log.debug("Request to get all AS with their BS");
+        return aRepository.findAllWithEagerRelationships(pageable).map(this::toDtoWithBs);
+    }
+
+    /**
+     * Stream all the aS, as they are read from the database.
+     *
+     * @return the entities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<ADTO> streamAll() {
+        log.debug("Request to stream all AS");
+        return aRepository.streamAll().map(aMapper::toDto);
+    }
+
+    /**
+     * Get a page of aS following the given keyset cursor, without skipping the previous rows.
+     *
+     * @param pageable the pagination information, only the size and the sort are used.
+     * @param after the position of the last entity of the previous page.
+     * @return the page of entities, with the cursor of the next page.
+     */
+    @Transactional(readOnly = true)
+    public Mono<KeysetPage<ADTO>> findAll(Pageable pageable, KeysetCursor after) {
+        log.debug("Request to get all AS after {}", after);
+        return aRepository.findAllBy(pageable, null, after).map(page -> page.map(aMapper::toDto));
+    }
+
+    /**
+     * Returns the number of aS available, with the count strategy of the entity.
+     * @return the number of entities in the database, or an empty Mono if the count strategy gave up.
      *
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Mono<Long> countAll() {
-        return aRepository.count();
+        return entityCounter.count(A.class, aRepository.count());
     }
 
     /**
-     * Get one a by id.
+     * Get one a by id, from the {@link EntityCache} if it holds it.
      *
      * @param id the id of the entity.
      * @return the entity.
@@ -91,7 +234,25 @@ public class AService {
     @Transactional(readOnly = true)
     public Mono<ADTO> findOne(Long id) {
         log.debug("Request to get A : {}", id);
-        return aRepository.findById(id).map(aMapper::toDto);
+        return entityCache.get(A.class, id, () -> aRepository.findById(id)).map(aMapper::toDto);
+    }
+
+    /**
+     * Get one a by id, with its bs.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    public Mono<ADTO> findOneWithEagerRelationships(Long id) {
+        log.debug("Request to get A with its BS : {}", id);
+        return aRepository.findOneWithEagerRelationships(id).map(this::toDtoWithBs);
+    }
+
+    private ADTO toDtoWithBs(A a) {
+        ADTO aDTO = aMapper.toDto(a);
+        aDTO.setBs(a.getBs().stream().map(bMapper::toDto).collect(Collectors.toSet()));
+        return aDTO;
     }
 
     /**
@@ -101,7 +262,23 @@ public class AService {
      * @return a Mono to signal the deletion
      */
     public Mono<Void> delete(Long id) {
-        log.debug("Request to delete A : {}", id);
-        return aRepository.deleteById(id);
+        return delete(id, false);
+    }
+
+    /**
+     * Delete the a by id, and its bs if cascading: they are deleted first, with a single statement, in the same
+     * transaction.
+     *
+     * @param id the id of the entity.
+     * @param cascade whether to delete the bs of the a, which otherwise prevent its deletion.
+     * @return a Mono to signal the deletion
+     */
+    public Mono<Void> delete(Long id, boolean cascade) {
+        log.debug("Request to delete A : {}, cascading: {}", id, cascade);
+        Mono<Integer> deleteBs = cascade ? bService.deleteAllByA(id) : Mono.empty();
+        return deleteBs
+            .then(entityCache.evict(A.class, id))
+            .then(aRepository.deleteById(id))
+            .then(entityCounter.invalidate(A.class));
     }
 }
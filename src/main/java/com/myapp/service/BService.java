@@ -2,12 +2,18 @@ package com.myapp.service;
 
 import com.myapp.domain.B;
 import com.myapp.repository.BRepository;
+import com.myapp.repository.KeysetCursor;
+import com.myapp.repository.KeysetPage;
+import com.myapp.repository.UpdateCoalescer;
+import com.myapp.repository.cache.EntityCache;
+import com.myapp.repository.count.EntityCounter;
 import com.myapp.service.dto.BDTO;
 import com.myapp.service.mapper.BMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -25,9 +31,24 @@ public class BService {
 
     private final BMapper bMapper;
 
-    public BService(BRepository bRepository, BMapper bMapper) {
+    private final EntityCounter entityCounter;
+
+    private final UpdateCoalescer updateCoalescer;
+
+    private final EntityCache entityCache;
+
+    public BService(
+        BRepository bRepository,
+        BMapper bMapper,
+        EntityCounter entityCounter,
+        UpdateCoalescer updateCoalescer,
+        EntityCache entityCache
+    ) {
         this.bRepository = bRepository;
         this.bMapper = bMapper;
+        this.entityCounter = entityCounter;
+        this.updateCoalescer = updateCoalescer;
+        this.entityCache = entityCache;
     }
 
     /**
@@ -38,26 +59,57 @@ public class BService {
      */
     public Mono<BDTO> save(BDTO bDTO) {
         log.debug("Request to save B : {}", bDTO);
-        return bRepository.save(bMapper.toEntity(bDTO)).map(bMapper::toDto);
+        return bRepository
+            .save(bMapper.toEntity(bDTO))
+            .flatMap(saved -> entityCache.evict(B.class, saved.getId()).thenReturn(saved))
+            .map(bMapper::toDto)
+            .flatMap(saved -> entityCounter.invalidate(B.class).thenReturn(saved));
     }
 
     /**
-     * Partially update a b.
+     * Update a b, if it exists.
+     *
+     * @param bDTO the entity to update.
+     * @return the persisted entity, or an empty {@link Mono} if it does not exist.
+     */
+    public Mono<BDTO> update(BDTO bDTO) {
+        log.debug("Request to update B : {}", bDTO);
+        return bRepository
+            .updateIfExists(bMapper.toEntity(bDTO))
+            .flatMap(updated -> entityCache.evict(B.class, updated.getId()).thenReturn(updated))
+            .map(bMapper::toDto);
+    }
+
+    /**
+     * Save new bS, sending them to the database in batches.
+     *
+     * @param bDTOs the entities to save.
+     * @return the persisted entities, in the same order.
+     */
+    public Flux<BDTO> saveAll(Flux<BDTO> bDTOs) {
+        log.debug("Request to save a batch of BS");
+        return bRepository
+            .insertAll(bDTOs.map(bMapper::toEntity))
+            .map(bMapper::toDto)
+            .concatWith(entityCounter.invalidate(B.class).then(Mono.empty()));
+    }
+
+    /**
+     * Partially update a b: only its non-null fields are written, with a single update statement. The partial updates
+     * of the same b may be merged into one, see {@link UpdateCoalescer}, which then writes them in its own transaction.
      *
      * @param bDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or an empty {@link Mono} if it does not exist.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Mono<BDTO> partialUpdate(BDTO bDTO) {
         log.debug("Request to partially update B : {}", bDTO);
 
-        return bRepository
-            .findById(bDTO.getId())
-            .map(existingB -> {
-                bMapper.partialUpdate(existingB, bDTO);
-
-                return existingB;
-            })
-            .flatMap(bRepository::save)
+        B patch = new B();
+        bMapper.partialUpdate(patch, bDTO);
+        return updateCoalescer
+            .partialUpdate(patch, bRepository::partialUpdate)
+            .flatMap(updated -> entityCache.evict(B.class, updated.getId()).thenReturn(updated))
             .map(bMapper::toDto);
     }
 
@@ -74,16 +126,41 @@ public class BService {
     }
 
     /**
-     * Returns the number of bS available.
-     * @return the number of entities in the database.
+     * Stream all the bS, as they are read from the database.
+     *
+     * @return the entities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<BDTO> streamAll() {
+        log.debug("Request to stream all BS");
+        return bRepository.streamAll().map(bMapper::toDto);
+    }
+
+    /**
+     * Get a page of bS following the given keyset cursor, without skipping the previous rows.
+     *
+     * @param pageable the pagination information, only the size and the sort are used.
+     * @param after the position of the last entity of the previous page.
+     * @return the page of entities, with the cursor of the next page.
+     */
+    @Transactional(readOnly = true)
+    public Mono<KeysetPage<BDTO>> findAll(Pageable pageable, KeysetCursor after) {
+        log.debug("Request to get all BS after {}", after);
+        return bRepository.findAllBy(pageable, null, after).map(page -> page.map(bMapper::toDto));
+    }
+
+    /**
+     * Returns the number of bS available, with the count strategy of the entity.
+     * @return the number of entities in the database, or an empty Mono if the count strategy gave up.
      *
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Mono<Long> countAll() {
-        return bRepository.count();
+        return entityCounter.count(B.class, bRepository.count());
     }
 
     /**
-     * Get one b by id.
+     * Get one b by id, from the {@link EntityCache} if it holds it.
      *
      * @param id the id of the entity.
      * @return the entity.
@@ -91,7 +168,7 @@ public class BService {
     @Transactional(readOnly = true)
     public Mono<BDTO> findOne(Long id) {
         log.debug("Request to get B : {}", id);
-        return bRepository.findById(id).map(bMapper::toDto);
+        return entityCache.get(B.class, id, () -> bRepository.findById(id)).map(bMapper::toDto);
     }
 
     /**
@@ -102,6 +179,20 @@ public class BService {
      */
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete B : {}", id);
-        return bRepository.deleteById(id);
+        return entityCache.evict(B.class, id).then(bRepository.deleteById(id)).then(entityCounter.invalidate(B.class));
+    }
+
+    /**
+     * Delete the bs of an a, with a single statement.
+     *
+     * @param aId the id of the a.
+     * @return the number of deleted bs.
+     */
+    public Mono<Integer> deleteAllByA(Long aId) {
+        log.debug("Request to delete the BS of A : {}", aId);
+        return entityCache
+            .evictAll(B.class)
+            .then(bRepository.deleteAllByA(aId))
+            .flatMap(deleted -> entityCounter.invalidate(B.class).thenReturn(deleted));
     }
 }
@@ -2,12 +2,16 @@ package com.myapp.service;
 
 import com.myapp.domain.C;
 import com.myapp.repository.CRepository;
+import com.myapp.repository.UpdateCoalescer;
+import com.myapp.repository.cache.EntityCache;
+import com.myapp.repository.count.EntityCounter;
 import com.myapp.service.dto.CDTO;
 import com.myapp.service.mapper.CMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -25,9 +29,24 @@ public class CService {
 
     private final CMapper cMapper;
 
-    public CService(CRepository cRepository, CMapper cMapper) {
+    private final EntityCounter entityCounter;
+
+    private final UpdateCoalescer updateCoalescer;
+
+    private final EntityCache entityCache;
+
+    public CService(
+        CRepository cRepository,
+        CMapper cMapper,
+        EntityCounter entityCounter,
+        UpdateCoalescer updateCoalescer,
+        EntityCache entityCache
+    ) {
         this.cRepository = cRepository;
         this.cMapper = cMapper;
+        this.entityCounter = entityCounter;
+        this.updateCoalescer = updateCoalescer;
+        this.entityCache = entityCache;
     }
 
     /**
@@ -38,26 +57,57 @@ public class CService {
      */
     public Mono<CDTO> save(CDTO cDTO) {
         log.debug("Request to save C : {}", cDTO);
-        return cRepository.save(cMapper.toEntity(cDTO)).map(cMapper::toDto);
+        return cRepository
+            .save(cMapper.toEntity(cDTO))
+            .flatMap(saved -> entityCache.evict(C.class, saved.getId()).thenReturn(saved))
+            .map(cMapper::toDto)
+            .flatMap(saved -> entityCounter.invalidate(C.class).thenReturn(saved));
+    }
+
+    /**
+     * Update a c, if it exists.
+     *
+     * @param cDTO the entity to update.
+     * @return the persisted entity, or an empty {@link Mono} if it does not exist.
+     */
+    public Mono<CDTO> update(CDTO cDTO) {
+        log.debug("Request to update C : {}", cDTO);
+        return cRepository
+            .updateIfExists(cMapper.toEntity(cDTO))
+            .flatMap(updated -> entityCache.evict(C.class, updated.getId()).thenReturn(updated))
+            .map(cMapper::toDto);
+    }
+
+    /**
+     * Save new cS, sending them to the database in batches.
+     *
+     * @param cDTOs the entities to save.
+     * @return the persisted entities, in the same order.
+     */
+    public Flux<CDTO> saveAll(Flux<CDTO> cDTOs) {
+        log.debug("Request to save a batch of CS");
+        return cRepository
+            .insertAll(cDTOs.map(cMapper::toEntity))
+            .map(cMapper::toDto)
+            .concatWith(entityCounter.invalidate(C.class).then(Mono.empty()));
     }
 
     /**
-     * Partially update a c.
+     * Partially update a c: only its non-null fields are written, with a single update statement. The partial updates
+     * of the same c may be merged into one, see {@link UpdateCoalescer}, which then writes them in its own transaction.
      *
      * @param cDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or an empty {@link Mono} if it does not exist.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Mono<CDTO> partialUpdate(CDTO cDTO) {
         log.debug("Request to partially update C : {}", cDTO);
 
-        return cRepository
-            .findById(cDTO.getId())
-            .map(existingC -> {
-                cMapper.partialUpdate(existingC, cDTO);
-
-                return existingC;
-            })
-            .flatMap(cRepository::save)
+        C patch = new C();
+        cMapper.partialUpdate(patch, cDTO);
+        return updateCoalescer
+            .partialUpdate(patch, cRepository::partialUpdate)
+            .flatMap(updated -> entityCache.evict(C.class, updated.getId()).thenReturn(updated))
             .map(cMapper::toDto);
     }
 
@@ -74,16 +124,28 @@ public class CService {
     }
 
     /**
-     * Returns the number of cS available.
-     * @return the number of entities in the database.
+     * Stream all the cS, as they are read from the database.
+     *
+     * @return the entities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<CDTO> streamAll() {
+        log.debug("Request to stream all CS");
+        return cRepository.streamAll().map(cMapper::toDto);
+    }
+
+    /**
+     * Returns the number of cS available, with the count strategy of the entity.
+     * @return the number of entities in the database, or an empty Mono if the count strategy gave up.
      *
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Mono<Long> countAll() {
-        return cRepository.count();
+        return entityCounter.count(C.class, cRepository.count());
     }
 
     /**
-     * Get one c by id.
+     * Get one c by id, from the {@link EntityCache} if it holds it.
      *
      * @param id the id of the entity.
      * @return the entity.
@@ -91,7 +153,7 @@ public class CService {
     @Transactional(readOnly = true)
     public Mono<CDTO> findOne(Long id) {
         log.debug("Request to get C : {}", id);
-        return cRepository.findById(id).map(cMapper::toDto);
+        return entityCache.get(C.class, id, () -> cRepository.findById(id)).map(cMapper::toDto);
     }
 
     /**
@@ -102,6 +164,6 @@ public class CService {
      */
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete C : {}", id);
-        return cRepository.deleteById(id);
+        return entityCache.evict(C.class, id).then(cRepository.deleteById(id)).then(entityCounter.invalidate(C.class));
     }
 }
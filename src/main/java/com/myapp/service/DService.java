@@ -2,12 +2,16 @@ package com.myapp.service;
 
 import com.myapp.domain.D;
 import com.myapp.repository.DRepository;
+import com.myapp.repository.UpdateCoalescer;
+import com.myapp.repository.cache.EntityCache;
+import com.myapp.repository.count.EntityCounter;
 import com.myapp.service.dto.DDTO;
 import com.myapp.service.mapper.DMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -25,9 +29,24 @@ public class DService {
 
     private final DMapper dMapper;
 
-    public DService(DRepository dRepository, DMapper dMapper) {
+    private final EntityCounter entityCounter;
+
+    private final UpdateCoalescer updateCoalescer;
+
+    private final EntityCache entityCache;
+
+    public DService(
+        DRepository dRepository,
+        DMapper dMapper,
+        EntityCounter entityCounter,
+        UpdateCoalescer updateCoalescer,
+        EntityCache entityCache
+    ) {
         this.dRepository = dRepository;
         this.dMapper = dMapper;
+        this.entityCounter = entityCounter;
+        this.updateCoalescer = updateCoalescer;
+        this.entityCache = entityCache;
     }
 
     /**
@@ -38,26 +57,57 @@ public class DService {
      */
     public Mono<DDTO> save(DDTO dDTO) {
         log.debug("Request to save D : {}", dDTO);
-        return dRepository.save(dMapper.toEntity(dDTO)).map(dMapper::toDto);
+        return dRepository
+            .save(dMapper.toEntity(dDTO))
+            .flatMap(saved -> entityCache.evict(D.class, saved.getId()).thenReturn(saved))
+            .map(dMapper::toDto)
+            .flatMap(saved -> entityCounter.invalidate(D.class).thenReturn(saved));
+    }
+
+    /**
+     * Update a d, if it exists.
+     *
+     * @param dDTO the entity to update.
+     * @return the persisted entity, or an empty {@link Mono} if it does not exist.
+     */
+    public Mono<DDTO> update(DDTO dDTO) {
+        log.debug("Request to update D : {}", dDTO);
+        return dRepository
+            .updateIfExists(dMapper.toEntity(dDTO))
+            .flatMap(updated -> entityCache.evict(D.class, updated.getId()).thenReturn(updated))
+            .map(dMapper::toDto);
+    }
+
+    /**
+     * Save new dS, sending them to the database in batches.
+     *
+     * @param dDTOs the entities to save.
+     * @return the persisted entities, in the same order.
+     */
+    public Flux<DDTO> saveAll(Flux<DDTO> dDTOs) {
+        log.debug("Request to save a batch of DS");
+        return dRepository
+            .insertAll(dDTOs.map(dMapper::toEntity))
+            .map(dMapper::toDto)
+            .concatWith(entityCounter.invalidate(D.class).then(Mono.empty()));
     }
 
     /**
-     * Partially update a d.
+     * Partially update a d: only its non-null fields are written, with a single update statement. The partial updates
+     * of the same d may be merged into one, see {@link UpdateCoalescer}, which then writes them in its own transaction.
      *
      * @param dDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or an empty {@link Mono} if it does not exist.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Mono<DDTO> partialUpdate(DDTO dDTO) {
         log.debug("Request to partially update D : {}", dDTO);
 
-        return dRepository
-            .findById(dDTO.getId())
-            .map(existingD -> {
-                dMapper.partialUpdate(existingD, dDTO);
-
-                return existingD;
-            })
-            .flatMap(dRepository::save)
+        D patch = new D();
+        dMapper.partialUpdate(patch, dDTO);
+        return updateCoalescer
+            .partialUpdate(patch, dRepository::partialUpdate)
+            .flatMap(updated -> entityCache.evict(D.class, updated.getId()).thenReturn(updated))
             .map(dMapper::toDto);
     }
 
@@ -74,16 +124,28 @@ public class DService {
     }
 
     /**
-     * Returns the number of dS available.
-     * @return the number of entities in the database.
+     * Stream all the dS, as they are read from the database.
+     *
+     * @return the entities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<DDTO> streamAll() {
+        log.debug("Request to stream all DS");
+        return dRepository.streamAll().map(dMapper::toDto);
+    }
+
+    /**
+     * Returns the number of dS available, with the count strategy of the entity.
+     * @return the number of entities in the database, or an empty Mono if the count strategy gave up.
      *
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Mono<Long> countAll() {
-        return dRepository.count();
+        return entityCounter.count(D.class, dRepository.count());
     }
 
     /**
-     * Get one d by id.
+     * Get one d by id, from the {@link EntityCache} if it holds it.
      *
      * @param id the id of the entity.
      * @return the entity.
@@ -91,7 +153,7 @@ public class DService {
     @Transactional(readOnly = true)
     public Mono<DDTO> findOne(Long id) {
         log.debug("Request to get D : {}", id);
-        return dRepository.findById(id).map(dMapper::toDto);
+        return entityCache.get(D.class, id, () -> dRepository.findById(id)).map(dMapper::toDto);
     }
 
     /**
@@ -102,6 +164,6 @@ public class DService {
      */
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete D : {}", id);
-        return dRepository.deleteById(id);
+        return entityCache.evict(D.class, id).then(dRepository.deleteById(id)).then(entityCounter.invalidate(D.class));
     }
 }
@@ -3,8 +3,11 @@ package com.myapp.service;
 import com.myapp.config.Constants;
 import com.myapp.domain.Authority;
 import com.myapp.domain.User;
-import com.myapp.repository.AuthorityRepository;
+import com.myapp.repository.EntityManager;
 import com.myapp.repository.UserRepository;
+import com.myapp.repository.count.EntityCounter;
+import com.myapp.security.AuthorityRegistry;
+import com.myapp.security.InternedAuthorities;
 import com.myapp.security.SecurityUtils;
 import com.myapp.service.dto.AdminUserDTO;
 import com.myapp.service.dto.UserDTO;
@@ -19,7 +22,10 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
@@ -34,11 +40,30 @@ public class UserService {
 
     private final UserRepository userRepository;
 
-    private final AuthorityRepository authorityRepository;
+    private final AuthorityRegistry authorityRegistry;
 
-    public UserService(UserRepository userRepository, AuthorityRepository authorityRepository) {
+    private final EntityCounter entityCounter;
+
+    private final EntityManager entityManager;
+
+    private final UserSyncCache userSyncCache;
+
+    private final TransactionalOperator transactionalOperator;
+
+    public UserService(
+        UserRepository userRepository,
+        AuthorityRegistry authorityRegistry,
+        EntityCounter entityCounter,
+        EntityManager entityManager,
+        UserSyncCache userSyncCache,
+        ReactiveTransactionManager transactionManager
+    ) {
         this.userRepository = userRepository;
-        this.authorityRepository = authorityRepository;
+        this.authorityRegistry = authorityRegistry;
+        this.entityCounter = entityCounter;
+        this.entityManager = entityManager;
+        this.userSyncCache = userSyncCache;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
     }
 
     /**
@@ -77,29 +102,34 @@ public class UserService {
 
     @Transactional
     public Mono<User> saveUser(User user, boolean forceCreate) {
-        return SecurityUtils
-            .getCurrentUserLogin()
-            .switchIfEmpty(Mono.just(Constants.SYSTEM))
-            .flatMap(login -> {
-                if (user.getCreatedBy() == null) {
-                    user.setCreatedBy(login);
-                }
-                user.setLastModifiedBy(login);
-                // Saving the relationship can be done in an entity callback
-                // once https://github.com/spring-projects/spring-data-r2dbc/issues/215 is done
-                Mono<User> persistedUser;
-                if (forceCreate) {
-                    persistedUser = userRepository.create(user);
-                } else {
-                    persistedUser = userRepository.save(user);
-                }
-                return persistedUser.flatMap(savedUser ->
-                    Flux
-                        .fromIterable(user.getAuthorities())
-                        .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
-                        .then(Mono.just(savedUser))
-                );
-            });
+        // the user and its authorities are written together, when the unit of work is flushed
+        return entityManager
+            .inUnitOfWork(
+                SecurityUtils
+                    .getCurrentUserLogin()
+                    .switchIfEmpty(Mono.just(Constants.SYSTEM))
+                    .flatMap(login -> {
+                        if (user.getCreatedBy() == null) {
+                            user.setCreatedBy(login);
+                        }
+                        user.setLastModifiedBy(login);
+                        // Saving the relationship can be done in an entity callback
+                        // once https://github.com/spring-projects/spring-data-r2dbc/issues/215 is done
+                        Mono<User> persistedUser;
+                        if (forceCreate) {
+                            persistedUser = userRepository.create(user);
+                        } else {
+                            persistedUser = userRepository.save(user);
+                        }
+                        return persistedUser.flatMap(savedUser ->
+                            Flux
+                                .fromIterable(user.getAuthorities())
+                                .concatMap(authority -> userRepository.registerUserAuthority(savedUser.getId(), authority.getName()))
+                                .then(Mono.just(savedUser))
+                        );
+                    })
+            )
+            .flatMap(savedUser -> entityCounter.invalidate(User.class).thenReturn(savedUser));
     }
 
     @Transactional(readOnly = true)
@@ -112,9 +142,9 @@ public class UserService {
         return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Mono<Long> countManagedUsers() {
-        return userRepository.count();
+        return entityCounter.count(User.class, userRepository.count());
     }
 
     @Transactional(readOnly = true)
@@ -123,34 +153,19 @@ public class UserService {
     }
 
     /**
-     * Gets a list of all the authorities.
+     * Gets a list of all the authorities, from the {@link AuthorityRegistry}.
      * @return a list of all the authorities.
      */
-    @Transactional(readOnly = true)
     public Flux<String> getAuthorities() {
-        return authorityRepository.findAll().map(Authority::getName);
+        return authorityRegistry.getAuthorities();
     }
 
     private Mono<User> syncUserWithIdP(Map<String, Object> details, User user) {
         // save authorities in to sync user roles/groups between IdP and JHipster's local database
         Collection<String> userAuthorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toList());
 
-        return getAuthorities()
-            .collectList()
-            .flatMapMany(dbAuthorities -> {
-                List<Authority> authoritiesToSave = userAuthorities
-                    .stream()
-                    .filter(authority -> !dbAuthorities.contains(authority))
-                    .map(authority -> {
-                        Authority authorityToSave = new Authority();
-                        authorityToSave.setName(authority);
-                        return authorityToSave;
-                    })
-                    .collect(Collectors.toList());
-                return Flux.fromIterable(authoritiesToSave);
-            })
-            .doOnNext(authority -> log.debug("Saving authority '{}' in local database", authority))
-            .flatMap(authorityRepository::save)
+        return authorityRegistry
+            .register(userAuthorities)
             .then(userRepository.findOneByLogin(user.getLogin()))
             .switchIfEmpty(saveUser(user, true))
             .flatMap(existingUser -> {
@@ -174,12 +189,12 @@ public class UserService {
 
     /**
      * Returns the user from an OAuth 2.0 login or resource server with JWT.
-     * Synchronizes the user in the local repository.
+     * Synchronizes the user in the local repository, in a transaction, unless the {@link UserSyncCache} knows that they
+     * were already synchronized from the same claims: the user is then returned without reading the database.
      *
      * @param authToken the authentication token.
      * @return the user from the authentication.
      */
-    @Transactional
     public Mono<AdminUserDTO> getUserFromAuthentication(AbstractAuthenticationToken authToken) {
         Map<String, Object> attributes;
         if (authToken instanceof OAuth2AuthenticationToken) {
@@ -195,15 +210,26 @@ public class UserService {
                 .getAuthorities()
                 .stream()
                 .map(GrantedAuthority::getAuthority)
-                .map(authority -> {
-                    Authority auth = new Authority();
-                    auth.setName(authority);
-                    return auth;
-                })
+                .map(InternedAuthorities::authority)
                 .collect(Collectors.toSet())
         );
 
-        return syncUserWithIdP(attributes, user).flatMap(u -> Mono.just(new AdminUserDTO(u)));
+        String fingerprint = UserSyncCache.fingerprint(
+            Arrays.asList(
+                user.getLogin(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getEmail(),
+                user.getLangKey(),
+                user.getImageUrl(),
+                user.isActivated(),
+                user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toList()),
+                attributes.get("updated_at")
+            )
+        );
+        return userSyncCache
+            .synchronize(user.getId(), fingerprint, user, () -> transactionalOperator.transactional(syncUserWithIdP(attributes, user)))
+            .map(AdminUserDTO::new);
     }
 
     private static User getUser(Map<String, Object> details) {
@@ -0,0 +1,142 @@
+package com.myapp.service;
+
+import com.myapp.config.ApplicationProperties;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Remembers the users synchronized with the IdP, by subject, with the fingerprint of the claims they were synchronized
+ * from: a user is not synchronized again while the claims of their tokens keep the same fingerprint, for up to
+ * {@code application.user-sync.ttl}, and the concurrent synchronizations of a user from the same claims share one.
+ * <p>
+ * Up to {@code application.user-sync.max-size} users are remembered, the least recently seen ones being forgotten first.
+ */
+@Component
+public class UserSyncCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+
+    private final Map<String, Synchronized> synchronizedUsers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Synchronized> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    private final Map<String, Mono<?>> synchronizations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserSyncCache(ApplicationProperties applicationProperties) {
+        this(applicationProperties.getUserSync(), System::nanoTime);
+    }
+
+    UserSyncCache(ApplicationProperties.UserSync userSync, LongSupplier nanoTime) {
+        this.maxSize = userSync.getMaxSize();
+        this.ttlNanos = userSync.getTtl().toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Synchronize a user, unless they were already synchronized from the same claims.
+     *
+     * @param <T> the type of the synchronized user.
+     * @param subject the subject of the user.
+     * @param fingerprint the fingerprint of the claims of the user, see {@link #fingerprint(Collection)}.
+     * @param user the user, returned when they are not synchronized.
+     * @param synchronization the synchronization of the user.
+     * @return the user, once synchronized.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> synchronize(String subject, String fingerprint, T user, Supplier<Mono<T>> synchronization) {
+        if (maxSize <= 0) {
+            return Mono.defer(synchronization);
+        }
+        return Mono.defer(() -> {
+            if (isSynchronized(subject, fingerprint)) {
+                return Mono.just(user);
+            }
+            String key = subject + '\n' + fingerprint;
+            return (Mono<T>) synchronizations.computeIfAbsent(
+                key,
+                k ->
+                    Mono
+                        .defer(synchronization)
+                        .doOnSuccess(synchronizedUser -> remember(subject, fingerprint))
+                        .doFinally(signal -> synchronizations.remove(k))
+                        .cache()
+            );
+        });
+    }
+
+    private synchronized boolean isSynchronized(String subject, String fingerprint) {
+        Synchronized synchronizedUser = synchronizedUsers.get(subject);
+        if (synchronizedUser == null) {
+            return false;
+        }
+        if (nanoTime.getAsLong() - synchronizedUser.time >= ttlNanos) {
+            synchronizedUsers.remove(subject);
+            return false;
+        }
+        return synchronizedUser.fingerprint.equals(fingerprint);
+    }
+
+    private synchronized void remember(String subject, String fingerprint) {
+        synchronizedUsers.put(subject, new Synchronized(fingerprint, nanoTime.getAsLong()));
+    }
+
+    /**
+     * Forget the synchronization of every user, so that their next requests synchronize them again.
+     */
+    public synchronized void clear() {
+        synchronizedUsers.clear();
+    }
+
+    /**
+     * Compute the fingerprint of the claims a user is synchronized from.
+     *
+     * @param claims the values of the claims, including the authorities, which are sorted, and {@code updated_at}.
+     * @return the SHA-256 of the claims, in hexadecimal.
+     */
+    public static String fingerprint(Collection<?> claims) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object claim : claims) {
+                Object value = claim instanceof Collection ? new TreeSet<>((Collection<?>) claim) : claim;
+                // the separator keeps the boundaries of the values
+                digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            StringBuilder fingerprint = new StringBuilder();
+            for (byte b : digest.digest()) {
+                fingerprint.append(String.format("%02x", b));
+            }
+            return fingerprint.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Synchronized {
+
+        private final String fingerprint;
+        private final long time;
+
+        Synchronized(String fingerprint, long time) {
+            this.fingerprint = fingerprint;
+            this.time = time;
+        }
+    }
+}
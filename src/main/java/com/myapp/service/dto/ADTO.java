@@ -1,7 +1,9 @@
 package com.myapp.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
 import java.util.Objects;
+import java.util.Set;
 import javax.validation.constraints.*;
 
 /**
@@ -14,6 +16,14 @@ public class ADTO implements Serializable {
     @NotNull(message = "must not be null")
     private String test;
 
+    /**
+     * The bs of the a, only loaded when they are requested with {@code eagerload=true}.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Set<BDTO> bs;
+
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -30,6 +40,22 @@ public class ADTO implements Serializable {
         this.test = test;
     }
 
+    public Set<BDTO> getBs() {
+        return bs;
+    }
+
+    public void setBs(Set<BDTO> bs) {
+        this.bs = bs;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -57,6 +83,7 @@ public class ADTO implements Serializable {
         return "ADTO{" +
             "id=" + getId() +
             ", test='" + getTest() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -12,6 +12,8 @@ public class BDTO implements Serializable {
 
     private ADTO a;
 
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -28,6 +30,14 @@ public class BDTO implements Serializable {
         this.a = a;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -55,6 +65,7 @@ public class BDTO implements Serializable {
         return "BDTO{" +
             "id=" + getId() +
             ", a=" + getA() +
+            ", version=" + getVersion() +
             "}";
     }
 }
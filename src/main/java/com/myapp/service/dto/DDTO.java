@@ -10,6 +10,8 @@ public class DDTO implements Serializable {
 
     private Long id;
 
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -18,6 +20,14 @@ public class DDTO implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -44,6 +54,7 @@ public class DDTO implements Serializable {
     public String toString() {
         return "DDTO{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,76 @@
+package com.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for an entity written by an upsert: the id and the version of its row, and whether the row was inserted or
+ * updated.
+ */
+public class UpsertResultDTO implements Serializable {
+
+    private Long id;
+
+    private Long version;
+
+    private boolean inserted;
+
+    public UpsertResultDTO() {}
+
+    public UpsertResultDTO(Long id, Long version, boolean inserted) {
+        this.id = id;
+        this.version = version;
+        this.inserted = inserted;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public boolean isInserted() {
+        return inserted;
+    }
+
+    public void setInserted(boolean inserted) {
+        this.inserted = inserted;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UpsertResultDTO)) {
+            return false;
+        }
+        UpsertResultDTO that = (UpsertResultDTO) o;
+        return inserted == that.inserted && Objects.equals(id, that.id) && Objects.equals(version, that.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, version, inserted);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UpsertResultDTO{" +
+            "id=" + getId() +
+            ", version=" + getVersion() +
+            ", inserted=" + isInserted() +
+            "}";
+    }
+}
@@ -9,6 +9,17 @@ import org.mapstruct.*;
  */
 @Mapper(componentModel = "spring", uses = {})
 public interface AMapper extends EntityMapper<ADTO, A> {
+    @Mapping(target = "bs", ignore = true)
+    ADTO toDto(A s);
+
+    @Mapping(target = "bs", ignore = true)
+    A toEntity(ADTO aDTO);
+
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "bs", ignore = true)
+    void partialUpdate(@MappingTarget A entity, ADTO dto);
+
     @Named("id")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
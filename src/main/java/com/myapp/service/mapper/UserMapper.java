@@ -2,6 +2,7 @@ package com.myapp.service.mapper;
 
 import com.myapp.domain.Authority;
 import com.myapp.domain.User;
+import com.myapp.security.InternedAuthorities;
 import com.myapp.service.dto.AdminUserDTO;
 import com.myapp.service.dto.UserDTO;
 import java.util.*;
@@ -66,11 +67,7 @@ public class UserMapper {
             authorities =
                 authoritiesAsString
                     .stream()
-                    .map(string -> {
-                        Authority auth = new Authority();
-                        auth.setName(string);
-                        return auth;
-                    })
+                    .map(InternedAuthorities::authority)
                     .collect(Collectors.toSet());
         }
 
@@ -0,0 +1,32 @@
+package com.myapp.web.filter;
+
+import com.myapp.security.AuthoritySetSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Replaces the security context of the request by an {@link AuthoritySetSecurityContext}, so that the authority checks
+ * of the request share one authority set.
+ * <p>
+ * It goes after the authentication filters of the security chain, which put the security context in the Reactor
+ * context under the {@link SecurityContext} key.
+ */
+public class AuthoritySetWebFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return chain
+            .filter(exchange)
+            .contextWrite(context -> {
+                if (!context.hasKey(SecurityContext.class)) {
+                    return context;
+                }
+                // the key is the class, but the value is a Mono of the security context
+                Mono<SecurityContext> securityContext = context.get((Object) SecurityContext.class);
+                return context.put(SecurityContext.class, securityContext.<SecurityContext>map(AuthoritySetSecurityContext::of).cache());
+            });
+    }
+}
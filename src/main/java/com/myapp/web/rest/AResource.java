@@ -1,9 +1,14 @@
 package com.myapp.web.rest;
 
-import com.myapp.repository.ARepository;
+import com.myapp.domain.A;
+import com.myapp.repository.KeysetCursor;
 import com.myapp.service.AService;
 import com.myapp.service.dto.ADTO;
+import com.myapp.service.dto.UpsertResultDTO;
 import com.myapp.web.rest.errors.BadRequestAlertException;
+import com.myapp.web.rest.util.EntityTagUtil;
+import com.myapp.web.rest.util.KeysetPaginationUtil;
+import com.myapp.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -16,7 +21,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -48,11 +52,8 @@ public class AResource {
 
     private final AService aService;
 
-    private final ARepository aRepository;
-
-    public AResource(AService aService, ARepository aRepository) {
+    public AResource(AService aService) {
         this.aService = aService;
-        this.aRepository = aRepository;
     }
 
     /**
@@ -82,19 +83,78 @@ public class AResource {
             });
     }
 
+    /**
+     * {@code POST  /as/bulk} : Create new aS, inserted in batches.
+     *
+     * @param aDTOs the aDTOs to create.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new aDTOs, or with status {@code 400 (Bad Request)} if one of the aS has already an ID.
+     */
+    @PostMapping("/as/bulk")
+    public Mono<ResponseEntity<List<ADTO>>> createAS(@Valid @RequestBody Flux<ADTO> aDTOs) {
+        log.debug("REST request to save a batch of AS");
+        return aService
+            .saveAll(
+                aDTOs.doOnNext(aDTO -> {
+                    if (aDTO.getId() != null) {
+                        throw new BadRequestAlertException("A new a cannot already have an ID", ENTITY_NAME, "idexists");
+                    }
+                })
+            )
+            .collectList()
+            .map(result ->
+                ResponseEntity
+                    .status(HttpStatus.CREATED)
+                    .headers(HeaderUtil.createAlert(applicationName, applicationName + ".a.bulkCreated", String.valueOf(result.size())))
+                    .body(result)
+            );
+    }
+
+    /**
+     * {@code PUT  /as/upsert} : Creates new aS, or updates the aS with the same test, written in batches.
+     *
+     * @param aDTOs the aDTOs to write.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the ids and the versions of the aS, telling which ones were inserted.
+     */
+    @PutMapping("/as/upsert")
+    public Mono<ResponseEntity<List<UpsertResultDTO>>> upsertAS(@Valid @RequestBody Flux<ADTO> aDTOs) {
+        log.debug("REST request to upsert a batch of AS");
+        return aService
+            .upsertAll(aDTOs)
+            .collectList()
+            .map(result -> {
+                long inserted = result.stream().filter(UpsertResultDTO::isInserted).count();
+                return ResponseEntity
+                    .ok()
+                    .headers(
+                        HeaderUtil.createAlert(
+                            applicationName,
+                            applicationName + ".a.bulkUpserted",
+                            inserted + "," + (result.size() - inserted)
+                        )
+                    )
+                    .body(result);
+            });
+    }
+
     /**
      * {@code PUT  /as/:id} : Updates an existing a.
      *
      * @param id the id of the aDTO to save.
+     * @param ifMatch the entity tag of the version to update, if any.
      * @param aDTO the aDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated aDTO,
      * or with status {@code 400 (Bad Request)} if the aDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the aDTO is not current,
+     * or with status {@code 412 (Precondition Failed)} if the version of {@code If-Match} is not current,
      * or with status {@code 500 (Internal Server Error)} if the aDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/as/{id}")
-    public Mono<ResponseEntity<ADTO>> updateA(@PathVariable(value = "id", required = false) final Long id, @Valid @RequestBody ADTO aDTO)
-        throws URISyntaxException {
+    public Mono<ResponseEntity<ADTO>> updateA(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @Valid @RequestBody ADTO aDTO
+    ) throws URISyntaxException {
         log.debug("REST request to update A : {}, {}", id, aDTO);
         if (aDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -103,39 +163,40 @@ public class AResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return aRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                return aService
-                    .save(aDTO)
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(result ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
-                            .body(result)
-                    );
-            });
+        Long version = EntityTagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            aDTO.setVersion(version);
+        }
+        return EntityTagUtil
+            .checkIfMatch(ifMatch, aService.update(aDTO))
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(result ->
+                ResponseEntity
+                    .ok()
+                    .eTag(EntityTagUtil.toEntityTag(result.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                    .body(result)
+            );
     }
 
     /**
      * {@code PATCH  /as/:id} : Partial updates given fields of an existing a, field will ignore if it is null
      *
      * @param id the id of the aDTO to save.
+     * @param ifMatch the entity tag of the version to update, if any.
      * @param aDTO the aDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated aDTO,
      * or with status {@code 400 (Bad Request)} if the aDTO is not valid,
      * or with status {@code 404 (Not Found)} if the aDTO is not found,
+     * or with status {@code 409 (Conflict)} if the version of the aDTO is not current,
+     * or with status {@code 412 (Precondition Failed)} if the version of {@code If-Match} is not current,
      * or with status {@code 500 (Internal Server Error)} if the aDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/as/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public Mono<ResponseEntity<ADTO>> partialUpdateA(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody ADTO aDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update A partially : {}, {}", id, aDTO);
@@ -146,24 +207,20 @@ public class AResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return aRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                Mono<ADTO> result = aService.partialUpdate(aDTO);
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
-            });
+        Long version = EntityTagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            aDTO.setVersion(version);
+        }
+        return EntityTagUtil
+            .checkIfMatch(ifMatch, aService.partialUpdate(aDTO))
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(res ->
+                ResponseEntity
+                    .ok()
+                    .eTag(EntityTagUtil.toEntityTag(res.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
+                    .body(res)
+            );
     }
 
     /**
@@ -171,55 +228,117 @@ public class AResource {
      *
      * @param pageable the pagination information.
      * @param request a {@link ServerHttpRequest} request.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of aS in body.
+     * @param eagerload flag to load the bs of the aS, with one query for the whole page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of aS in body,
+     * without the total count if the count strategy of the entity gave up.
      */
     @GetMapping("/as")
     public Mono<ResponseEntity<List<ADTO>>> getAllAS(
         @org.springdoc.api.annotations.ParameterObject Pageable pageable,
-        ServerHttpRequest request
+        ServerHttpRequest request,
+        @RequestParam(required = false, defaultValue = "false") boolean eagerload
     ) {
         log.debug("REST request to get a page of AS");
+        Flux<ADTO> aDTOs = eagerload ? aService.findAllWithEagerRelationships(pageable) : aService.findAll(pageable);
         return aService
             .countAll()
-            .zipWith(aService.findAll(pageable).collectList())
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .zipWith(aDTOs.collectList())
             .map(countWithEntities ->
                 ResponseEntity
                     .ok()
                     .headers(
-                        PaginationUtil.generatePaginationHttpHeaders(
+                        PaginationHeaderUtil.generatePaginationHttpHeaders(
                             UriComponentsBuilder.fromHttpRequest(request),
-                            new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                            pageable,
+                            countWithEntities.getT2(),
+                            countWithEntities.getT1()
                         )
                     )
                     .body(countWithEntities.getT2())
             );
     }
 
+    /**
+     * {@code GET  /as?after=:cursor} : get the aS following the cursor, using keyset pagination.
+     * An empty cursor returns the first page, the cursor of the next page is sent in the {@code Link} header.
+     *
+     * @param pageable the pagination information, the page number is ignored.
+     * @param after the cursor returned with the previous page.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of aS in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is not valid, or the sort uses a nullable property.
+     */
+    @GetMapping(value = "/as", params = KeysetPaginationUtil.AFTER_PARAMETER)
+    public Mono<ResponseEntity<List<ADTO>>> getAllASAfter(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(KeysetPaginationUtil.AFTER_PARAMETER) String after,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to get a keyset page of AS");
+        KeysetCursor cursor;
+        try {
+            cursor = KeysetCursor.decode(after, pageable.getSort(), A.class);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        return aService
+            .findAll(pageable, cursor)
+            .map(page ->
+                ResponseEntity
+                    .ok()
+                    .headers(KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page))
+                    .body(page.getContent())
+            );
+    }
+
+    /**
+     * {@code GET  /as/stream} : stream all the aS, as newline delimited JSON or server-sent events.
+     * The entities are written as they are read from the database, following the demand of the client.
+     *
+     * @return the {@link Flux} of all the aS.
+     */
+    @GetMapping(value = "/as/stream", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<ADTO> streamAS() {
+        log.debug("REST request to stream all AS");
+        return aService.streamAll();
+    }
+
     /**
      * {@code GET  /as/:id} : get the "id" a.
      *
      * @param id the id of the aDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the aDTO, or with status {@code 404 (Not Found)}.
+     * @param eagerload flag to load the bs of the a.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the aDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} without body if it still has the version of {@code If-None-Match} and its bs are not loaded.
      */
     @GetMapping("/as/{id}")
-    public Mono<ResponseEntity<ADTO>> getA(@PathVariable Long id) {
+    public Mono<ResponseEntity<ADTO>> getA(@PathVariable Long id, @RequestParam(required = false, defaultValue = "false") boolean eagerload) {
         log.debug("REST request to get A : {}", id);
-        Mono<ADTO> aDTO = aService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(aDTO);
+        if (eagerload) {
+            // the version of the a does not change with its bs, so it does not tag them
+            return ResponseUtil.wrapOrNotFound(aService.findOneWithEagerRelationships(id));
+        }
+        return EntityTagUtil.wrapOrNotFound(aService.findOne(id), ADTO::getVersion);
     }
 
     /**
      * {@code DELETE  /as/:id} : delete the "id" a.
      *
      * @param id the id of the aDTO to delete.
+     * @param cascade flag to delete the bs of the a too.
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
     @DeleteMapping("/as/{id}")
     @ResponseStatus(code = HttpStatus.NO_CONTENT)
-    public Mono<ResponseEntity<Void>> deleteA(@PathVariable Long id) {
+    public Mono<ResponseEntity<Void>> deleteA(
+        @PathVariable Long id,
+        @RequestParam(required = false, defaultValue = "false") boolean cascade
+    ) {
         log.debug("REST request to delete A : {}", id);
         return aService
-            .delete(id)
+            .delete(id, cascade)
             .map(result ->
                 ResponseEntity
                     .noContent()
@@ -1,9 +1,13 @@
 package com.myapp.web.rest;
 
-import com.myapp.repository.BRepository;
+import com.myapp.domain.B;
+import com.myapp.repository.KeysetCursor;
 import com.myapp.service.BService;
 import com.myapp.service.dto.BDTO;
 import com.myapp.web.rest.errors.BadRequestAlertException;
+import com.myapp.web.rest.util.EntityTagUtil;
+import com.myapp.web.rest.util.KeysetPaginationUtil;
+import com.myapp.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -14,7 +18,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -28,7 +31,6 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.myapp.domain.B}.
@@ -46,11 +48,8 @@ public class BResource {
 
     private final BService bService;
 
-    private final BRepository bRepository;
-
-    public BResource(BService bService, BRepository bRepository) {
+    public BResource(BService bService) {
         this.bService = bService;
-        this.bRepository = bRepository;
     }
 
     /**
@@ -84,15 +83,21 @@ public class BResource {
      * {@code PUT  /bs/:id} : Updates an existing b.
      *
      * @param id the id of the bDTO to save.
+     * @param ifMatch the entity tag of the version to update, if any.
      * @param bDTO the bDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bDTO,
      * or with status {@code 400 (Bad Request)} if the bDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the bDTO is not current,
+     * or with status {@code 412 (Precondition Failed)} if the version of {@code If-Match} is not current,
      * or with status {@code 500 (Internal Server Error)} if the bDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/bs/{id}")
-    public Mono<ResponseEntity<BDTO>> updateB(@PathVariable(value = "id", required = false) final Long id, @RequestBody BDTO bDTO)
-        throws URISyntaxException {
+    public Mono<ResponseEntity<BDTO>> updateB(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody BDTO bDTO
+    ) throws URISyntaxException {
         log.debug("REST request to update B : {}, {}", id, bDTO);
         if (bDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -101,39 +106,42 @@ public class BResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return bRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                return bService
-                    .save(bDTO)
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(result ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
-                            .body(result)
-                    );
-            });
+        Long version = EntityTagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            bDTO.setVersion(version);
+        }
+        return EntityTagUtil
+            .checkIfMatch(ifMatch, bService.update(bDTO))
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(result ->
+                ResponseEntity
+                    .ok()
+                    .eTag(EntityTagUtil.toEntityTag(result.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                    .body(result)
+            );
     }
 
     /**
      * {@code PATCH  /bs/:id} : Partial updates given fields of an existing b, field will ignore if it is null
      *
      * @param id the id of the bDTO to save.
+     * @param ifMatch the entity tag of the version to update, if any.
      * @param bDTO the bDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bDTO,
      * or with status {@code 400 (Bad Request)} if the bDTO is not valid,
      * or with status {@code 404 (Not Found)} if the bDTO is not found,
+     * or with status {@code 409 (Conflict)} if the version of the bDTO is not current,
+     * or with status {@code 412 (Precondition Failed)} if the version of {@code If-Match} is not current,
      * or with status {@code 500 (Internal Server Error)} if the bDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/bs/{id}", consumes = { "application/json", "application/merge-patch+json" })
-    public Mono<ResponseEntity<BDTO>> partialUpdateB(@PathVariable(value = "id", required = false) final Long id, @RequestBody BDTO bDTO)
-        throws URISyntaxException {
+    public Mono<ResponseEntity<BDTO>> partialUpdateB(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody BDTO bDTO
+    ) throws URISyntaxException {
         log.debug("REST request to partial update B partially : {}, {}", id, bDTO);
         if (bDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -142,24 +150,20 @@ public class BResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return bRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                Mono<BDTO> result = bService.partialUpdate(bDTO);
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
-            });
+        Long version = EntityTagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            bDTO.setVersion(version);
+        }
+        return EntityTagUtil
+            .checkIfMatch(ifMatch, bService.partialUpdate(bDTO))
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(res ->
+                ResponseEntity
+                    .ok()
+                    .eTag(EntityTagUtil.toEntityTag(res.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
+                    .body(res)
+            );
     }
 
     /**
@@ -167,7 +171,8 @@ public class BResource {
      *
      * @param pageable the pagination information.
      * @param request a {@link ServerHttpRequest} request.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of bS in body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of bS in body,
+     * without the total count if the count strategy of the entity gave up.
      */
     @GetMapping("/bs")
     public Mono<ResponseEntity<List<BDTO>>> getAllBS(
@@ -177,31 +182,81 @@ public class BResource {
         log.debug("REST request to get a page of BS");
         return bService
             .countAll()
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
             .zipWith(bService.findAll(pageable).collectList())
             .map(countWithEntities ->
                 ResponseEntity
                     .ok()
                     .headers(
-                        PaginationUtil.generatePaginationHttpHeaders(
+                        PaginationHeaderUtil.generatePaginationHttpHeaders(
                             UriComponentsBuilder.fromHttpRequest(request),
-                            new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                            pageable,
+                            countWithEntities.getT2(),
+                            countWithEntities.getT1()
                         )
                     )
                     .body(countWithEntities.getT2())
             );
     }
 
+    /**
+     * {@code GET  /bs?after=:cursor} : get the bS following the cursor, using keyset pagination.
+     * An empty cursor returns the first page, the cursor of the next page is sent in the {@code Link} header.
+     *
+     * @param pageable the pagination information, the page number is ignored.
+     * @param after the cursor returned with the previous page.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of bS in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is not valid, or the sort uses a nullable property.
+     */
+    @GetMapping(value = "/bs", params = KeysetPaginationUtil.AFTER_PARAMETER)
+    public Mono<ResponseEntity<List<BDTO>>> getAllBSAfter(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(KeysetPaginationUtil.AFTER_PARAMETER) String after,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to get a keyset page of BS");
+        KeysetCursor cursor;
+        try {
+            cursor = KeysetCursor.decode(after, pageable.getSort(), B.class);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        return bService
+            .findAll(pageable, cursor)
+            .map(page ->
+                ResponseEntity
+                    .ok()
+                    .headers(KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page))
+                    .body(page.getContent())
+            );
+    }
+
+    /**
+     * {@code GET  /bs/stream} : stream all the bS, as newline delimited JSON or server-sent events.
+     * The entities are written as they are read from the database, following the demand of the client.
+     *
+     * @return the {@link Flux} of all the bS.
+     */
+    @GetMapping(value = "/bs/stream", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<BDTO> streamBS() {
+        log.debug("REST request to stream all BS");
+        return bService.streamAll();
+    }
+
     /**
      * {@code GET  /bs/:id} : get the "id" b.
      *
      * @param id the id of the bDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the bDTO, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the bDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} without body if it still has the version of {@code If-None-Match}.
      */
     @GetMapping("/bs/{id}")
     public Mono<ResponseEntity<BDTO>> getB(@PathVariable Long id) {
         log.debug("REST request to get B : {}", id);
         Mono<BDTO> bDTO = bService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(bDTO);
+        return EntityTagUtil.wrapOrNotFound(bDTO, BDTO::getVersion);
     }
 
     /**
@@ -223,4 +278,24 @@ public class BResource {
                     .build()
             );
     }
+
+    /**
+     * {@code DELETE  /bs?aId=:aId} : delete the bs of the "aId" a.
+     *
+     * @param aId the id of the a of the bDTOs to delete.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @DeleteMapping(value = "/bs", params = "aId")
+    @ResponseStatus(code = HttpStatus.NO_CONTENT)
+    public Mono<ResponseEntity<Void>> deleteBSByA(@RequestParam Long aId) {
+        log.debug("REST request to delete the BS of A : {}", aId);
+        return bService
+            .deleteAllByA(aId)
+            .map(count ->
+                ResponseEntity
+                    .noContent()
+                    .headers(HeaderUtil.createAlert(applicationName, applicationName + ".b.bulkDeleted", String.valueOf(count)))
+                    .<Void>build()
+            );
+    }
 }
@@ -1,9 +1,10 @@
 package com.myapp.web.rest;
 
-import com.myapp.repository.CRepository;
 import com.myapp.service.CService;
 import com.myapp.service.dto.CDTO;
 import com.myapp.web.rest.errors.BadRequestAlertException;
+import com.myapp.web.rest.util.EntityTagUtil;
+import com.myapp.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -14,7 +15,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -27,8 +27,6 @@ import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.myapp.domain.C}.
@@ -46,11 +44,8 @@ public class CResource {
 
     private final CService cService;
 
-    private final CRepository cRepository;
-
-    public CResource(CService cService, CRepository cRepository) {
+    public CResource(CService cService) {
         this.cService = cService;
-        this.cRepository = cRepository;
     }
 
     /**
@@ -84,15 +79,21 @@ public class CResource {
      * {@code PUT  /cs/:id} : Updates an existing c.
      *
      * @param id the id of the cDTO to save.
+     * @param ifMatch the entity tag of the version to update, if any.
      * @param cDTO the cDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated cDTO,
      * or with status {@code 400 (Bad Request)} if the cDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the cDTO is not current,
+     * or with status {@code 412 (Precondition Failed)} if the version of {@code If-Match} is not current,
      * or with status {@code 500 (Internal Server Error)} if the cDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/cs/{id}")
-    public Mono<ResponseEntity<CDTO>> updateC(@PathVariable(value = "id", required = false) final Long id, @RequestBody CDTO cDTO)
-        throws URISyntaxException {
+    public Mono<ResponseEntity<CDTO>> updateC(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody CDTO cDTO
+    ) throws URISyntaxException {
         log.debug("REST request to update C : {}, {}", id, cDTO);
         if (cDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -101,39 +102,42 @@ public class CResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return cRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                return cService
-                    .save(cDTO)
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(result ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
-                            .body(result)
-                    );
-            });
+        Long version = EntityTagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            cDTO.setVersion(version);
+        }
+        return EntityTagUtil
+            .checkIfMatch(ifMatch, cService.update(cDTO))
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(result ->
+                ResponseEntity
+                    .ok()
+                    .eTag(EntityTagUtil.toEntityTag(result.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                    .body(result)
+            );
     }
 
     /**
      * {@code PATCH  /cs/:id} : Partial updates given fields of an existing c, field will ignore if it is null
      *
      * @param id the id of the cDTO to save.
+     * @param ifMatch the entity tag of the version to update, if any.
      * @param cDTO the cDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated cDTO,
      * or with status {@code 400 (Bad Request)} if the cDTO is not valid,
      * or with status {@code 404 (Not Found)} if the cDTO is not found,
+     * or with status {@code 409 (Conflict)} if the version of the cDTO is not current,
+     * or with status {@code 412 (Precondition Failed)} if the version of {@code If-Match} is not current,
      * or with status {@code 500 (Internal Server Error)} if the cDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/cs/{id}", consumes = { "application/json", "application/merge-patch+json" })
-    public Mono<ResponseEntity<CDTO>> partialUpdateC(@PathVariable(value = "id", required = false) final Long id, @RequestBody CDTO cDTO)
-        throws URISyntaxException {
+    public Mono<ResponseEntity<CDTO>> partialUpdateC(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody CDTO cDTO
+    ) throws URISyntaxException {
         log.debug("REST request to partial update C partially : {}, {}", id, cDTO);
         if (cDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -142,24 +146,20 @@ public class CResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return cRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                Mono<CDTO> result = cService.partialUpdate(cDTO);
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
-            });
+        Long version = EntityTagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            cDTO.setVersion(version);
+        }
+        return EntityTagUtil
+            .checkIfMatch(ifMatch, cService.partialUpdate(cDTO))
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(res ->
+                ResponseEntity
+                    .ok()
+                    .eTag(EntityTagUtil.toEntityTag(res.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
+                    .body(res)
+            );
     }
 
     /**
@@ -167,7 +167,8 @@ public class CResource {
      *
      * @param pageable the pagination information.
      * @param request a {@link ServerHttpRequest} request.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of cS in body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of cS in body,
+     * without the total count if the count strategy of the entity gave up.
      */
     @GetMapping("/cs")
     public Mono<ResponseEntity<List<CDTO>>> getAllCS(
@@ -177,31 +178,48 @@ public class CResource {
         log.debug("REST request to get a page of CS");
         return cService
             .countAll()
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
             .zipWith(cService.findAll(pageable).collectList())
             .map(countWithEntities ->
                 ResponseEntity
                     .ok()
                     .headers(
-                        PaginationUtil.generatePaginationHttpHeaders(
+                        PaginationHeaderUtil.generatePaginationHttpHeaders(
                             UriComponentsBuilder.fromHttpRequest(request),
-                            new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                            pageable,
+                            countWithEntities.getT2(),
+                            countWithEntities.getT1()
                         )
                     )
                     .body(countWithEntities.getT2())
             );
     }
 
+    /**
+     * {@code GET  /cs/stream} : stream all the cS, as newline delimited JSON or server-sent events.
+     * The entities are written as they are read from the database, following the demand of the client.
+     *
+     * @return the {@link Flux} of all the cS.
+     */
+    @GetMapping(value = "/cs/stream", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<CDTO> streamCS() {
+        log.debug("REST request to stream all CS");
+        return cService.streamAll();
+    }
+
     /**
      * {@code GET  /cs/:id} : get the "id" c.
      *
      * @param id the id of the cDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the cDTO, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the cDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} without body if it still has the version of {@code If-None-Match}.
      */
     @GetMapping("/cs/{id}")
     public Mono<ResponseEntity<CDTO>> getC(@PathVariable Long id) {
         log.debug("REST request to get C : {}", id);
         Mono<CDTO> cDTO = cService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(cDTO);
+        return EntityTagUtil.wrapOrNotFound(cDTO, CDTO::getVersion);
     }
 
     /**
@@ -1,9 +1,10 @@
 package com.myapp.web.rest;
 
-import com.myapp.repository.DRepository;
 import com.myapp.service.DService;
 import com.myapp.service.dto.DDTO;
 import com.myapp.web.rest.errors.BadRequestAlertException;
+import com.myapp.web.rest.util.EntityTagUtil;
+import com.myapp.web.rest.util.PaginationHeaderUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -14,7 +15,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -27,8 +27,6 @@ import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.myapp.domain.D}.
@@ -46,11 +44,8 @@ public class DResource {
 
     private final DService dService;
 
-    private final DRepository dRepository;
-
-    public DResource(DService dService, DRepository dRepository) {
+    public DResource(DService dService) {
         this.dService = dService;
-        this.dRepository = dRepository;
     }
 
     /**
@@ -84,15 +79,21 @@ public class DResource {
      * {@code PUT  /ds/:id} : Updates an existing d.
      *
      * @param id the id of the dDTO to save.
+     * @param ifMatch the entity tag of the version to update, if any.
      * @param dDTO the dDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated dDTO,
      * or with status {@code 400 (Bad Request)} if the dDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the dDTO is not current,
+     * or with status {@code 412 (Precondition Failed)} if the version of {@code If-Match} is not current,
      * or with status {@code 500 (Internal Server Error)} if the dDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/ds/{id}")
-    public Mono<ResponseEntity<DDTO>> updateD(@PathVariable(value = "id", required = false) final Long id, @RequestBody DDTO dDTO)
-        throws URISyntaxException {
+    public Mono<ResponseEntity<DDTO>> updateD(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody DDTO dDTO
+    ) throws URISyntaxException {
         log.debug("REST request to update D : {}, {}", id, dDTO);
         if (dDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -101,39 +102,42 @@ public class DResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return dRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                return dService
-                    .save(dDTO)
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(result ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
-                            .body(result)
-                    );
-            });
+        Long version = EntityTagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            dDTO.setVersion(version);
+        }
+        return EntityTagUtil
+            .checkIfMatch(ifMatch, dService.update(dDTO))
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(result ->
+                ResponseEntity
+                    .ok()
+                    .eTag(EntityTagUtil.toEntityTag(result.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                    .body(result)
+            );
     }
 
     /**
      * {@code PATCH  /ds/:id} : Partial updates given fields of an existing d, field will ignore if it is null
      *
      * @param id the id of the dDTO to save.
+     * @param ifMatch the entity tag of the version to update, if any.
      * @param dDTO the dDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated dDTO,
      * or with status {@code 400 (Bad Request)} if the dDTO is not valid,
      * or with status {@code 404 (Not Found)} if the dDTO is not found,
+     * or with status {@code 409 (Conflict)} if the version of the dDTO is not current,
+     * or with status {@code 412 (Precondition Failed)} if the version of {@code If-Match} is not current,
      * or with status {@code 500 (Internal Server Error)} if the dDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/ds/{id}", consumes = { "application/json", "application/merge-patch+json" })
-    public Mono<ResponseEntity<DDTO>> partialUpdateD(@PathVariable(value = "id", required = false) final Long id, @RequestBody DDTO dDTO)
-        throws URISyntaxException {
+    public Mono<ResponseEntity<DDTO>> partialUpdateD(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody DDTO dDTO
+    ) throws URISyntaxException {
         log.debug("REST request to partial update D partially : {}, {}", id, dDTO);
         if (dDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -142,24 +146,20 @@ public class DResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return dRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                Mono<DDTO> result = dService.partialUpdate(dDTO);
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
-            });
+        Long version = EntityTagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            dDTO.setVersion(version);
+        }
+        return EntityTagUtil
+            .checkIfMatch(ifMatch, dService.partialUpdate(dDTO))
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(res ->
+                ResponseEntity
+                    .ok()
+                    .eTag(EntityTagUtil.toEntityTag(res.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
+                    .body(res)
+            );
     }
 
     /**
@@ -167,7 +167,8 @@ public class DResource {
      *
      * @param pageable the pagination information.
      * @param request a {@link ServerHttpRequest} request.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of dS in body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of dS in body,
+     * without the total count if the count strategy of the entity gave up.
      */
     @GetMapping("/ds")
     public Mono<ResponseEntity<List<DDTO>>> getAllDS(
@@ -177,31 +178,48 @@ public class DResource {
         log.debug("REST request to get a page of DS");
         return dService
             .countAll()
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
             .zipWith(dService.findAll(pageable).collectList())
             .map(countWithEntities ->
                 ResponseEntity
                     .ok()
                     .headers(
-                        PaginationUtil.generatePaginationHttpHeaders(
+                        PaginationHeaderUtil.generatePaginationHttpHeaders(
                             UriComponentsBuilder.fromHttpRequest(request),
-                            new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                            pageable,
+                            countWithEntities.getT2(),
+                            countWithEntities.getT1()
                         )
                     )
                     .body(countWithEntities.getT2())
             );
     }
 
+    /**
+     * {@code GET  /ds/stream} : stream all the dS, as newline delimited JSON or server-sent events.
+     * The entities are written as they are read from the database, following the demand of the client.
+     *
+     * @return the {@link Flux} of all the dS.
+     */
+    @GetMapping(value = "/ds/stream", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<DDTO> streamDS() {
+        log.debug("REST request to stream all DS");
+        return dService.streamAll();
+    }
+
     /**
      * {@code GET  /ds/:id} : get the "id" d.
      *
      * @param id the id of the dDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the dDTO, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the dDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} without body if it still has the version of {@code If-None-Match}.
      */
     @GetMapping("/ds/{id}")
     public Mono<ResponseEntity<DDTO>> getD(@PathVariable Long id) {
         log.debug("REST request to get D : {}", id);
         Mono<DDTO> dDTO = dService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(dDTO);
+        return EntityTagUtil.wrapOrNotFound(dDTO, DDTO::getVersion);
     }
 
     /**
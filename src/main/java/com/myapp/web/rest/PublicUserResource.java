@@ -2,12 +2,12 @@ package com.myapp.web.rest;
 
 import com.myapp.service.UserService;
 import com.myapp.service.dto.UserDTO;
-import java.util.ArrayList;
+import com.myapp.web.rest.util.PaginationHeaderUtil;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,9 +15,7 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import tech.jhipster.web.util.PaginationUtil;
 
 @RestController
 @RequestMapping("/api")
@@ -36,10 +34,11 @@ public class PublicUserResource {
      *
      * @param request a {@link ServerHttpRequest} request.
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users,
+     * without the total count if the count strategy of the users gave up.
      */
     @GetMapping("/users")
-    public Mono<ResponseEntity<Flux<UserDTO>>> getAllPublicUsers(
+    public Mono<ResponseEntity<List<UserDTO>>> getAllPublicUsers(
         ServerHttpRequest request,
         @org.springdoc.api.annotations.ParameterObject Pageable pageable
     ) {
@@ -47,9 +46,22 @@ public class PublicUserResource {
 
         return userService
             .countManagedUsers()
-            .map(total -> new PageImpl<>(new ArrayList<>(), pageable, total))
-            .map(page -> PaginationUtil.generatePaginationHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page))
-            .map(headers -> ResponseEntity.ok().headers(headers).body(userService.getAllPublicUsers(pageable)));
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .zipWith(userService.getAllPublicUsers(pageable).collectList())
+            .map(countWithUsers ->
+                ResponseEntity
+                    .ok()
+                    .headers(
+                        PaginationHeaderUtil.generatePaginationHttpHeaders(
+                            UriComponentsBuilder.fromHttpRequest(request),
+                            pageable,
+                            countWithUsers.getT2(),
+                            countWithUsers.getT1()
+                        )
+                    )
+                    .body(countWithUsers.getT2())
+            );
     }
 
     /**
@@ -0,0 +1,89 @@
+package com.myapp.web.rest.util;
+
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class for the entity tags of the versioned entities, which make their requests conditional.
+ *
+ * <p>
+ * The tag of an entity is its version, as a strong entity tag like {@code "3"}. A {@code GET} whose
+ * {@code If-None-Match} header holds the current tag is answered by Spring with {@code 304 (Not Modified)}, without
+ * writing the body. An update whose {@code If-Match} header holds another tag fails with
+ * {@code 412 (Precondition Failed)}.
+ */
+public final class EntityTagUtil {
+
+    private static final Pattern VERSION_TAG = Pattern.compile("^\"(\\d{1,18})\"$");
+
+    private EntityTagUtil() {}
+
+    /**
+     * Get the entity tag of a version.
+     *
+     * @param version the version of the entity.
+     * @return the quoted entity tag.
+     */
+    public static String toEntityTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Wrap the entity into a {@link ResponseEntity} with status {@code 200 (OK)} and its entity tag, or a
+     * {@link ResponseStatusException} with status {@code 404 (Not Found)} if it is empty.
+     *
+     * @param maybeResponse the entity to return.
+     * @param version gets the version of the entity.
+     * @param <X> the type of the entity.
+     * @return the response.
+     */
+    public static <X> Mono<ResponseEntity<X>> wrapOrNotFound(Mono<X> maybeResponse, Function<X, Long> version) {
+        return maybeResponse
+            .map(response -> ResponseEntity.ok().eTag(toEntityTag(version.apply(response))).body(response))
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
+    }
+
+    /**
+     * Get the version required by an {@code If-Match} header.
+     *
+     * @param ifMatch the value of the header, or null.
+     * @return the version, or null if there is no header, or if it matches any version.
+     * @throws ResponseStatusException with status {@code 412 (Precondition Failed)} if the header does not hold the tag
+     * of a version, as no version could match it.
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Matcher matcher = VERSION_TAG.matcher(ifMatch.trim());
+        if (!matcher.matches()) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not hold the tag of a version");
+        }
+        return Long.valueOf(matcher.group(1));
+    }
+
+    /**
+     * Fail an update with status {@code 412 (Precondition Failed)} when the version of its {@code If-Match} header is
+     * not current anymore. Without the header, a stale version of the body fails with status {@code 409 (Conflict)}.
+     *
+     * @param ifMatch the value of the header, or null.
+     * @param update the update of the entity.
+     * @param <X> the type of the entity.
+     * @return the update.
+     */
+    public static <X> Mono<X> checkIfMatch(String ifMatch, Mono<X> update) {
+        if (ifMatch == null) {
+            return update;
+        }
+        return update.onErrorMap(
+            OptimisticLockingFailureException.class,
+            e -> new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage(), e)
+        );
+    }
+}
@@ -0,0 +1,38 @@
+package com.myapp.web.rest.util;
+
+import com.myapp.repository.KeysetPage;
+import java.text.MessageFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (seek) pagination.
+ *
+ * <p>
+ * Keyset pages don't have a number nor a total count, only a link to the next page is generated, which carries the
+ * opaque cursor of the last returned row in the {@code after} query parameter.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String AFTER_PARAMETER = "after";
+
+    private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Generate pagination headers for a keyset page.
+     *
+     * @param uriBuilder the URI builder of the current request.
+     * @param page the keyset page.
+     * @return the {@link HttpHeaders}.
+     */
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(UriComponentsBuilder uriBuilder, KeysetPage<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.hasNext()) {
+            String link = uriBuilder.replaceQueryParam("page").replaceQueryParam(AFTER_PARAMETER, page.getNext().encode()).toUriString();
+            headers.add(HttpHeaders.LINK, MessageFormat.format(HEADER_LINK_FORMAT, link, "next"));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,57 @@
+package com.myapp.web.rest.util;
+
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * Utility class for handling the pagination of the lists whose total count may be unknown.
+ *
+ * <p>
+ * When the total count is known, the headers are the ones of {@link PaginationUtil}. Otherwise the
+ * {@code X-Total-Count} header is omitted, and the {@code Link} header only points to the next page when the current
+ * one is full.
+ */
+public final class PaginationHeaderUtil {
+
+    private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+    private PaginationHeaderUtil() {}
+
+    /**
+     * Generate pagination headers for a page of entities.
+     *
+     * @param uriBuilder the URI builder of the current request.
+     * @param pageable the pagination information.
+     * @param content the entities of the page.
+     * @param total the total count of the entities, if it is known.
+     * @param <T> the type of the entities.
+     * @return the {@link HttpHeaders}.
+     */
+    public static <T> HttpHeaders generatePaginationHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        Pageable pageable,
+        List<T> content,
+        Optional<Long> total
+    ) {
+        if (total.isPresent()) {
+            return PaginationUtil.generatePaginationHttpHeaders(uriBuilder, new PageImpl<>(content, pageable, total.get()));
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (pageable.isPaged() && content.size() == pageable.getPageSize()) {
+            String link = uriBuilder
+                .replaceQueryParam("page", Integer.toString(pageable.getPageNumber() + 1))
+                .replaceQueryParam("size", Integer.toString(pageable.getPageSize()))
+                .toUriString()
+                .replace(",", "%2C")
+                .replace(";", "%3B");
+            headers.add(HttpHeaders.LINK, MessageFormat.format(HEADER_LINK_FORMAT, link, "next"));
+        }
+        return headers;
+    }
+}
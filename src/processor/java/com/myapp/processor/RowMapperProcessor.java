@@ -0,0 +1,283 @@
+package com.myapp.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates the column list ({@code <Entity>SqlHelper}, in the {@code repository} package) and the row mapper
+ * ({@code <Entity>RowMapper}, in the {@code repository.rowmapper} package) of every class annotated with Spring Data's
+ * {@code @Table}, the packages being siblings of the package of the entity.
+ * <p>
+ * The persistent fields are the non-static, non-transient fields of the class and its superclasses, which are not
+ * annotated with {@code @Transient}. The column name is the value of {@code @Column}, or the snake case field name,
+ * like Spring Data's default naming strategy. Every persistent field needs a setter.
+ */
+@SupportedAnnotationTypes(RowMapperProcessor.TABLE_ANNOTATION)
+public class RowMapperProcessor extends AbstractProcessor {
+
+    static final String TABLE_ANNOTATION = "org.springframework.data.relational.core.mapping.Table";
+    private static final String COLUMN_ANNOTATION = "org.springframework.data.relational.core.mapping.Column";
+    private static final String TRANSIENT_ANNOTATION = "org.springframework.data.annotation.Transient";
+
+    private static final String REPOSITORY_PACKAGE = "repository";
+    private static final String ROW_MAPPER_PACKAGE = "repository.rowmapper";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS && !element.getModifiers().contains(Modifier.ABSTRACT)) {
+                    process((TypeElement) element);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void process(TypeElement entity) {
+        List<PersistentField> fields = getPersistentFields(entity);
+        if (fields == null) {
+            return;
+        }
+        String entityPackage = processingEnv.getElementUtils().getPackageOf(entity).getQualifiedName().toString();
+        String basePackage = entityPackage.contains(".") ? entityPackage.substring(0, entityPackage.lastIndexOf('.') + 1) : "";
+        try {
+            writeSqlHelper(entity, basePackage + REPOSITORY_PACKAGE, fields);
+            writeRowMapper(entity, basePackage + ROW_MAPPER_PACKAGE, fields);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to generate the row mapper: " + e.getMessage(), entity);
+        }
+    }
+
+    private List<PersistentField> getPersistentFields(TypeElement entity) {
+        List<PersistentField> fields = new ArrayList<>();
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(entity));
+        boolean valid = true;
+        for (TypeElement type = entity; type != null; type = getSuperclass(type)) {
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                if (
+                    field.getModifiers().contains(Modifier.STATIC) ||
+                    field.getModifiers().contains(Modifier.TRANSIENT) ||
+                    getAnnotation(field, TRANSIENT_ANNOTATION) != null
+                ) {
+                    continue;
+                }
+                String name = field.getSimpleName().toString();
+                String setter = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+                if (methods.stream().noneMatch(method -> method.getSimpleName().contentEquals(setter) && method.getParameters().size() == 1)) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "The persistent field has no " + setter + " method", field);
+                    valid = false;
+                    continue;
+                }
+                fields.add(new PersistentField(getColumnName(field), setter, field.asType()));
+            }
+        }
+        return valid ? fields : null;
+    }
+
+    private TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    private String getColumnName(VariableElement field) {
+        AnnotationMirror column = getAnnotation(field, COLUMN_ANNOTATION);
+        if (column != null) {
+            for (ExecutableElement attribute : column.getElementValues().keySet()) {
+                if (attribute.getSimpleName().contentEquals("value")) {
+                    AnnotationValue value = column.getElementValues().get(attribute);
+                    if (!value.getValue().toString().isEmpty()) {
+                        return value.getValue().toString();
+                    }
+                }
+            }
+        }
+        String name = field.getSimpleName().toString();
+        StringBuilder columnName = new StringBuilder();
+        for (char c : name.toCharArray()) {
+            if (Character.isUpperCase(c)) {
+                columnName.append('_').append(Character.toLowerCase(c));
+            } else {
+                columnName.append(c);
+            }
+        }
+        return columnName.toString();
+    }
+
+    private static AnnotationMirror getAnnotation(Element element, String annotationType) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private void writeSqlHelper(TypeElement entity, String packageName, List<PersistentField> fields) throws IOException {
+        String className = entity.getSimpleName() + "SqlHelper";
+        try (
+            PrintWriter out = new PrintWriter(
+                processingEnv.getFiler().createSourceFile(packageName + "." + className, entity).openWriter()
+            )
+        ) {
+            out.println("package " + packageName + ";");
+            out.println();
+            out.println("import java.util.ArrayList;");
+            out.println("import java.util.List;");
+            out.println("import javax.annotation.processing.Generated;");
+            out.println("import org.springframework.data.relational.core.sql.Column;");
+            out.println("import org.springframework.data.relational.core.sql.Expression;");
+            out.println("import org.springframework.data.relational.core.sql.Table;");
+            out.println();
+            out.println("@Generated(\"" + RowMapperProcessor.class.getName() + "\")");
+            out.println("public class " + className + " {");
+            out.println();
+            out.println("    public static List<Expression> getColumns(Table table, String columnPrefix) {");
+            out.println("        List<Expression> columns = new ArrayList<>();");
+            for (PersistentField field : fields) {
+                out.println(
+                    "        columns.add(Column.aliased(\"" + field.column + "\", table, columnPrefix + \"_" + field.column + "\"));"
+                );
+            }
+            out.println("        return columns;");
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    private void writeRowMapper(TypeElement entity, String packageName, List<PersistentField> fields) throws IOException {
+        String entityName = entity.getSimpleName().toString();
+        String className = entityName + "RowMapper";
+        List<String> columns = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        for (PersistentField field : fields) {
+            columns.add("\"" + field.column + "\"");
+            types.add(getValueType(field.type) + ".class");
+        }
+        try (
+            PrintWriter out = new PrintWriter(
+                processingEnv.getFiler().createSourceFile(packageName + "." + className, entity).openWriter()
+            )
+        ) {
+            out.println("package " + packageName + ";");
+            out.println();
+            out.println("import " + entity.getQualifiedName() + ";");
+            out.println("import io.r2dbc.spi.Row;");
+            out.println("import io.r2dbc.spi.RowMetadata;");
+            out.println("import java.util.function.BiFunction;");
+            out.println("import javax.annotation.processing.Generated;");
+            out.println("import org.springframework.stereotype.Service;");
+            out.println();
+            out.println("/**");
+            out.println(" * Converter between {@link Row} to {@link " + entityName + "}, with proper type conversions.");
+            out.println(" */");
+            out.println("@Generated(\"" + RowMapperProcessor.class.getName() + "\")");
+            out.println("@Service");
+            out.println("public class " + className + " implements BiFunction<Row, String, " + entityName + "> {");
+            out.println();
+            out.println("    private static final String[] COLUMNS = { " + String.join(", ", columns) + " };");
+            out.println("    private static final Class<?>[] TYPES = { " + String.join(", ", types) + " };");
+            out.println();
+            out.println("    private final ColumnConverter converter;");
+            out.println("    private final RowColumns columns;");
+            out.println();
+            out.println("    public " + className + "(ColumnConverter converter) {");
+            out.println("        this.converter = converter;");
+            out.println("        this.columns = new RowColumns(converter, COLUMNS, TYPES);");
+            out.println("    }");
+            out.println();
+            out.println("    /**");
+            out.println("     * Take a {@link Row} and a column prefix, and extract all the fields.");
+            out.println("     * @return the {@link " + entityName + "} stored in the database.");
+            out.println("     */");
+            out.println("    @Override");
+            out.println("    public " + entityName + " apply(Row row, String prefix) {");
+            out.println("        " + entityName + " entity = new " + entityName + "();");
+            for (int i = 0; i < fields.size(); i++) {
+                PersistentField field = fields.get(i);
+                writeSetter(out, field, i, "converter.fromRow(row, prefix + \"_" + field.column + "\", " + types.get(i) + ")");
+            }
+            out.println("        return entity;");
+            out.println("    }");
+            out.println();
+            out.println("    /**");
+            out.println("     * Take a {@link Row}, its {@link RowMetadata} and a column prefix, and extract all the fields by the ordinals of");
+            out.println("     * the columns, which are resolved once per layout of the columns.");
+            out.println("     * @return the {@link " + entityName + "} stored in the database.");
+            out.println("     */");
+            out.println("    public " + entityName + " apply(Row row, RowMetadata metadata, String prefix) {");
+            out.println("        RowColumns.Reader reader = columns.reader(metadata, prefix);");
+            out.println("        " + entityName + " entity = new " + entityName + "();");
+            for (int i = 0; i < fields.size(); i++) {
+                writeSetter(out, fields.get(i), i, "reader.get(row, " + i + ", " + types.get(i) + ")");
+            }
+            out.println("        return entity;");
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    private void writeSetter(PrintWriter out, PersistentField field, int index, String value) {
+        if (field.type.getKind().isPrimitive()) {
+            // a null column leaves the default value of the primitive field
+            String variable = "value" + index;
+            out.println("        " + getValueType(field.type) + " " + variable + " = " + value + ";");
+            out.println("        if (" + variable + " != null) {");
+            out.println("            entity." + field.setter + "(" + variable + ");");
+            out.println("        }");
+        } else {
+            out.println("        entity." + field.setter + "(" + value + ");");
+        }
+    }
+
+    private String getValueType(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        // the qualified name of the element, as the type itself prints its type annotations, like @Size
+        return ((TypeElement) processingEnv.getTypeUtils().asElement(type)).getQualifiedName().toString();
+    }
+
+    private static final class PersistentField {
+
+        private final String column;
+        private final String setter;
+        private final TypeMirror type;
+
+        PersistentField(String column, String setter, TypeMirror type) {
+            this.column = column;
+            this.setter = setter;
+            this.type = type;
+        }
+    }
+}
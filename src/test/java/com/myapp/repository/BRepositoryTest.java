@@ -3,6 +3,7 @@ package com.myapp.repository;
 import com.myapp.config.LiquibaseConfiguration;
 import com.myapp.domain.A;
 import com.myapp.domain.B;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -29,7 +30,8 @@ class BRepositoryTest {
     @BeforeEach
     void setUp() {
         A a = new A();
-        a.setTest("testing");
+        // the test of an a is unique
+        a.setTest("testing-" + UUID.randomUUID());
         a = aRepository.save(a).block();
         log.info("A ID {}", a.getId());
         B b = new B();
@@ -1,8 +1,13 @@
 package com.myapp.repository;
 
+import com.myapp.config.ApplicationProperties;
 import com.myapp.config.DatabaseConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.TestPropertySource;
@@ -11,6 +16,13 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 @TestConfiguration
 @ComponentScan(basePackages = "com.myapp.repository")
 @Import({ DatabaseConfiguration.class, LiquibaseConfig.class })
+@EnableConfigurationProperties(ApplicationProperties.class)
 @ExtendWith(SpringExtension.class)
 @TestPropertySource(locations = "classpath:config/application.yml")
-public class CustomConfiguration {}
+public class CustomConfiguration {
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -0,0 +1,334 @@
+package com.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+import com.myapp.domain.A;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.PreparedOperation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@CustomR2dbcTests
+class EntityManagerTest {
+
+    private static final Table entityTable = Table.aliased("a", EntityManager.ENTITY_ALIAS);
+    private static final Supplier<SelectFromAndJoin> selectFrom = () ->
+        Select.builder().select(ASqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS)).from(entityTable);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    @Test
+    void updateLinkTableWritesTheDifference() {
+        DatabaseClient db = r2dbcEntityTemplate.getDatabaseClient();
+        db.sql("CREATE TABLE IF NOT EXISTS rel_link_test (owner_id BIGINT NOT NULL, ref_id BIGINT NOT NULL)").then().block();
+        db.sql("DELETE FROM rel_link_test").then().block();
+        EntityManager.LinkTable linkTable = new EntityManager.LinkTable("rel_link_test", "owner_id", "ref_id");
+
+        assertThat(entityManager.updateLinkTable(linkTable, 1L, new long[] { 1, 2, 3, 3 }).block()).isEqualTo(3);
+        assertThat(entityManager.updateLinkTable(linkTable, 2L, new long[] { 1 }).block()).isEqualTo(1);
+        // 1 is removed and 4, 5 are added, 2 and 3 are kept
+        assertThat(entityManager.updateLinkTable(linkTable, 1L, new long[] { 5, 2, 3, 4 }).block()).isEqualTo(3);
+        assertThat(entityManager.updateLinkTable(linkTable, 1L, new long[] { 5, 2, 3, 4 }).block()).isZero();
+
+        List<Long> references = db
+            .sql("SELECT ref_id FROM rel_link_test WHERE owner_id = 1 ORDER BY ref_id")
+            .map(row -> row.get(0, Long.class))
+            .all()
+            .collectList()
+            .block();
+        assertThat(references).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(entityManager.updateLinkTable(linkTable, 2L, new long[0]).block()).isEqualTo(1);
+    }
+
+    @Test
+    void createSelectBindsTheValues() {
+        PreparedOperation<String> select = entityManager.createSelect(
+            selectFrom,
+            A.class,
+            PageRequest.of(1, 2, Sort.by("test")),
+            where("test").in("AAA", "CCC")
+        );
+
+        assertThat(select.toQuery()).doesNotContain("AAA").doesNotContain("CCC").contains("LIMIT").contains("OFFSET");
+    }
+
+    @Test
+    void createSelectReusesTheStatementOfTheSameShape() {
+        PreparedOperation<String> first = entityManager.createSelect(selectFrom, A.class, PageRequest.of(0, 20), where("test").is("AAA"));
+        double hits = meterRegistry.counter("repository.select.cache", "result", "hit").count();
+        PreparedOperation<String> second = entityManager.createSelect(selectFrom, A.class, PageRequest.of(3, 20), where("test").is("BBB"));
+
+        assertThat(second.toQuery()).isSameAs(first.toQuery());
+        assertThat(meterRegistry.counter("repository.select.cache", "result", "hit").count()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void createSelectDistinguishesTheShapes() {
+        PreparedOperation<String> equal = entityManager.createSelect(selectFrom, A.class, null, where("test").is("AAA"));
+        PreparedOperation<String> in = entityManager.createSelect(selectFrom, A.class, null, where("test").in("AAA", "BBB"));
+        PreparedOperation<String> sorted = entityManager.createSelect(
+            selectFrom,
+            A.class,
+            PageRequest.of(0, 20, Sort.by("test")),
+            where("test").is("AAA")
+        );
+        PreparedOperation<String> paged = entityManager.createSelect(selectFrom, A.class, PageRequest.of(0, 20), where("test").is("AAA"));
+
+        assertThat(List.of(equal.toQuery(), in.toQuery(), sorted.toQuery(), paged.toQuery())).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void createSelectEvictsTheLeastRecentlyUsedShape() {
+        PreparedOperation<String> recent = entityManager.createSelect(selectFrom, A.class, null, where("test").is("AAA"));
+        PreparedOperation<String> evicted = entityManager.createSelect(selectFrom, A.class, null, where("test").isNull());
+        for (int size = 1; size <= EntityManager.SELECT_CACHE_MAX_SIZE; size++) {
+            entityManager.createSelect(selectFrom, A.class, null, where("test").is("AAA"));
+            entityManager.createSelect(selectFrom, A.class, null, where("test").in(Collections.nCopies(size, "AAA")));
+        }
+
+        assertThat(entityManager.createSelect(selectFrom, A.class, null, where("test").is("BBB")).toQuery()).isSameAs(recent.toQuery());
+        assertThat(entityManager.createSelect(selectFrom, A.class, null, where("test").isNull()).toQuery())
+            .isEqualTo(evicted.toQuery())
+            .isNotSameAs(evicted.toQuery());
+    }
+
+    @Test
+    void padInListRoundsUpToAPowerOfTwo() {
+        assertThat(EntityManager.padInList(List.of())).isEmpty();
+        assertThat(EntityManager.padInList(List.of(1L))).containsExactly(1L);
+        assertThat(EntityManager.padInList(List.of(1L, 2L, 3L))).containsExactly(1L, 2L, 3L, 3L);
+        assertThat(EntityManager.padInList(List.of(1L, 2L, 3L, 4L))).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(EntityManager.padInList(Collections.nCopies(33, 1L))).hasSize(64);
+    }
+
+    @Test
+    void partialUpdateWritesTheNonNullColumns() {
+        createUpdateTestTable();
+        UpdateTest row = entityManager.insert(new UpdateTest(null, "AAA", 1)).block();
+
+        UpdateTest unchanged = entityManager.partialUpdate(new UpdateTest(row.id, null, null)).block();
+        assertThat(unchanged.name).isEqualTo("AAA");
+        assertThat(unchanged.quantity).isEqualTo(1);
+        UpdateTest updated = entityManager.partialUpdate(new UpdateTest(row.id, null, 2)).block();
+        assertThat(updated.id).isEqualTo(row.id);
+        assertThat(updated.name).isEqualTo("AAA");
+        assertThat(updated.quantity).isEqualTo(2);
+        UpdateTest stored = r2dbcEntityTemplate.selectOne(query(where("id").is(row.id)), UpdateTest.class).block();
+        assertThat(stored.quantity).isEqualTo(2);
+
+        assertThat(entityManager.partialUpdate(new UpdateTest(row.id + 1, "CCC", null)).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void updateIfExistsWritesAllTheColumns() {
+        createUpdateTestTable();
+        UpdateTest row = entityManager.insert(new UpdateTest(null, "AAA", 1)).block();
+
+        assertThat(entityManager.updateIfExists(new UpdateTest(row.id, "BBB", null)).block()).isNotNull();
+        UpdateTest stored = r2dbcEntityTemplate.selectOne(query(where("id").is(row.id)), UpdateTest.class).block();
+        assertThat(stored.name).isEqualTo("BBB");
+        assertThat(stored.quantity).isNull();
+
+        assertThat(entityManager.updateIfExists(new UpdateTest(row.id + 1, "CCC", 3)).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void insertAllAssignsTheIdsOfTheSequence() {
+        DatabaseClient db = r2dbcEntityTemplate.getDatabaseClient();
+        db.sql("CREATE TABLE IF NOT EXISTS sequence_test (id BIGINT PRIMARY KEY, name VARCHAR(50))").then().block();
+        db.sql("CREATE SEQUENCE IF NOT EXISTS sequence_test_seq INCREMENT BY 50").then().block();
+
+        SequenceTest parent = entityManager.assignId(new SequenceTest(null, "parent")).block();
+        assertThat(parent.id).isNotNull();
+        List<SequenceTest> rows = entityManager
+            .insertAll(Flux.just(new SequenceTest(null, "AAA"), parent, new SequenceTest(null, "BBB")))
+            .collectList()
+            .block();
+
+        assertThat(rows).extracting(row -> row.id).containsExactly(parent.id + 1, parent.id, parent.id + 2);
+        List<String> stored = db
+            .sql("SELECT name FROM sequence_test WHERE id >= :id ORDER BY id")
+            .bind("id", parent.id)
+            .map(row -> row.get(0, String.class))
+            .all()
+            .collectList()
+            .block();
+        assertThat(stored).containsExactly("parent", "AAA", "BBB");
+    }
+
+    @Test
+    void unitOfWorkFlushesTheWritesWhenTheOperationCompletes() {
+        createParentChildTestTables();
+        DatabaseClient db = r2dbcEntityTemplate.getDatabaseClient();
+        ParentTest removed = entityManager.insert(new ParentTest(null, "removed")).block();
+        ChildTest removedChild = entityManager.insert(new ChildTest(null, removed)).block();
+        Mono<Long> parentCount = db.sql("SELECT COUNT(*) FROM parent_test").map(row -> row.get(0, Long.class)).one();
+
+        // the children are registered before their parent, the parent is deleted before its child
+        ParentTest parent = entityManager.assignId(new ParentTest(null, "parent")).block();
+        Mono<Void> otherWrites = entityManager
+            .registerNew(parent)
+            .then(entityManager.registerDeleted(ParentTest.class, removed.id))
+            .then(entityManager.registerDeleted(ChildTest.class, removedChild.id))
+            .then(parentCount.doOnNext(count -> assertThat(count).as("the parents before the flush").isEqualTo(1)))
+            .then();
+        List<ChildTest> children = entityManager
+            .inUnitOfWork(
+                Flux
+                    .range(0, 3)
+                    .concatMap(i -> entityManager.registerNew(new ChildTest(null, parent)))
+                    .concatWith(otherWrites.cast(ChildTest.class))
+            )
+            .collectList()
+            .block();
+
+        assertThat(parent.version).isZero();
+        assertThat(children).hasSize(3).allSatisfy(child -> assertThat(child.id).isNotNull());
+        Long childCount = db
+            .sql("SELECT COUNT(*) FROM child_test WHERE parent_id = :id")
+            .bind("id", parent.id)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .block();
+        assertThat(childCount).isEqualTo(3);
+        assertThat(parentCount.block()).isEqualTo(1);
+    }
+
+    @Test
+    void unitOfWorkUpdatesTheRowsOfTheirVersion() {
+        createParentChildTestTables();
+        ParentTest first = entityManager.insert(new ParentTest(null, "AAA")).block();
+        ParentTest second = entityManager.insert(new ParentTest(null, "BBB")).block();
+
+        first.name = "CCC";
+        second.name = "DDD";
+        entityManager.inUnitOfWork(entityManager.registerDirty(first).then(entityManager.registerDirty(second))).block();
+        assertThat(first.version).isEqualTo(1);
+        List<String> names = r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql("SELECT name FROM parent_test ORDER BY id")
+            .map(row -> row.get(0, String.class))
+            .all()
+            .collectList()
+            .block();
+        assertThat(names).containsExactly("CCC", "DDD");
+
+        ParentTest stale = new ParentTest(first.id, "EEE");
+        stale.version = 0L;
+        assertThatThrownBy(() -> entityManager.inUnitOfWork(entityManager.registerDirty(stale)).block())
+            .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    private void createParentChildTestTables() {
+        DatabaseClient db = r2dbcEntityTemplate.getDatabaseClient();
+        db.sql("DROP TABLE IF EXISTS child_test").then().block();
+        db.sql("DROP TABLE IF EXISTS parent_test").then().block();
+        db.sql("CREATE TABLE parent_test (id BIGINT PRIMARY KEY, name VARCHAR(50), version BIGINT NOT NULL)").then().block();
+        db
+            .sql("CREATE TABLE child_test (id BIGINT PRIMARY KEY, parent_id BIGINT NOT NULL REFERENCES parent_test (id))")
+            .then()
+            .block();
+        db.sql("CREATE SEQUENCE IF NOT EXISTS parent_test_seq INCREMENT BY 50").then().block();
+        db.sql("CREATE SEQUENCE IF NOT EXISTS child_test_seq INCREMENT BY 50").then().block();
+    }
+
+    private void createUpdateTestTable() {
+        r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql("CREATE TABLE IF NOT EXISTS update_test (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50), quantity INT)")
+            .then()
+            .block();
+    }
+
+    // mapped to the update_test table by the default naming strategy
+    static class UpdateTest {
+
+        @Id
+        Long id;
+
+        String name;
+
+        Integer quantity;
+
+        UpdateTest(Long id, String name, Integer quantity) {
+            this.id = id;
+            this.name = name;
+            this.quantity = quantity;
+        }
+    }
+
+    // mapped to the sequence_test table, whose ids are drawn from sequence_test_seq
+    static class SequenceTest {
+
+        @Id
+        Long id;
+
+        String name;
+
+        SequenceTest(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    // mapped to the parent_test table
+    static class ParentTest {
+
+        @Id
+        Long id;
+
+        String name;
+
+        @Version
+        Long version;
+
+        ParentTest(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    // mapped to the child_test table, the unit of work inserts it after its parent
+    static class ChildTest {
+
+        @Id
+        Long id;
+
+        @Transient
+        ParentTest parent;
+
+        Long parentId;
+
+        ChildTest(Long id, ParentTest parent) {
+            this.id = id;
+            this.parent = parent;
+            this.parentId = parent != null ? parent.id : null;
+        }
+    }
+}
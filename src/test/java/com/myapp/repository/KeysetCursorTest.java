@@ -0,0 +1,81 @@
+package com.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.myapp.domain.A;
+import com.myapp.domain.B;
+import java.time.Instant;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Test class for the {@link KeysetCursor}.
+ */
+class KeysetCursorTest {
+
+    @Test
+    void keysetSortAppendsTheId() {
+        assertThat(KeysetCursor.keysetSort(Sort.unsorted())).isEqualTo(Sort.by("id"));
+        assertThat(KeysetCursor.keysetSort(Sort.by(Sort.Order.desc("test"))))
+            .isEqualTo(Sort.by(Sort.Order.desc("test"), Sort.Order.asc("id")));
+        assertThat(KeysetCursor.keysetSort(Sort.by(Sort.Order.desc("id")))).isEqualTo(Sort.by(Sort.Order.desc("id")));
+    }
+
+    @Test
+    void encodeAndDecode() {
+        Sort sort = Sort.by(Sort.Order.desc("test"));
+        KeysetCursor cursor = KeysetCursor.after(sort, Arrays.asList("it's a value", 42L));
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode(), sort);
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.getValues()).containsExactly("it's a value", 42L);
+        assertThat(decoded.isFirst()).isFalse();
+    }
+
+    @Test
+    void encodeAndDecodeAllTypes() {
+        Sort sort = Sort.by("a", "b", "c", "d");
+        KeysetCursor cursor = KeysetCursor.after(sort, Arrays.asList(7, true, Instant.ofEpochSecond(1650000000L, 123), "x", 1L));
+
+        assertThat(KeysetCursor.decode(cursor.encode(), sort)).isEqualTo(cursor);
+    }
+
+    @Test
+    void emptyTokenIsTheFirstPage() {
+        KeysetCursor cursor = KeysetCursor.decode("", Sort.unsorted());
+
+        assertThat(cursor.isFirst()).isTrue();
+        assertThat(cursor.getSort()).isEqualTo(Sort.by("id"));
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSort() {
+        String token = KeysetCursor.after(Sort.by("test"), Arrays.asList("value", 1L)).encode();
+
+        assertThatThrownBy(() -> KeysetCursor.decode(token, Sort.by(Sort.Order.desc("test")))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor", Sort.unsorted())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("AQE", Sort.unsorted())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsNullValues() {
+        assertThatThrownBy(() -> KeysetCursor.after(Sort.by("test"), Arrays.asList(null, 1L))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsNullableSortProperties() {
+        assertThat(KeysetCursor.decode("", Sort.by("test"), A.class)).isEqualTo(KeysetCursor.first(Sort.by("test")));
+        assertThat(KeysetCursor.decode("", Sort.by("version"), B.class).isFirst()).isTrue();
+        assertThatThrownBy(() -> KeysetCursor.decode("", Sort.by("aId"), B.class))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("aId");
+        assertThatThrownBy(() -> KeysetCursor.decode("", Sort.by("unknown"), B.class)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
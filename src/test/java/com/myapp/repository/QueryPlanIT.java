@@ -0,0 +1,302 @@
+package com.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.myapp.IntegrationTest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * Checks the execution plans of the SQL generated by the repositories, to catch the queries which lose their index.
+ * <p>
+ * Each test runs repository methods against a seeded H2 database with its query statistics enabled, then explains
+ * every statement which was executed. A statement fails when it reads a table without an index condition, except for
+ * the table driving the listings of a whole table.
+ * <p>
+ * H2 creates an index for each foreign key when it has none, PostgreSQL does not: reading a table through such an
+ * implicit index fails too, unless a declared index starts with the same columns, as the query would scan the table
+ * on PostgreSQL.
+ */
+@IntegrationTest
+class QueryPlanIT {
+
+    // the statements reading tables, without the transaction commands and the inserts
+    private static final Pattern READ_STATEMENT = Pattern.compile("^\\s*(?:SELECT|DELETE|UPDATE)\\b.*\\bFROM\\b", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final Pattern DRIVING_TABLE = Pattern.compile("^(?:SELECT|DELETE|UPDATE).*?FROM \"PUBLIC\"\\.\"(\\w+)\"", Pattern.DOTALL);
+
+    // the access of each table, like /* PUBLIC.B.tableScan */ or /* PUBLIC.IDX_B__A_ID: A_ID = ?1 */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("/\\* PUBLIC\\.(\\w+)(\\.tableScan|: [^*]+)? \\*/");
+
+    private static final int SEED_SIZE = 2000;
+
+    @Autowired
+    private DatabaseClient db;
+
+    @Autowired
+    private ARepository aRepository;
+
+    @Autowired
+    private BRepository bRepository;
+
+    @Autowired
+    private CRepository cRepository;
+
+    @Autowired
+    private DRepository dRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private List<String> foreignKeys;
+
+    // the columns of each index, by table and index name
+    private Map<String, Map<String, List<String>>> indexes;
+
+    @BeforeEach
+    void seed() {
+        execute(
+            "INSERT INTO a (test) SELECT 'test-' || X FROM SYSTEM_RANGE(1, " + SEED_SIZE + ")",
+            "INSERT INTO b (a_id) SELECT CASEWHEN(MOD(id, 10) = 0, NULL, id) FROM a",
+            "INSERT INTO jhi_user (id, login, activated, created_by) " +
+            "SELECT 'plan-user-' || X, 'plan-user-' || X, TRUE, 'system' FROM SYSTEM_RANGE(1, " +
+            SEED_SIZE +
+            ")",
+            "INSERT INTO jhi_user_authority (user_id, authority_name) SELECT id, 'ROLE_USER' FROM jhi_user WHERE id LIKE 'plan-user-%'",
+            "ANALYZE"
+        );
+        foreignKeys =
+            db
+                .sql("SELECT CONSTRAINT_NAME FROM INFORMATION_SCHEMA.CONSTRAINTS WHERE CONSTRAINT_TYPE = 'REFERENTIAL'")
+                .map(row -> row.get("CONSTRAINT_NAME", String.class))
+                .all()
+                .collectList()
+                .block();
+        indexes = new HashMap<>();
+        db
+            .sql("SELECT TABLE_NAME, INDEX_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.INDEXES ORDER BY ORDINAL_POSITION")
+            .map(row ->
+                indexes
+                    .computeIfAbsent(row.get("TABLE_NAME", String.class), table -> new HashMap<>())
+                    .computeIfAbsent(row.get("INDEX_NAME", String.class), index -> new ArrayList<>())
+                    .add(row.get("COLUMN_NAME", String.class))
+            )
+            .all()
+            .blockLast();
+    }
+
+    @AfterEach
+    void cleanup() {
+        execute(
+            "SET QUERY_STATISTICS FALSE",
+            "DELETE FROM b",
+            "DELETE FROM a",
+            "DELETE FROM jhi_user_authority WHERE user_id LIKE 'plan-user-%'",
+            "DELETE FROM jhi_user WHERE id LIKE 'plan-user-%'"
+        );
+    }
+
+    @Test
+    void aRepositoryFindById() {
+        assertIndexed(explain(aRepository.findById(1L)));
+    }
+
+    @Test
+    void aRepositoryFindAllByPage() {
+        assertIndexed(explain(aRepository.findAllBy(PageRequest.of(2, 20))), "A");
+    }
+
+    @Test
+    void aRepositoryFindAllAfterCursor() {
+        KeysetCursor after = KeysetCursor.after(KeysetCursor.keysetSort(Sort.unsorted()), Arrays.asList(100L));
+        assertIndexed(explain(aRepository.findAllBy(PageRequest.of(0, 20), null, after)));
+    }
+
+    @Test
+    void aRepositoryFindAllWithEagerRelationships() {
+        List<QueryPlan> plans = explain(aRepository.findAllWithEagerRelationships(PageRequest.of(2, 20)));
+
+        assertThat(plans).extracting(plan -> plan.drivingTable).contains("A", "B");
+        assertIndexed(plans, "A");
+    }
+
+    @Test
+    void aRepositoryFindOneWithEagerRelationships() {
+        assertIndexed(explain(aRepository.findOneWithEagerRelationships(1L)));
+    }
+
+    @Test
+    void bRepositoryFindById() {
+        assertIndexed(explain(bRepository.findById(1L)));
+    }
+
+    @Test
+    void bRepositoryFindAllByPage() {
+        assertIndexed(explain(bRepository.findAllBy(PageRequest.of(2, 20))), "B");
+    }
+
+    @Test
+    void bRepositoryFindByA() {
+        assertIndexed(explain(bRepository.findByA(1L)));
+    }
+
+    @Test
+    void bRepositoryFindAllWhereAIsNull() {
+        assertIndexed(explain(bRepository.findAllWhereAIsNull()));
+    }
+
+    @Test
+    void cRepositoryFindById() {
+        assertIndexed(explain(cRepository.findById(1L)));
+    }
+
+    @Test
+    void dRepositoryFindById() {
+        assertIndexed(explain(dRepository.findById(1L)));
+    }
+
+    @Test
+    void userRepositoryFindOneByLogin() {
+        assertIndexed(explain(userRepository.findOneByLogin("plan-user-1")));
+    }
+
+    @Test
+    void userRepositoryFindOneWithAuthoritiesByLogin() {
+        assertIndexed(explain(userRepository.findOneWithAuthoritiesByLogin("plan-user-1")));
+    }
+
+    @Test
+    void userRepositoryFindAllWithAuthorities() {
+        List<QueryPlan> plans = explain(userRepository.findAllWithAuthorities(PageRequest.of(2, 20, Sort.by("login"))));
+
+        assertThat(plans).extracting(plan -> plan.drivingTable).contains("JHI_USER", "JHI_USER_AUTHORITY");
+        assertIndexed(plans, "JHI_USER");
+    }
+
+    @Test
+    void userRepositoryFindAllActivated() {
+        assertIndexed(explain(userRepository.findAllByIdNotNullAndActivatedIsTrue(PageRequest.of(2, 20))), "JHI_USER");
+    }
+
+    @Test
+    void userRepositoryDeleteUserAuthorities() {
+        assertIndexed(explain(userRepository.deleteUserAuthorities("plan-user-1")));
+    }
+
+    private void execute(String... statements) {
+        Flux.fromArray(statements).concatMap(statement -> db.sql(statement).then()).blockLast();
+    }
+
+    /**
+     * Run the given repository call, and explain the statements it executed.
+     */
+    private List<QueryPlan> explain(Publisher<?> call) {
+        // disabling the statistics clears them
+        execute("SET QUERY_STATISTICS FALSE", "SET QUERY_STATISTICS TRUE");
+        Flux.from(call).blockLast();
+
+        List<String> statements = db
+            .sql("SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS")
+            .map(row -> row.get("SQL_STATEMENT", String.class))
+            .all()
+            .filter(sql -> READ_STATEMENT.matcher(sql).find() && !sql.contains("INFORMATION_SCHEMA"))
+            .collectList()
+            .block();
+        assertThat(statements).as("the executed statements").isNotEmpty();
+
+        List<QueryPlan> plans = new ArrayList<>();
+        for (String sql : statements) {
+            String plan = db.sql("EXPLAIN " + sql).map(row -> row.get(0, String.class)).one().block();
+            plans.add(new QueryPlan(plan));
+        }
+        return plans;
+    }
+
+    /**
+     * Assert that every table is read with an index condition, except the given driving tables of whole table listings.
+     */
+    private void assertIndexed(List<QueryPlan> plans, String... scannedTables) {
+        List<String> scanned = Arrays.asList(scannedTables);
+        for (QueryPlan plan : plans) {
+            assertThat(plan.accesses).as("the table accesses of %s", plan.plan).isNotEmpty();
+            List<TableAccess> accesses = plan.accesses;
+            if (scanned.contains(plan.drivingTable)) {
+                accesses = accesses.subList(1, accesses.size());
+            }
+            assertThat(accesses)
+                .as("the table accesses of %s", plan.plan)
+                .allSatisfy(access -> {
+                    assertThat(access.indexed).as("%s is read with an index condition", access.source).isTrue();
+                    assertThat(isDeclared(access.name)).as("%s is declared, or covered by a declared index", access.source).isTrue();
+                });
+        }
+    }
+
+    private boolean isImplicit(String index) {
+        return foreignKeys.stream().anyMatch(foreignKey -> index.startsWith(foreignKey + "_INDEX_"));
+    }
+
+    private boolean isDeclared(String index) {
+        if (!isImplicit(index)) {
+            return true;
+        }
+        for (Map<String, List<String>> tableIndexes : indexes.values()) {
+            List<String> columns = tableIndexes.get(index);
+            if (columns != null) {
+                return tableIndexes
+                    .entrySet()
+                    .stream()
+                    .anyMatch(other ->
+                        !isImplicit(other.getKey()) &&
+                        other.getValue().size() >= columns.size() &&
+                        other.getValue().subList(0, columns.size()).equals(columns)
+                    );
+            }
+        }
+        return false;
+    }
+
+    private static final class QueryPlan {
+
+        private final String plan;
+        private final String drivingTable;
+        private final List<TableAccess> accesses = new ArrayList<>();
+
+        QueryPlan(String plan) {
+            this.plan = plan;
+            Matcher drivingTable = DRIVING_TABLE.matcher(plan);
+            this.drivingTable = drivingTable.find() ? drivingTable.group(1) : null;
+            Matcher access = TABLE_ACCESS.matcher(plan);
+            while (access.find()) {
+                accesses.add(new TableAccess(access.group(), access.group(1), access.group(2) != null && access.group(2).startsWith(":")));
+            }
+        }
+    }
+
+    private static final class TableAccess {
+
+        private final String source;
+        private final String name;
+        private final boolean indexed;
+
+        TableAccess(String source, String name, boolean indexed) {
+            this.source = source;
+            this.name = name;
+            this.indexed = indexed;
+        }
+    }
+}
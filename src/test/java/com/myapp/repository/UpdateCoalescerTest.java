@@ -0,0 +1,176 @@
+package com.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.transaction.reactive.TransactionCallback;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link UpdateCoalescer}.
+ */
+class UpdateCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // the patches written, each standing for the stored row
+    private final List<CoalescedEntity> writes = new CopyOnWriteArrayList<>();
+
+    private final Function<CoalescedEntity, Mono<CoalescedEntity>> update = patch ->
+        Mono.fromSupplier(() -> {
+            writes.add(patch);
+            return patch;
+        });
+
+    private final ApplicationProperties.Coalescing coalescing = new ApplicationProperties.Coalescing();
+
+    @BeforeEach
+    void init() {
+        coalescing.setEntities(Set.of("coalescedEntity"));
+        coalescing.setWindow(Duration.ofMillis(100));
+    }
+
+    @Test
+    void mergesThePatchesOfARowWithinTheWindow() {
+        UpdateCoalescer updateCoalescer = createCoalescer();
+
+        List<CoalescedEntity> stored = Flux
+            .merge(
+                updateCoalescer.partialUpdate(patch(1L, "first", 1), update),
+                updateCoalescer.partialUpdate(patch(1L, "second", null), update),
+                updateCoalescer.partialUpdate(patch(1L, null, 3), update),
+                updateCoalescer.partialUpdate(patch(2L, "other", null), update)
+            )
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(writes).hasSize(2);
+        CoalescedEntity row = writes.stream().filter(write -> write.id == 1L).findFirst().orElseThrow();
+        // the last non-null value of each property wins
+        assertThat(row.name).isEqualTo("second");
+        assertThat(row.quantity).isEqualTo(3);
+        // every caller gets the stored row
+        assertThat(stored).hasSize(4).filteredOn(entity -> entity.id == 1L).hasSize(3).containsOnly(row);
+        assertThat(meterRegistry.counter("repository.update.coalescing", "entity", "coalescedEntity", "result", "written").count())
+            .isEqualTo(2);
+        assertThat(meterRegistry.counter("repository.update.coalescing", "entity", "coalescedEntity", "result", "merged").count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void writesAFullBatchWithoutWaitingForTheWindow() {
+        coalescing.setWindow(Duration.ofMinutes(1));
+        coalescing.setMaxBatchSize(2);
+        UpdateCoalescer updateCoalescer = createCoalescer();
+
+        Flux
+            .merge(
+                updateCoalescer.partialUpdate(patch(1L, "first", null), update),
+                updateCoalescer.partialUpdate(patch(1L, "second", null), update)
+            )
+            .then()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(writes).hasSize(1);
+        assertThat(writes.get(0).name).isEqualTo("second");
+    }
+
+    @Test
+    void writesTheVersionedPatchesOnTheirOwn() {
+        UpdateCoalescer updateCoalescer = createCoalescer();
+        CoalescedEntity versioned = patch(1L, "versioned", null);
+        versioned.version = 4L;
+
+        Flux
+            .merge(updateCoalescer.partialUpdate(versioned, update), updateCoalescer.partialUpdate(patch(1L, "other", null), update))
+            .blockLast();
+
+        assertThat(writes).hasSize(2).contains(versioned);
+    }
+
+    @Test
+    void writesThePatchesOfTheOtherEntitiesOnTheirOwn() {
+        coalescing.setEntities(Set.of());
+        UpdateCoalescer updateCoalescer = createCoalescer();
+
+        Flux
+            .merge(
+                updateCoalescer.partialUpdate(patch(1L, "first", null), update),
+                updateCoalescer.partialUpdate(patch(1L, "second", null), update)
+            )
+            .blockLast();
+
+        assertThat(writes).hasSize(2);
+    }
+
+    @Test
+    void failsEveryCallerWhenTheMergedUpdateFails() {
+        UpdateCoalescer updateCoalescer = createCoalescer();
+        Function<CoalescedEntity, Mono<CoalescedEntity>> failing = patch -> Mono.error(new IllegalStateException("connection lost"));
+
+        List<Throwable> errors = Flux
+            .merge(
+                updateCoalescer.partialUpdate(patch(1L, "first", null), failing).materialize(),
+                updateCoalescer.partialUpdate(patch(1L, "second", null), failing).materialize()
+            )
+            .map(signal -> signal.getThrowable())
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(errors).hasSize(2).allMatch(IllegalStateException.class::isInstance);
+        assertThat(meterRegistry.counter("repository.update.coalescing", "entity", "coalescedEntity", "result", "merged").count())
+            .isEqualTo(1);
+    }
+
+    private UpdateCoalescer createCoalescer() {
+        return new UpdateCoalescer(new R2dbcMappingContext(), new PassThroughOperator(), meterRegistry, coalescing);
+    }
+
+    private static CoalescedEntity patch(Long id, String name, Integer quantity) {
+        CoalescedEntity patch = new CoalescedEntity();
+        patch.id = id;
+        patch.name = name;
+        patch.quantity = quantity;
+        return patch;
+    }
+
+    static class CoalescedEntity {
+
+        @Id
+        Long id;
+
+        String name;
+
+        Integer quantity;
+
+        @Version
+        Long version;
+    }
+
+    // writes without a transaction
+    private static class PassThroughOperator implements TransactionalOperator {
+
+        @Override
+        public <T> Mono<T> transactional(Mono<T> mono) {
+            return mono;
+        }
+
+        @Override
+        public <T> Flux<T> execute(TransactionCallback<T> action) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.myapp.repository.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link EntityCache}.
+ */
+class EntityCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final ApplicationProperties.Cache cache = new ApplicationProperties.Cache();
+
+    private EntityCache entityCache;
+
+    @BeforeEach
+    void init() {
+        cache.setMaxSize(2);
+        cache.setTtl(Duration.ofMinutes(1));
+        entityCache = new EntityCache(cache, meterRegistry, nanoTime::get);
+    }
+
+    @Test
+    void loadsAnEntityOnce() {
+        assertThat(entityCache.get(CachedEntity.class, 1L, loader("first")).block()).isEqualTo("first");
+        assertThat(entityCache.get(CachedEntity.class, 1L, loader("second")).block()).isEqualTo("first");
+
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.counter("repository.cache.gets", "entity", "cachedEntity", "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("repository.cache.gets", "entity", "cachedEntity", "result", "miss").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("repository.cache.load", "entity", "cachedEntity").count()).isEqualTo(1);
+    }
+
+    @Test
+    void collapsesTheConcurrentLoadsOfAnEntity() {
+        Supplier<Mono<String>> slowLoader = () -> loader("first").get().delayElement(Duration.ofMillis(100));
+
+        List<String> entities = Flux
+            .merge(entityCache.get(CachedEntity.class, 1L, slowLoader), entityCache.get(CachedEntity.class, 1L, slowLoader))
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(entities).containsExactly("first", "first");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void reloadsAnInvalidatedEntity() {
+        entityCache.get(CachedEntity.class, 1L, loader("first")).block();
+        entityCache.evict(CachedEntity.class, 1L).block();
+
+        assertThat(entityCache.get(CachedEntity.class, 1L, loader("second")).block()).isEqualTo("second");
+        assertThat(meterRegistry.counter("repository.cache.evictions", "entity", "cachedEntity", "cause", "invalidated").count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void reloadsAnExpiredEntity() {
+        entityCache.get(CachedEntity.class, 1L, loader("first")).block();
+        nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        assertThat(entityCache.get(CachedEntity.class, 1L, loader("second")).block()).isEqualTo("second");
+        assertThat(meterRegistry.counter("repository.cache.evictions", "entity", "cachedEntity", "cause", "expired").count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyReadEntity() {
+        entityCache.get(CachedEntity.class, 1L, loader("first")).block();
+        entityCache.get(CachedEntity.class, 2L, loader("second")).block();
+        entityCache.get(CachedEntity.class, 1L, loader("first")).block();
+        entityCache.get(CachedEntity.class, 3L, loader("third")).block();
+
+        assertThat(entityCache.get(CachedEntity.class, 1L, loader("reloaded")).block()).isEqualTo("first");
+        assertThat(entityCache.get(CachedEntity.class, 2L, loader("reloaded")).block()).isEqualTo("reloaded");
+        assertThat(meterRegistry.get("repository.cache.size").tag("entity", "cachedEntity").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotKeepAMissingEntity() {
+        entityCache.get(CachedEntity.class, 1L, Mono::<String>empty).block();
+
+        assertThat(entityCache.get(CachedEntity.class, 1L, loader("created")).block()).isEqualTo("created");
+    }
+
+    @Test
+    void loadsEveryTimeWhenDisabled() {
+        cache.setMaxSize(0);
+        entityCache = new EntityCache(cache, meterRegistry, nanoTime::get);
+
+        entityCache.get(CachedEntity.class, 1L, loader("first")).block();
+        entityCache.get(CachedEntity.class, 1L, loader("first")).block();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private Supplier<Mono<String>> loader(String entity) {
+        return () ->
+            Mono.fromSupplier(() -> {
+                loads.incrementAndGet();
+                return entity;
+            });
+    }
+
+    static class CachedEntity {}
+}
@@ -0,0 +1,156 @@
+package com.myapp.repository.count;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.myapp.config.ApplicationProperties;
+import com.myapp.domain.A;
+import com.myapp.domain.B;
+import com.myapp.domain.User;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Test class for the {@link EntityCounter} and its {@link CountStrategy}.
+ */
+class EntityCounterTest {
+
+    private ApplicationProperties applicationProperties;
+
+    private final AtomicLong exactCounts = new AtomicLong();
+
+    @BeforeEach
+    void init() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getPersistence().getCount().getEntities().put("a", CachedCountStrategy.NAME);
+        applicationProperties.getPersistence().getCount().getEntities().put("user", DeadlineCountStrategy.NAME);
+        applicationProperties.getPersistence().getCount().setDeadline(Duration.ofMillis(50));
+    }
+
+    private EntityCounter createEntityCounter() {
+        return new EntityCounter(
+            Arrays.asList(
+                new ExactCountStrategy(),
+                new CachedCountStrategy(applicationProperties),
+                new DeadlineCountStrategy(applicationProperties)
+            ),
+            applicationProperties
+        );
+    }
+
+    private Mono<Long> exactCount(long count) {
+        return Mono.fromSupplier(() -> {
+            exactCounts.incrementAndGet();
+            return count;
+        });
+    }
+
+    @Test
+    void exactCountsEveryTime() {
+        EntityCounter entityCounter = createEntityCounter();
+
+        assertThat(entityCounter.count(B.class, exactCount(3)).block()).isEqualTo(3);
+        assertThat(entityCounter.count(B.class, exactCount(4)).block()).isEqualTo(4);
+        assertThat(exactCounts).hasValue(2);
+    }
+
+    @Test
+    void cachedCountsUntilInvalidated() {
+        EntityCounter entityCounter = createEntityCounter();
+
+        assertThat(entityCounter.count(A.class, exactCount(3)).block()).isEqualTo(3);
+        assertThat(entityCounter.count(A.class, exactCount(4)).block()).isEqualTo(3);
+        assertThat(exactCounts).hasValue(1);
+
+        entityCounter.invalidate(A.class).block();
+
+        assertThat(entityCounter.count(A.class, exactCount(4)).block()).isEqualTo(4);
+        assertThat(exactCounts).hasValue(2);
+    }
+
+    @Test
+    void cachedDoesNotKeepACountRunningDuringAWrite() {
+        EntityCounter entityCounter = createEntityCounter();
+
+        Mono<Long> countDuringWrite = exactCount(3).flatMap(count -> entityCounter.invalidate(A.class).thenReturn(count));
+        assertThat(entityCounter.count(A.class, countDuringWrite).block()).isEqualTo(3);
+
+        assertThat(entityCounter.count(A.class, exactCount(4)).block()).isEqualTo(4);
+    }
+
+    @Test
+    void cachedDoesNotKeepACountRunningBeforeTheCommit() {
+        EntityCounter entityCounter = createEntityCounter();
+        TransactionalOperator transactionalOperator = TransactionalOperator.create(new TestTransactionManager());
+
+        Mono<Long> countBeforeCommit = entityCounter.invalidate(A.class).then(entityCounter.count(A.class, exactCount(3)));
+        assertThat(transactionalOperator.transactional(countBeforeCommit).block()).isEqualTo(3);
+
+        assertThat(entityCounter.count(A.class, exactCount(4)).block()).isEqualTo(4);
+        assertThat(exactCounts).hasValue(2);
+    }
+
+    @Test
+    void cachedExpiresAfterTheTtl() {
+        applicationProperties.getPersistence().getCount().setCacheTtl(Duration.ZERO);
+        EntityCounter entityCounter = createEntityCounter();
+
+        assertThat(entityCounter.count(A.class, exactCount(3)).block()).isEqualTo(3);
+        assertThat(entityCounter.count(A.class, exactCount(4)).block()).isEqualTo(4);
+    }
+
+    @Test
+    void deadlineGivesUpOnASlowCount() {
+        EntityCounter entityCounter = createEntityCounter();
+
+        StepVerifier.create(entityCounter.count(User.class, exactCount(3))).expectNext(3L).verifyComplete();
+        StepVerifier
+            .create(entityCounter.count(User.class, exactCount(3).delayElement(Duration.ofSeconds(10))))
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void unknownStrategyIsRejected() {
+        applicationProperties.getPersistence().getCount().getEntities().put("b", "unknown");
+
+        assertThatThrownBy(this::createEntityCounter).isInstanceOf(IllegalStateException.class).hasMessageContaining("unknown");
+    }
+
+    private static final class TestTransactionManager extends AbstractReactiveTransactionManager {
+
+        @Override
+        protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+            return new Object();
+        }
+
+        @Override
+        protected Mono<Void> doBegin(
+            TransactionSynchronizationManager synchronizationManager,
+            Object transaction,
+            TransactionDefinition definition
+        ) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+    }
+}
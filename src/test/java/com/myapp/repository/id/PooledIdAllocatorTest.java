@@ -0,0 +1,136 @@
+package com.myapp.repository.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Test class for the {@link PooledIdAllocator}.
+ */
+class PooledIdAllocatorTest {
+
+    private static final int BLOCK_SIZE = 10;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // a sequence starting at 1, incremented by the block size
+    private final AtomicLong sequence = new AtomicLong(1);
+
+    private final AtomicInteger sequenceLookups = new AtomicInteger();
+
+    private PooledIdAllocator idAllocator;
+
+    @BeforeEach
+    void init() {
+        idAllocator =
+            new PooledIdAllocator(
+                new R2dbcMappingContext(),
+                name -> Mono.fromSupplier(() -> sequence.getAndAdd(BLOCK_SIZE)).delayElement(Duration.ofMillis(5)),
+                name -> {
+                    sequenceLookups.incrementAndGet();
+                    return name.equals("pooled_entity_seq") ? Mono.just((long) BLOCK_SIZE) : Mono.empty();
+                },
+                meterRegistry,
+                BLOCK_SIZE
+            );
+    }
+
+    @Test
+    void allocatesTheIdsOfABlockFromMemory() {
+        List<Long> ids = Flux.range(0, 25).concatMap(i -> idAllocator.nextId("pooled_entity_seq")).collectList().block();
+
+        assertThat(ids).hasSize(25).doesNotHaveDuplicates().isSorted().startsWith(1L).endsWith(25L);
+        assertThat(meterRegistry.timer("repository.id.block.refill", "sequence", "pooled_entity_seq").count()).isEqualTo(3);
+        assertThat(sequenceLookups).hasValue(1);
+    }
+
+    @Test
+    void concurrentCallersShareTheRefills() {
+        int count = 2000;
+        List<Long> ids = Flux
+            .range(0, count)
+            .parallel(8)
+            .runOn(Schedulers.parallel())
+            .flatMap(i -> idAllocator.nextId("pooled_entity_seq"))
+            .sequential()
+            .collectList()
+            .block(Duration.ofSeconds(30));
+
+        assertThat(ids).hasSize(count).doesNotHaveDuplicates();
+        // every block is used up before the next one is read
+        assertThat(ids).allMatch(id -> id >= 1 && id <= count);
+        assertThat(meterRegistry.timer("repository.id.block.refill", "sequence", "pooled_entity_seq").count())
+            .isEqualTo(count / BLOCK_SIZE);
+    }
+
+    @Test
+    void refillsAgainAfterAFailure() {
+        AtomicInteger calls = new AtomicInteger();
+        PooledIdAllocator failingOnce = new PooledIdAllocator(
+            new R2dbcMappingContext(),
+            name ->
+                calls.incrementAndGet() == 1 ? Mono.error(new IllegalStateException("connection lost")) : Mono.just(sequence.getAndAdd(BLOCK_SIZE)),
+            name -> Mono.just((long) BLOCK_SIZE),
+            meterRegistry,
+            BLOCK_SIZE
+        );
+
+        assertThatThrownBy(() -> failingOnce.nextId("pooled_entity_seq").block()).hasMessage("connection lost");
+        assertThat(failingOnce.nextId("pooled_entity_seq").block()).isEqualTo(1L);
+    }
+
+    @Test
+    void rejectsASequenceIncrementedByAnotherBlockSize() {
+        PooledIdAllocator overlapping = new PooledIdAllocator(
+            new R2dbcMappingContext(),
+            name -> Mono.just(sequence.getAndAdd(BLOCK_SIZE)),
+            name -> Mono.just(BLOCK_SIZE / 2L),
+            meterRegistry,
+            BLOCK_SIZE
+        );
+
+        assertThatThrownBy(() -> overlapping.nextId("pooled_entity_seq").block())
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("pooled_entity_seq");
+        assertThat(sequence).hasValue(1);
+    }
+
+    @Test
+    void assignsTheIdsOfTheEntitiesWithASequence() {
+        PooledEntity entity = idAllocator.assignId(new PooledEntity()).block();
+        assertThat(entity.id).isEqualTo(1L);
+
+        PooledEntity withId = new PooledEntity();
+        withId.id = 42L;
+        assertThat(idAllocator.assignId(withId).block().id).isEqualTo(42L);
+
+        assertThat(idAllocator.assignId(new UnpooledEntity()).block().id).isNull();
+        assertThat(idAllocator.assignId(new UnpooledEntity()).block().id).isNull();
+        // the missing sequence is looked up once
+        assertThat(sequenceLookups).hasValue(2);
+    }
+
+    static class PooledEntity {
+
+        @Id
+        Long id;
+    }
+
+    static class UnpooledEntity {
+
+        @Id
+        Long id;
+    }
+}
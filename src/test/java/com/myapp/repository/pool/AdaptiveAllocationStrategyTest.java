@@ -0,0 +1,75 @@
+package com.myapp.repository.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link AdaptiveAllocationStrategy}.
+ */
+class AdaptiveAllocationStrategyTest {
+
+    private static final long SLOW = Duration.ofMillis(50).toNanos();
+    private static final long FAST = Duration.ofMillis(1).toNanos();
+
+    private final AtomicLong now = new AtomicLong();
+
+    private AdaptiveAllocationStrategy allocationStrategy;
+
+    @BeforeEach
+    void init() {
+        allocationStrategy = new AdaptiveAllocationStrategy(2, 4, Duration.ofMillis(20), Duration.ofMinutes(1), now::get);
+    }
+
+    @Test
+    void grantsUpToTheLimit() {
+        // the minimum is granted at once
+        assertThat(allocationStrategy.getPermits(1)).isEqualTo(2);
+        assertThat(allocationStrategy.getPermits(1)).isZero();
+        assertThat(allocationStrategy.estimatePermitCount()).isZero();
+
+        allocationStrategy.returnPermits(1);
+        assertThat(allocationStrategy.permitGranted()).isEqualTo(1);
+        assertThat(allocationStrategy.getPermits(3)).isEqualTo(1);
+    }
+
+    @Test
+    void growsWhenTheCallersWait() {
+        allocationStrategy.recordAcquireWait(FAST);
+        assertThat(allocationStrategy.getLimit()).isEqualTo(2);
+
+        for (int i = 0; i < 5; i++) {
+            allocationStrategy.recordAcquireWait(SLOW);
+        }
+        assertThat(allocationStrategy.getLimit()).isEqualTo(4);
+        assertThat(allocationStrategy.getPermits(10)).isEqualTo(4);
+        assertThat(allocationStrategy.permitMaximum()).isEqualTo(4);
+    }
+
+    @Test
+    void shrinksAfterAnIntervalWithoutWait() {
+        allocationStrategy.recordAcquireWait(SLOW);
+        allocationStrategy.recordAcquireWait(SLOW);
+        assertThat(allocationStrategy.getLimit()).isEqualTo(4);
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        allocationStrategy.recordAcquireWait(FAST);
+        assertThat(allocationStrategy.getLimit()).isEqualTo(4);
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        allocationStrategy.recordAcquireWait(FAST);
+        allocationStrategy.recordAcquireWait(FAST);
+        assertThat(allocationStrategy.getLimit()).isEqualTo(3);
+
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        allocationStrategy.recordAcquireWait(FAST);
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        allocationStrategy.recordAcquireWait(FAST);
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        allocationStrategy.recordAcquireWait(FAST);
+        assertThat(allocationStrategy.getLimit()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,161 @@
+package com.myapp.repository.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link InstrumentedConnectionPool} and its {@link ConnectionPoolHealthIndicator}, with a H2
+ * database.
+ */
+class InstrumentedConnectionPoolTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private InstrumentedConnectionPool connectionPool;
+
+    @BeforeEach
+    void init() {
+        AdaptiveAllocationStrategy allocationStrategy = new AdaptiveAllocationStrategy(1, 2, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration
+            .builder(ConnectionFactories.get("r2dbc:h2:mem:///instrumented_pool;DB_CLOSE_DELAY=-1"))
+            .initialSize(1)
+            .maxSize(2)
+            .customizer(poolBuilder -> poolBuilder.allocationStrategy(allocationStrategy))
+            .build();
+        connectionPool = new InstrumentedConnectionPool("primary", new ConnectionPool(configuration), allocationStrategy, meterRegistry);
+    }
+
+    @AfterEach
+    void destroy() {
+        connectionPool.dispose();
+    }
+
+    @Test
+    void warmsUpTheMinimumConnections() {
+        assertThat(connectionPool.warmup().block()).isEqualTo(1);
+
+        assertThat(meterRegistry.get("repository.pool.allocated").tag("pool", "primary").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("repository.pool.idle").tag("pool", "primary").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void timesTheAcquires() {
+        Connection connection = connectionPool.create().block();
+
+        assertThat(meterRegistry.get("repository.pool.acquire").tag("pool", "primary").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("repository.pool.acquired").tag("pool", "primary").gauge().value()).isEqualTo(1);
+        Mono.from(connection.close()).block();
+        assertThat(meterRegistry.get("repository.pool.acquired").tag("pool", "primary").gauge().value()).isZero();
+    }
+
+    @Test
+    void reportsTheSaturationOfThePool() {
+        ConnectionPoolHealthIndicator healthIndicator = new ConnectionPoolHealthIndicator(
+            List.of(connectionPool),
+            0,
+            Duration.ofSeconds(5)
+        );
+        Health up = healthIndicator.health().block();
+        assertThat(up.getStatus()).isEqualTo(Status.UP);
+        assertThat(((ConnectionPoolHealthIndicator.PoolHealth) up.getDetails().get("primary")).getValid()).isTrue();
+        // the validation does not count as an acquire of the application
+        assertThat(meterRegistry.get("repository.pool.acquire").tag("pool", "primary").timer().count()).isZero();
+
+        // the pool may open a single connection, so the second caller waits
+        Connection connection = connectionPool.create().block();
+        Disposable pending = connectionPool.create().subscribe();
+        try {
+            Health health = healthIndicator.health().block();
+            assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+            ConnectionPoolHealthIndicator.PoolHealth details = (ConnectionPoolHealthIndicator.PoolHealth) health
+                .getDetails()
+                .get("primary");
+            assertThat(details.getAcquired()).isEqualTo(1);
+            assertThat(details.getPending()).isEqualTo(1);
+            assertThat(details.isSaturated()).isTrue();
+            assertThat(details.getValid()).isNull();
+        } finally {
+            pending.dispose();
+            Mono.from(connection.close()).block();
+        }
+    }
+
+    @Test
+    void reportsAPoolWhichCannotConnect() {
+        AdaptiveAllocationStrategy allocationStrategy = new AdaptiveAllocationStrategy(1, 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration
+            // the database does not exist and is not created
+            .builder(ConnectionFactories.get("r2dbc:h2:mem:///unreachable_pool;IFEXISTS=TRUE"))
+            .initialSize(0)
+            .maxSize(1)
+            .customizer(poolBuilder -> poolBuilder.allocationStrategy(allocationStrategy))
+            .build();
+        InstrumentedConnectionPool unreachable = new InstrumentedConnectionPool(
+            "unreachable",
+            new ConnectionPool(configuration),
+            allocationStrategy,
+            meterRegistry
+        );
+        try {
+            ConnectionPoolHealthIndicator healthIndicator = new ConnectionPoolHealthIndicator(
+                List.of(connectionPool, unreachable),
+                0,
+                Duration.ofSeconds(5)
+            );
+            Health health = healthIndicator.health().block();
+            assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+            assertThat(((ConnectionPoolHealthIndicator.PoolHealth) health.getDetails().get("primary")).getValid()).isTrue();
+            assertThat(((ConnectionPoolHealthIndicator.PoolHealth) health.getDetails().get("unreachable")).getValid()).isFalse();
+        } finally {
+            unreachable.dispose();
+        }
+    }
+
+    @Test
+    void growsWhenTheAcquiresTimeOut() {
+        AdaptiveAllocationStrategy allocationStrategy = new AdaptiveAllocationStrategy(1, 2, Duration.ofMillis(500), Duration.ofMinutes(1));
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration
+            .builder(ConnectionFactories.get("r2dbc:h2:mem:///timed_out_pool;DB_CLOSE_DELAY=-1"))
+            .initialSize(1)
+            .maxSize(2)
+            .maxAcquireTime(Duration.ofSeconds(1))
+            .customizer(poolBuilder -> poolBuilder.allocationStrategy(allocationStrategy))
+            .build();
+        InstrumentedConnectionPool timedOut = new InstrumentedConnectionPool(
+            "timed-out",
+            new ConnectionPool(configuration),
+            allocationStrategy,
+            meterRegistry
+        );
+        try {
+            // the pool may open a single connection, so the second caller times out
+            timedOut.warmup().block();
+            Connection connection = timedOut.create().block();
+            assertThat(timedOut.getLimit()).isEqualTo(1);
+            assertThatThrownBy(() -> timedOut.create().block()).isNotNull();
+
+            assertThat(meterRegistry.get("repository.pool.acquire").tag("pool", "timed-out").timer().count()).isEqualTo(2);
+            assertThat(timedOut.getLimit()).isEqualTo(2);
+            Connection second = timedOut.create().block(Duration.ofSeconds(5));
+            Mono.from(second.close()).block();
+            Mono.from(connection.close()).block();
+        } finally {
+            timedOut.dispose();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.myapp.repository.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link ReplicaRoutingConnectionFactory}, with two H2 databases.
+ */
+class ReplicaRoutingConnectionFactoryTest {
+
+    private final ConnectionFactory primary = createDatabase("routing_primary");
+
+    private final ConnectionFactory replica = createDatabase("routing_replica");
+
+    private ReplicaRoutingConnectionFactory routingConnectionFactory;
+
+    @BeforeEach
+    void init() {
+        routingConnectionFactory = createRouting(connectionFactory -> Mono.just(Duration.ZERO));
+    }
+
+    @AfterEach
+    void destroy() {
+        for (ConnectionFactory connectionFactory : List.of(primary, replica)) {
+            DatabaseClient.create(connectionFactory).sql("DROP TABLE routing_test").then().block();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertThat(readInTransaction(TransactionDefinition.PROPAGATION_REQUIRED, true)).isEqualTo("routing_replica");
+    }
+
+    @Test
+    void readOnlyReadsWithoutTransactionGoToTheReplica() {
+        assertThat(readInTransaction(TransactionDefinition.PROPAGATION_SUPPORTS, true)).isEqualTo("routing_replica");
+    }
+
+    @Test
+    void readWriteTransactionsGoToThePrimary() {
+        assertThat(readInTransaction(TransactionDefinition.PROPAGATION_REQUIRED, false)).isEqualTo("routing_primary");
+        assertThat(readInTransaction(TransactionDefinition.PROPAGATION_SUPPORTS, false)).isEqualTo("routing_primary");
+        assertThat(read()).isEqualTo("routing_primary");
+    }
+
+    @Test
+    void readsGoToThePrimaryWhenTheReplicaLags() {
+        routingConnectionFactory = createRouting(connectionFactory -> Mono.just(Duration.ofMinutes(1)));
+
+        assertThat(readInTransaction(TransactionDefinition.PROPAGATION_REQUIRED, true)).isEqualTo("routing_primary");
+    }
+
+    @Test
+    void readsGoToThePrimaryWhenTheReplicaIsUnreachable() {
+        routingConnectionFactory = createRouting(connectionFactory -> Mono.error(new IllegalStateException("connection refused")));
+
+        assertThat(readInTransaction(TransactionDefinition.PROPAGATION_REQUIRED, true)).isEqualTo("routing_primary");
+    }
+
+    @Test
+    void readsTheLagWithAQuery() {
+        Duration lag = ReplicaRoutingConnectionFactory.lagQuery("SELECT 1.5").apply(replica).block();
+
+        assertThat(lag).isEqualTo(Duration.ofMillis(1500));
+    }
+
+    private ReplicaRoutingConnectionFactory createRouting(Function<ConnectionFactory, Mono<Duration>> lag) {
+        ReplicaRoutingConnectionFactory routing = new ReplicaRoutingConnectionFactory(
+            primary,
+            List.of(replica),
+            lag,
+            Duration.ofSeconds(5)
+        );
+        routing.checkReplicas().block();
+        return routing;
+    }
+
+    private String readInTransaction(int propagation, boolean readOnly) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(propagation);
+        definition.setReadOnly(readOnly);
+        return TransactionalOperator
+            .create(new ReplicaRoutingTransactionManager(routingConnectionFactory), definition)
+            .transactional(Mono.defer(this::readMono))
+            .block();
+    }
+
+    private String read() {
+        return readMono().block();
+    }
+
+    private Mono<String> readMono() {
+        return DatabaseClient
+            .create(routingConnectionFactory)
+            .sql("SELECT name FROM routing_test")
+            .map(row -> row.get(0, String.class))
+            .one();
+    }
+
+    // each database holds a row with its name
+    private static ConnectionFactory createDatabase(String name) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///" + name + ";DB_CLOSE_DELAY=-1");
+        DatabaseClient databaseClient = DatabaseClient.create(connectionFactory);
+        databaseClient
+            .sql("CREATE TABLE routing_test (name VARCHAR(50))")
+            .then()
+            .then(databaseClient.sql("INSERT INTO routing_test VALUES (:name)").bind("name", name).then())
+            .block();
+        return connectionFactory;
+    }
+}
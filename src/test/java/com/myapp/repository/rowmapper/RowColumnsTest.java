@@ -0,0 +1,51 @@
+package com.myapp.repository.rowmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.RowMetadata;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link RowColumns}.
+ */
+class RowColumnsTest {
+
+    private final RowColumns columns = new RowColumns(null, new String[] { "id", "test" }, new Class<?>[] { Long.class, String.class });
+
+    @Test
+    void sharesTheReaderOfTheResultsWithTheSameColumns() {
+        RowMetadata first = metadata("e_id", "e_test", "a_id", "a_test");
+        RowMetadata second = metadata("e_id", "e_test", "a_id", "a_test");
+
+        RowColumns.Reader reader = columns.reader(first, "e");
+
+        // the rows of concurrent results alternate
+        assertThat(columns.reader(second, "e")).isSameAs(reader);
+        assertThat(columns.reader(first, "e")).isSameAs(reader);
+        assertThat(columns.reader(metadata("a_id", "a_test", "e_id", "e_test"), "e")).isNotSameAs(reader);
+        assertThat(columns.reader(first, "a")).isNotSameAs(reader);
+    }
+
+    @Test
+    void rejectsAResultWithoutTheColumns() {
+        assertThatThrownBy(() -> columns.reader(metadata("e_id"), "e")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static RowMetadata metadata(String... names) {
+        List<ColumnMetadata> columns = new ArrayList<>();
+        for (String name : names) {
+            ColumnMetadata column = mock(ColumnMetadata.class);
+            when(column.getName()).thenReturn(name);
+            columns.add(column);
+        }
+        RowMetadata metadata = mock(RowMetadata.class);
+        when(metadata.getColumnMetadatas()).thenAnswer(invocation -> columns);
+        return metadata;
+    }
+}
@@ -0,0 +1,94 @@
+package com.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link AuthoritySet}.
+ */
+class AuthoritySetTest {
+
+    @Test
+    void containsItsAuthorities() {
+        AuthoritySet authorities = AuthoritySet.of(AuthoritiesConstants.USER, "ROLE_AUTHORITY_SET");
+
+        assertThat(authorities.contains(AuthoritiesConstants.USER)).isTrue();
+        assertThat(authorities.contains("ROLE_AUTHORITY_SET")).isTrue();
+        assertThat(authorities.contains(AuthoritiesConstants.ADMIN)).isFalse();
+        assertThat(authorities.isEmpty()).isFalse();
+        assertThat(AuthoritySet.of().isEmpty()).isTrue();
+    }
+
+    @Test
+    void checksAnyAndNoneOfTheAuthorities() {
+        AuthoritySet granted = AuthoritySet.of(List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER)));
+
+        assertThat(granted.containsAny(AuthoritySet.of(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER))).isTrue();
+        assertThat(granted.containsNone(AuthoritySet.of(AuthoritiesConstants.ADMIN, AuthoritiesConstants.ANONYMOUS))).isTrue();
+        assertThat(granted.containsAny(AuthoritySet.of())).isFalse();
+    }
+
+    @Test
+    void checksLikeTheListOfAuthorities() {
+        Random random = new Random(42);
+        List<String> names = IntStream.range(0, 200).mapToObj(i -> "ROLE_SET_" + i).collect(Collectors.toList());
+        for (int i = 0; i < 1000; i++) {
+            List<String> granted = pick(names, random);
+            List<String> checked = pick(names, random);
+
+            boolean expected = granted.stream().anyMatch(checked::contains);
+            assertThat(AuthoritySet.of(granted.toArray(String[]::new)).containsAny(AuthoritySet.of(checked.toArray(String[]::new))))
+                .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void isComputedOncePerSecurityContext() {
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN));
+        AuthoritySetSecurityContext securityContext = AuthoritySetSecurityContext.of(
+            new SecurityContextImpl(new TestingAuthenticationToken("admin", "admin", authorities))
+        );
+
+        AuthoritySet first = AuthoritySetSecurityContext.authoritiesOf(securityContext);
+
+        assertThat(first.contains(AuthoritiesConstants.ADMIN)).isTrue();
+        assertThat(AuthoritySetSecurityContext.authoritiesOf(securityContext)).isSameAs(first);
+        assertThat(AuthoritySetSecurityContext.of(securityContext)).isSameAs(securityContext);
+        securityContext.setAuthentication(null);
+        assertThat(securityContext.getAuthoritySet().isEmpty()).isTrue();
+    }
+
+    @Test
+    void grantsAccessToTheUsersHavingAnyOfTheAuthorities() {
+        AuthoritySetAuthorizationManager<Object> authorizationManager = AuthoritySetAuthorizationManager.hasAnyAuthority(
+            AuthoritiesConstants.ADMIN,
+            "ROLE_AUTHORITY_SET"
+        );
+        TestingAuthenticationToken admin = new TestingAuthenticationToken("admin", "admin", AuthoritiesConstants.ADMIN);
+        TestingAuthenticationToken user = new TestingAuthenticationToken("user", "user", AuthoritiesConstants.USER);
+        TestingAuthenticationToken unauthenticated = new TestingAuthenticationToken("admin", "admin", AuthoritiesConstants.ADMIN);
+        unauthenticated.setAuthenticated(false);
+
+        assertThat(authorizationManager.check(Mono.just(admin), null).block().isGranted()).isTrue();
+        assertThat(authorizationManager.check(Mono.just(user), null).block().isGranted()).isFalse();
+        assertThat(authorizationManager.check(Mono.just(unauthenticated), null).block().isGranted()).isFalse();
+        assertThat(authorizationManager.check(Mono.empty(), null).block().isGranted()).isFalse();
+    }
+
+    private static List<String> pick(List<String> names, Random random) {
+        String[] picked = new String[random.nextInt(6)];
+        Arrays.setAll(picked, i -> names.get(random.nextInt(names.size())));
+        return Arrays.asList(picked);
+    }
+}
@@ -108,4 +108,18 @@ class SecurityUtilsUnitTest {
         hasCurrentUserThisAuthority = SecurityUtils.hasCurrentUserThisAuthority(AuthoritiesConstants.ADMIN).contextWrite(context).block();
         assertThat(hasCurrentUserThisAuthority).isFalse();
     }
+
+    @Test
+    void testExtractAuthorityFromClaimsReusesTheInternedAuthorities() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("groups", Arrays.asList(AuthoritiesConstants.ADMIN, "ROLE_EXTRACTED", "Everyone"));
+
+        List<GrantedAuthority> authorities = SecurityUtils.extractAuthorityFromClaims(claims);
+
+        assertThat(authorities).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.ADMIN, "ROLE_EXTRACTED");
+        assertThat(authorities.get(0)).isSameAs(InternedAuthorities.grantedAuthority(AuthoritiesConstants.ADMIN));
+        assertThat(authorities.get(1)).isSameAs(InternedAuthorities.grantedAuthority("ROLE_EXTRACTED"));
+        assertThat(InternedAuthorities.indexOf(AuthoritiesConstants.ADMIN)).isZero();
+        assertThat(InternedAuthorities.indexOf("ROLE_EXTRACTED")).isPositive();
+    }
 }
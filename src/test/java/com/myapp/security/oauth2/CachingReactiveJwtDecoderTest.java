@@ -0,0 +1,158 @@
+package com.myapp.security.oauth2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link CachingReactiveJwtDecoder}.
+ */
+class CachingReactiveJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-17T10:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TestClock clock = new TestClock();
+
+    private final AtomicInteger decodes = new AtomicInteger();
+
+    private final AtomicInteger timestampValidations = new AtomicInteger();
+
+    private Instant notBefore;
+
+    private CachingReactiveJwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void init() {
+        JwtTimestampValidator jwtTimestampValidator = new JwtTimestampValidator(Duration.ZERO);
+        jwtTimestampValidator.setClock(clock);
+        OAuth2TokenValidator<Jwt> timestampValidator = jwt -> {
+            timestampValidations.incrementAndGet();
+            return jwtTimestampValidator.validate(jwt);
+        };
+        jwtDecoder = new CachingReactiveJwtDecoder(delegate(Duration.ofMinutes(5)), timestampValidator, 2, meterRegistry, clock);
+    }
+
+    @Test
+    void decodesATokenOnce() {
+        Jwt jwt = jwtDecoder.decode("first").block();
+
+        assertThat(jwtDecoder.decode("first").block()).isSameAs(jwt);
+        assertThat(decodes).hasValue(1);
+        assertThat(timestampValidations).hasValue(2);
+        assertThat(meterRegistry.counter("security.jwt.cache.gets", "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("security.jwt.cache.gets", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void checksTheTimestampsOfAKeptToken() {
+        notBefore = NOW.plus(Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> jwtDecoder.decode("first").block()).isInstanceOf(JwtValidationException.class);
+        assertThatThrownBy(() -> jwtDecoder.decode("first").block()).isInstanceOf(JwtValidationException.class);
+        assertThat(decodes).hasValue(1);
+        assertThat(meterRegistry.counter("security.jwt.cache.gets", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void decodesAnExpiredTokenAgain() {
+        Jwt jwt = jwtDecoder.decode("first").block();
+        clock.now = jwt.getExpiresAt();
+
+        jwtDecoder.decode("first").block();
+
+        assertThat(decodes).hasValue(2);
+        assertThat(meterRegistry.counter("security.jwt.cache.evictions", "cause", "expired").count()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotKeepATokenWithoutExpiration() {
+        jwtDecoder = new CachingReactiveJwtDecoder(delegate(null), jwt -> OAuth2TokenValidatorResult.success(), 2, meterRegistry, clock);
+
+        jwtDecoder.decode("first").block();
+        jwtDecoder.decode("first").block();
+
+        assertThat(decodes).hasValue(2);
+    }
+
+    @Test
+    void doesNotKeepAnInvalidToken() {
+        ReactiveJwtDecoder failing = token -> {
+            decodes.incrementAndGet();
+            return Mono.error(new BadJwtException("Invalid signature"));
+        };
+        jwtDecoder = new CachingReactiveJwtDecoder(failing, jwt -> OAuth2TokenValidatorResult.success(), 2, meterRegistry, clock);
+
+        assertThatThrownBy(() -> jwtDecoder.decode("first").block()).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> jwtDecoder.decode("first").block()).isInstanceOf(BadJwtException.class);
+        assertThat(decodes).hasValue(2);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedToken() {
+        jwtDecoder.decode("first").block();
+        jwtDecoder.decode("second").block();
+        jwtDecoder.decode("first").block();
+        jwtDecoder.decode("third").block();
+
+        jwtDecoder.decode("first").block();
+        assertThat(decodes).hasValue(3);
+        jwtDecoder.decode("second").block();
+        assertThat(decodes).hasValue(4);
+        assertThat(meterRegistry.counter("security.jwt.cache.evictions", "cause", "size").count()).isEqualTo(2);
+        assertThat(meterRegistry.get("security.jwt.cache.size").gauge().value()).isEqualTo(2);
+    }
+
+    private ReactiveJwtDecoder delegate(Duration validity) {
+        return token ->
+            Mono.fromSupplier(() -> {
+                decodes.incrementAndGet();
+                Jwt.Builder jwt = Jwt.withTokenValue(token).header("alg", "RS256").subject("user").issuedAt(clock.now);
+                if (validity != null) {
+                    jwt.expiresAt(clock.now.plus(validity));
+                }
+                if (notBefore != null) {
+                    jwt.notBefore(notBefore);
+                }
+                return jwt.build();
+            });
+    }
+
+    private static final class TestClock extends Clock {
+
+        private Instant now = NOW;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
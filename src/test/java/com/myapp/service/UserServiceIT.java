@@ -1,12 +1,15 @@
 package com.myapp.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.myapp.IntegrationTest;
 import com.myapp.config.Constants;
 import com.myapp.domain.User;
+import com.myapp.repository.AuthorityRepository;
 import com.myapp.repository.UserRepository;
 import com.myapp.security.AuthoritiesConstants;
+import com.myapp.security.InternedAuthorities;
 import com.myapp.service.dto.AdminUserDTO;
 import java.time.ZoneOffset;
 import java.util.Collection;
@@ -14,16 +17,19 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
 import org.springframework.security.oauth2.core.user.OAuth2User;
+import reactor.core.publisher.Flux;
 
 /**
  * Integration tests for {@link UserService}.
@@ -49,6 +55,12 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private UserSyncCache userSyncCache;
+
     private User user;
 
     private Map<String, Object> userDetails;
@@ -57,6 +69,7 @@ class UserServiceIT {
     public void init() {
         userRepository.deleteAllUserAuthorities().block();
         userRepository.deleteAll().block();
+        userSyncCache.clear();
         user = new User();
         user.setLogin(DEFAULT_LOGIN);
         user.setActivated(true);
@@ -141,8 +154,100 @@ class UserServiceIT {
         assertThat(userDTO.getLangKey()).isEqualTo("en");
     }
 
+    @Test
+    void testUserIsNotSynchronizedAgainFromTheSameClaims() {
+        userService.getUserFromAuthentication(createMockOAuth2AuthenticationToken(userDetails)).block();
+        userRepository.deleteAllUserAuthorities().block();
+        userRepository.deleteAll().block();
+
+        AdminUserDTO userDTO = userService.getUserFromAuthentication(createMockOAuth2AuthenticationToken(userDetails)).block();
+
+        assertThat(userDTO.getLogin()).isEqualTo(DEFAULT_LOGIN);
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN).blockOptional()).isEmpty();
+
+        // a changed claim synchronizes the user again
+        userDetails.put("family_name", "smith");
+        userService.getUserFromAuthentication(createMockOAuth2AuthenticationToken(userDetails)).block();
+
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN).blockOptional()).isPresent();
+    }
+
+    @Test
+    void testConcurrentFirstLoginsSynchronizeTheUserOnce() {
+        OAuth2AuthenticationToken authentication = createMockOAuth2AuthenticationToken(userDetails);
+
+        List<AdminUserDTO> userDTOs = Flux
+            .merge(userService.getUserFromAuthentication(authentication), userService.getUserFromAuthentication(authentication))
+            .collectList()
+            .block();
+
+        assertThat(userDTOs).extracting(AdminUserDTO::getLogin).containsExactly(DEFAULT_LOGIN, DEFAULT_LOGIN);
+        assertThat(userRepository.count().block()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetAllManagedUsersSortedAndPaged() {
+        createUser("user-c", "charlie", AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        createUser("user-a", "alice", AuthoritiesConstants.USER);
+        createUser("user-b", "bob");
+
+        List<AdminUserDTO> firstPage = userService.getAllManagedUsers(PageRequest.of(0, 2, Sort.by("login"))).collectList().block();
+        assertThat(firstPage).extracting(AdminUserDTO::getLogin).containsExactly("alice", "bob");
+        assertThat(firstPage.get(0).getAuthorities()).containsExactly(AuthoritiesConstants.USER);
+        assertThat(firstPage.get(1).getAuthorities()).isEmpty();
+
+        List<AdminUserDTO> lastPage = userService.getAllManagedUsers(PageRequest.of(1, 2, Sort.by("login"))).collectList().block();
+        assertThat(lastPage).extracting(AdminUserDTO::getLogin).containsExactly("charlie");
+        assertThat(lastPage.get(0).getAuthorities()).containsExactlyInAnyOrder(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+
+        List<AdminUserDTO> descending = userService
+            .getAllManagedUsers(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "login")))
+            .collectList()
+            .block();
+        assertThat(descending).extracting(AdminUserDTO::getLogin).containsExactly("charlie", "bob");
+    }
+
+    @Test
+    void testGetAllManagedUsersSortedByUnknownProperty() {
+        createUser("user-a", "alice", AuthoritiesConstants.USER);
+
+        assertThatThrownBy(() -> userService.getAllManagedUsers(PageRequest.of(0, 2, Sort.by("password"))).collectList().block())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testAuthoritiesFromTheIdPAreRegistered() {
+        String authority = "ROLE_" + UUID.randomUUID();
+        OAuth2AuthenticationToken authentication = createMockOAuth2AuthenticationToken(
+            userDetails,
+            InternedAuthorities.grantedAuthority(authority)
+        );
+
+        assertThat(userService.getAuthorities().collectList().block()).doesNotContain(authority);
+        userService.getUserFromAuthentication(authentication).block();
+
+        assertThat(userService.getAuthorities().collectList().block()).contains(authority, AuthoritiesConstants.ANONYMOUS);
+        assertThat(authorityRepository.findById(authority).block()).isNotNull();
+    }
+
+    private void createUser(String id, String login, String... authorities) {
+        User newUser = new User();
+        newUser.setId(id);
+        newUser.setLogin(login);
+        newUser.setActivated(true);
+        newUser.setCreatedBy(Constants.SYSTEM);
+        userRepository.create(newUser).block();
+        for (String authority : authorities) {
+            userRepository.saveUserAuthority(id, authority).block();
+        }
+    }
+
     private OAuth2AuthenticationToken createMockOAuth2AuthenticationToken(Map<String, Object> userDetails) {
-        Collection<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
+        return createMockOAuth2AuthenticationToken(userDetails, new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
+    }
+
+    private OAuth2AuthenticationToken createMockOAuth2AuthenticationToken(Map<String, Object> userDetails, GrantedAuthority authority) {
+        Collection<GrantedAuthority> authorities = Collections.singletonList(authority);
         UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
             "anonymous",
             "anonymous",
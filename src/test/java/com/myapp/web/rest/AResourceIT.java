@@ -1,19 +1,28 @@
 package com.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
 
 import com.myapp.IntegrationTest;
 import com.myapp.domain.A;
+import com.myapp.domain.B;
 import com.myapp.repository.ARepository;
+import com.myapp.repository.BRepository;
 import com.myapp.repository.EntityManager;
+import com.myapp.service.AService;
 import com.myapp.service.dto.ADTO;
+import com.myapp.service.dto.BDTO;
 import com.myapp.service.mapper.AMapper;
+import java.net.URI;
 import java.time.Duration;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,6 +32,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -37,6 +48,7 @@ class AResourceIT {
 
     private static final String DEFAULT_TEST = "AAAAAAAAAA";
     private static final String UPDATED_TEST = "BBBBBBBBBB";
+    private static final String OTHER_TEST = "AAAAAAAAAB";
 
     private static final String ENTITY_API_URL = "/api/as";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
@@ -47,9 +59,15 @@ class AResourceIT {
     @Autowired
     private ARepository aRepository;
 
+    @Autowired
+    private BRepository bRepository;
+
     @Autowired
     private AMapper aMapper;
 
+    @Autowired
+    private AService aService;
+
     @Autowired
     private EntityManager em;
 
@@ -125,6 +143,33 @@ class AResourceIT {
         assertThat(testA.getTest()).isEqualTo(DEFAULT_TEST);
     }
 
+    @Test
+    void createAWithNewBs() throws Exception {
+        ADTO aDTO = aMapper.toDto(a);
+        aDTO.setBs(Set.of(new BDTO(), new BDTO()));
+
+        try {
+            ADTO created = webTestClient
+                .post()
+                .uri(ENTITY_API_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(TestUtil.convertObjectToJsonBytes(aDTO))
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(ADTO.class)
+                .returnResult()
+                .getResponseBody();
+
+            // The bs are inserted with their a, and refer to its id
+            assertThat(created.getBs()).hasSize(2).allSatisfy(bDTO -> assertThat(bDTO.getA().getId()).isEqualTo(created.getId()));
+            List<B> bList = bRepository.findByA(created.getId()).collectList().block();
+            assertThat(bList).hasSize(2);
+        } finally {
+            bRepository.deleteAll().block();
+        }
+    }
+
     @Test
     void createAWithExistingId() throws Exception {
         // Create the A with an existing ID
@@ -148,6 +193,118 @@ class AResourceIT {
         assertThat(aList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    void createASInBulk() throws Exception {
+        int databaseSizeBeforeCreate = aRepository.findAll().collectList().block().size();
+        // Create more aS than fit in one batch
+        List<ADTO> aDTOs = List.of(
+            aMapper.toDto(a),
+            aMapper.toDto(createUpdatedEntity(em)),
+            aMapper.toDto(createEntity(em).test(OTHER_TEST))
+        );
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(aDTOs))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasSize(3))
+            .jsonPath("$.[*].test")
+            .value(contains(DEFAULT_TEST, UPDATED_TEST, OTHER_TEST));
+
+        // Validate the aS in the database
+        List<A> aList = aRepository.findAll().collectList().block();
+        assertThat(aList).hasSize(databaseSizeBeforeCreate + 3);
+        assertThat(aList).extracting(A::getId).doesNotContainNull().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void createASInBulkWithExistingId() throws Exception {
+        // One of the aS has an existing ID
+        A existing = createEntity(em);
+        existing.setId(1L);
+        List<ADTO> aDTOs = List.of(aMapper.toDto(a), aMapper.toDto(createUpdatedEntity(em)), aMapper.toDto(existing.test(OTHER_TEST)));
+
+        int databaseSizeBeforeCreate = aRepository.findAll().collectList().block().size();
+
+        // The batch is rejected as a whole
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(aDTOs))
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+
+        // Validate the A in the database
+        List<A> aList = aRepository.findAll().collectList().block();
+        assertThat(aList).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    void upsertAS() throws Exception {
+        // Initialize the database
+        A existing = aRepository.save(a).block();
+        int databaseSizeBeforeUpsert = aRepository.findAll().collectList().block().size();
+
+        // The first a has the test of the existing one, the second one is new
+        List<ADTO> aDTOs = List.of(aMapper.toDto(createEntity(em)), aMapper.toDto(createUpdatedEntity(em)));
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL + "/upsert")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(aDTOs))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-myAppOauthApp-alert", "myAppOauthApp.a.bulkUpserted")
+            .expectBody()
+            .jsonPath("$.[0].id")
+            .isEqualTo(existing.getId().intValue())
+            .jsonPath("$.[0].version")
+            .isEqualTo(existing.getVersion().intValue() + 1)
+            .jsonPath("$.[*].inserted")
+            .value(contains(false, true));
+
+        // Validate the aS in the database
+        List<A> aList = aRepository.findAll().collectList().block();
+        assertThat(aList).hasSize(databaseSizeBeforeUpsert + 1);
+        assertThat(aList).extracting(A::getTest).containsOnlyOnce(DEFAULT_TEST, UPDATED_TEST);
+    }
+
+    @Test
+    void upsertASWithTheSameTest() throws Exception {
+        int databaseSizeBeforeUpsert = aRepository.findAll().collectList().block().size();
+
+        // The second a updates the row inserted by the first one
+        List<ADTO> aDTOs = List.of(aMapper.toDto(createEntity(em)), aMapper.toDto(createEntity(em)));
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL + "/upsert")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(aDTOs))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].inserted")
+            .value(contains(true, false))
+            .jsonPath("$.[1].version")
+            .isEqualTo(1);
+
+        // Validate the aS in the database
+        List<A> aList = aRepository.findAll().collectList().block();
+        assertThat(aList).hasSize(databaseSizeBeforeUpsert + 1);
+        A stored = aList.stream().filter(row -> DEFAULT_TEST.equals(row.getTest())).findFirst().orElseThrow();
+        assertThat(stored.getVersion()).isEqualTo(1);
+    }
+
     @Test
     void checkTestIsRequired() throws Exception {
         int databaseSizeBeforeTest = aRepository.findAll().collectList().block().size();
@@ -214,6 +371,227 @@ class AResourceIT {
             .value(is(DEFAULT_TEST));
     }
 
+    @Test
+    void getAWithEntityTag() {
+        // Initialize the database
+        aRepository.save(a).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, a.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"0\"");
+
+        // The a is not sent again while it keeps its version
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, a.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isNotModified()
+            .expectBody()
+            .isEmpty();
+
+        // The update goes through the service, which invalidates the cached a
+        aService.update(aMapper.toDto(aRepository.findById(a.getId()).block().test(UPDATED_TEST))).block();
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, a.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"1\"")
+            .expectBody()
+            .jsonPath("$.test")
+            .value(is(UPDATED_TEST));
+    }
+
+    @Test
+    void getAllASWithKeysetPagination() {
+        // Initialize the database
+        A first = aRepository.save(createEntity(em)).block();
+        A second = aRepository.save(createEntity(em).test(OTHER_TEST)).block();
+        A third = aRepository.save(createUpdatedEntity(em)).block();
+
+        // Get the first page, sorted by test then id
+        List<String> links = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?after=&size=2&sort=test,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Total-Count")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(first.getId().intValue(), second.getId().intValue()))
+            .returnResult()
+            .getResponseHeaders()
+            .get(HttpHeaders.LINK);
+
+        assertThat(links).hasSize(1);
+        String next = links.get(0).substring(links.get(0).indexOf('<') + 1, links.get(0).indexOf('>'));
+        assertThat(next).contains("after=").contains("size=2");
+
+        // Follow the next link, which is the last page
+        webTestClient
+            .get()
+            .uri(URI.create(next))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist(HttpHeaders.LINK)
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(third.getId().intValue()))
+            .jsonPath("$.[*].test")
+            .value(contains(UPDATED_TEST));
+    }
+
+    @Test
+    void getAllASWithInvalidCursor() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?after=invalid&sort=test,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void streamAllAS() {
+        // Initialize the database, with more rows than the fetch size
+        A first = aRepository.save(createEntity(em)).block();
+        A second = aRepository.save(createEntity(em).test(OTHER_TEST)).block();
+        A third = aRepository.save(createUpdatedEntity(em)).block();
+
+        // Stream all the aList as newline delimited JSON
+        List<ADTO> aList = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/stream")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(ADTO.class)
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertThat(aList).extracting(ADTO::getId).containsExactlyInAnyOrder(first.getId(), second.getId(), third.getId());
+        assertThat(aList).extracting(ADTO::getTest).contains(DEFAULT_TEST, UPDATED_TEST);
+    }
+
+    @Test
+    void streamAllASAsServerSentEvents() {
+        // Initialize the database
+        aRepository.save(a).block();
+
+        // Stream all the aList as server-sent events
+        List<ADTO> aList = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/stream")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+            .returnResult(ADTO.class)
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertThat(aList).extracting(ADTO::getId).containsExactly(a.getId());
+    }
+
+    @Test
+    void getAllASWithEagerRelationships() {
+        // Initialize the database
+        aRepository.save(a).block();
+        A other = aRepository.save(createUpdatedEntity(em)).block();
+        B first = createB(a);
+        B second = createB(a);
+
+        try {
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "?eagerload=true&sort=id,asc")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.[*].id")
+                .value(contains(a.getId().intValue(), other.getId().intValue()))
+                .jsonPath("$.[0].bs[*].id")
+                .value(containsInAnyOrder(first.getId().intValue(), second.getId().intValue()))
+                .jsonPath("$.[1].bs")
+                .value(hasSize(0));
+
+            // The bs are only loaded on demand
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "?sort=id,asc")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.[0].bs")
+                .doesNotExist();
+        } finally {
+            bRepository.deleteAll().block();
+        }
+    }
+
+    @Test
+    void getAWithEagerRelationships() {
+        // Initialize the database
+        aRepository.save(a).block();
+        B b = createB(a);
+
+        try {
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL_ID + "?eagerload=true", a.getId())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.id")
+                .value(is(a.getId().intValue()))
+                .jsonPath("$.bs[*].id")
+                .value(contains(b.getId().intValue()))
+                .jsonPath("$.bs[0].a.id")
+                .value(is(a.getId().intValue()));
+        } finally {
+            bRepository.deleteAll().block();
+        }
+    }
+
+    private B createB(A a) {
+        B b = new B();
+        b.setA(a);
+        return bRepository.save(b).block();
+    }
+
     @Test
     void getNonExistingA() {
         // Get the a
@@ -254,6 +632,91 @@ class AResourceIT {
         assertThat(testA.getTest()).isEqualTo(UPDATED_TEST);
     }
 
+    @Test
+    void putAWithIfMatch() throws Exception {
+        // Initialize the database
+        aRepository.save(a).block();
+
+        ADTO aDTO = aMapper.toDto(aRepository.findById(a.getId()).block().test(UPDATED_TEST));
+        aDTO.setVersion(null);
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, aDTO.getId())
+            .header(HttpHeaders.IF_MATCH, "\"0\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(aDTO))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"1\"")
+            .expectBody()
+            .jsonPath("$.version")
+            .value(is(1));
+
+        // The update of the first version is lost
+        aDTO.setTest(DEFAULT_TEST);
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, aDTO.getId())
+            .header(HttpHeaders.IF_MATCH, "\"0\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(aDTO))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        // The version of the body is checked without If-Match
+        aDTO.setVersion(0L);
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, aDTO.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(aDTO))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        A testA = aRepository.findById(a.getId()).block();
+        assertThat(testA.getTest()).isEqualTo(UPDATED_TEST);
+        assertThat(testA.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void patchAWithIfMatch() throws Exception {
+        // Initialize the database
+        aRepository.save(a).block();
+
+        ADTO aDTO = new ADTO();
+        aDTO.setId(a.getId());
+        aDTO.setTest(UPDATED_TEST);
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, aDTO.getId())
+            .header(HttpHeaders.IF_MATCH, "\"1\"")
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(aDTO))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, aDTO.getId())
+            .header(HttpHeaders.IF_MATCH, "\"0\"")
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(aDTO))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"1\"");
+
+        A testA = aRepository.findById(a.getId()).block();
+        assertThat(testA.getTest()).isEqualTo(UPDATED_TEST);
+        assertThat(testA.getVersion()).isEqualTo(1L);
+    }
+
     @Test
     void putNonExistingA() throws Exception {
         int databaseSizeBeforeUpdate = aRepository.findAll().collectList().block().size();
@@ -389,7 +852,7 @@ class AResourceIT {
         // Create the A
         ADTO aDTO = aMapper.toDto(a);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // The update of an unknown id finds no row
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, aDTO.getId())
@@ -397,7 +860,7 @@ class AResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(aDTO))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the A in the database
         List<A> aList = aRepository.findAll().collectList().block();
@@ -464,4 +927,28 @@ class AResourceIT {
         List<A> aList = aRepository.findAll().collectList().block();
         assertThat(aList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    void deleteAWithCascade() {
+        // Initialize the database
+        aRepository.save(a).block();
+        bRepository.save(new B().a(a)).block();
+        bRepository.save(new B().a(a)).block();
+
+        int databaseSizeBeforeDelete = aRepository.findAll().collectList().block().size();
+
+        // Delete the a and its bs
+        webTestClient
+            .delete()
+            .uri(ENTITY_API_URL_ID + "?cascade=true", a.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isNoContent();
+
+        // Validate the database contains one less item, and none of its bs
+        List<A> aList = aRepository.findAll().collectList().block();
+        assertThat(aList).hasSize(databaseSizeBeforeDelete - 1);
+        assertThat(bRepository.findByA(a.getId()).collectList().block()).isEmpty();
+    }
 }
@@ -1,12 +1,15 @@
 package com.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
 
 import com.myapp.IntegrationTest;
+import com.myapp.domain.A;
 import com.myapp.domain.B;
+import com.myapp.repository.ARepository;
 import com.myapp.repository.BRepository;
 import com.myapp.repository.EntityManager;
 import com.myapp.service.dto.BDTO;
@@ -23,6 +26,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -41,6 +45,9 @@ class BResourceIT {
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
 
+    @Autowired
+    private ARepository aRepository;
+
     @Autowired
     private BRepository bRepository;
 
@@ -164,6 +171,41 @@ class BResourceIT {
             .value(hasItem(b.getId().intValue()));
     }
 
+    @Test
+    void getAllBSWithKeysetPagination() {
+        // Initialize the database
+        bRepository.save(createEntity(em)).block();
+        B second = bRepository.save(createEntity(em)).block();
+
+        // Get the first page, sorted by descending id
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?after=&size=1&sort=id,desc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueMatches(HttpHeaders.LINK, ".*after=.*rel=\"next\"")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(second.getId().intValue()));
+    }
+
+    @Test
+    void getAllBSWithKeysetPaginationOnANullableProperty() {
+        // Initialize the database, the b has no a
+        bRepository.save(createEntity(em)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?after=&sort=aId,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void getB() {
         // Initialize the database
@@ -351,7 +393,7 @@ class BResourceIT {
         // Create the B
         BDTO bDTO = bMapper.toDto(b);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // The update of an unknown id finds no row
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, bDTO.getId())
@@ -359,7 +401,7 @@ class BResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(bDTO))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the B in the database
         List<B> bList = bRepository.findAll().collectList().block();
@@ -426,4 +468,35 @@ class BResourceIT {
         List<B> bList = bRepository.findAll().collectList().block();
         assertThat(bList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    void deleteBSByA() {
+        // Initialize the database
+        A a = aRepository.save(AResourceIT.createEntity(em)).block();
+        try {
+            bRepository.save(createEntity(em).a(a)).block();
+            bRepository.save(createEntity(em).a(a)).block();
+            bRepository.save(b).block();
+
+            int databaseSizeBeforeDelete = bRepository.findAll().collectList().block().size();
+
+            // Delete the bs of the a
+            webTestClient
+                .delete()
+                .uri(ENTITY_API_URL + "?aId={aId}", a.getId())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isNoContent()
+                .expectHeader()
+                .valueEquals("X-myAppOauthApp-params", "2");
+
+            // Validate the database contains two less items
+            List<B> bList = bRepository.findAll().collectList().block();
+            assertThat(bList).hasSize(databaseSizeBeforeDelete - 2).extracting(B::getAId).containsOnlyNulls();
+        } finally {
+            bRepository.deleteAll().block();
+            aRepository.deleteById(a.getId()).block();
+        }
+    }
 }
@@ -351,7 +351,7 @@ class CResourceIT {
         // Create the C
         CDTO cDTO = cMapper.toDto(c);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // The update of an unknown id finds no row
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, cDTO.getId())
@@ -359,7 +359,7 @@ class CResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(cDTO))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the C in the database
         List<C> cList = cRepository.findAll().collectList().block();
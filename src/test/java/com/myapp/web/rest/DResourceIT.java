@@ -351,7 +351,7 @@ class DResourceIT {
         // Create the D
         DDTO dDTO = dMapper.toDto(d);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // The update of an unknown id finds no row
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, dDTO.getId())
@@ -359,7 +359,7 @@ class DResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(dDTO))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the D in the database
         List<D> dList = dRepository.findAll().collectList().block();